@@ -0,0 +1,64 @@
+package br.com.matheusramos.minhasfinancas.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import br.com.matheusramos.minhasfinancas.services.SenhaServiceImpl;
+
+/**
+ * @author Matheus
+ * Logins por segundo por núcleo: uma thread de benchmark e um pool de senhas com uma thread, por custo do BCrypt.
+ * A senha em texto puro (usuários ainda não migrados) é a referência sem hash e sem pool
+ * */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(1)
+@State(Scope.Benchmark)
+public class AutenticacaoBenchmark {
+
+	private static final String SENHA = "123456";
+	
+	@Param({"8", "10", "12"})
+	private int custo;
+	
+	private SenhaServiceImpl senhaService;
+	private String senhaArmazenada;
+	
+	@Setup
+	public void setUp() {
+		senhaService = new SenhaServiceImpl(custo, 0, 1, 64, TimeUnit.MINUTES.toMillis(1));
+		senhaArmazenada = senhaService.codificar(SENHA).join();
+	}
+	
+	@TearDown
+	public void tearDown() {
+		senhaService.encerrar();
+	}
+	
+	@Benchmark
+	public boolean conferirSenhaNoPool() {
+		return senhaService.confere(SENHA, senhaArmazenada).join();
+	}
+	
+	@Benchmark
+	public boolean conferirSenhaTextoPuro() {
+		return senhaService.confere(SENHA, SENHA).join();
+	}
+	
+}
@@ -0,0 +1,86 @@
+package br.com.matheusramos.minhasfinancas.benchmark;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import br.com.matheusramos.minhasfinancas.enums.EnumTipoLancamento;
+import br.com.matheusramos.minhasfinancas.model.Dinheiro;
+import br.com.matheusramos.minhasfinancas.model.entity.Lancamento;
+
+/**
+ * @author Matheus
+ * Saldo dos lançamentos da massa de dados (receitas somadas, despesas subtraídas) com BigDecimal e com {@link Dinheiro}.
+ * O Dinheiro ainda cria um objeto por operação, mas de 24 bytes e sem BigInteger nem escala para conferir
+ * */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DinheiroBenchmark {
+
+	@Param({ "100000" })
+	private int quantidade;
+
+	private BigDecimal[] decimais;
+	private Dinheiro[] valores;
+	private boolean[] receitas;
+
+	@Setup
+	public void setUp() {
+		List<Lancamento> lancamentos = Lancamentos.lancamentos(quantidade);
+		decimais = new BigDecimal[quantidade];
+		valores = new Dinheiro[quantidade];
+		receitas = new boolean[quantidade];
+		for (int i = 0; i < quantidade; i++) {
+			decimais[i] = lancamentos.get(i).getValor();
+			valores[i] = Dinheiro.de(decimais[i]);
+			receitas[i] = lancamentos.get(i).getTipo() == EnumTipoLancamento.RECEITA;
+		}
+	}
+
+	@Benchmark
+	public BigDecimal bigDecimal() {
+		BigDecimal saldo = BigDecimal.ZERO;
+		for (int i = 0; i < decimais.length; i++) {
+			saldo = receitas[i] ? saldo.add(decimais[i]) : saldo.subtract(decimais[i]);
+		}
+		return saldo;
+	}
+
+	@Benchmark
+	public Dinheiro dinheiro() {
+		Dinheiro saldo = Dinheiro.ZERO;
+		for (int i = 0; i < valores.length; i++) {
+			saldo = receitas[i] ? saldo.somar(valores[i]) : saldo.subtrair(valores[i]);
+		}
+		return saldo;
+	}
+
+	/**
+	 * Acumulando os centavos num long, como no livro colunar das análises: sem um objeto por operação
+	 * */
+	@Benchmark
+	public Dinheiro centavos() {
+		long saldo = 0;
+		for (int i = 0; i < valores.length; i++) {
+			saldo = receitas[i] ? Math.addExact(saldo, valores[i].getCentavos()) : Math.subtractExact(saldo, valores[i].getCentavos());
+		}
+		return Dinheiro.deCentavos(saldo);
+	}
+
+}
@@ -0,0 +1,379 @@
+package br.com.matheusramos.minhasfinancas.benchmark;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import br.com.matheusramos.minhasfinancas.MinhasfinancasApplication;
+import br.com.matheusramos.minhasfinancas.utils.GeradorDados;
+
+/**
+ * @author Matheus
+ * Gerador de carga HTTP para /api/lancamentos e /api/usuarios. Cada thread executa requisições em sequência
+ * (sistema fechado), sorteando leituras e escritas na proporção informada, e ao final é impressa a vazão e os
+ * percentis de latência de cada endpoint, descontado o aquecimento.
+ * Sem --url, sobe a aplicação com o perfil de teste em uma porta livre e a popula com o {@link GeradorDados}.
+ * Uso: mvn -Pbenchmark -DskipTests test-compile exec:exec@carga -Dcarga.parametros="concorrencia=32 leitura=0.8"
+ * Parâmetros (com ou sem --): url, usuarios (100), lancamentos (100000), semente (42), concorrencia (16),
+ * duracao em segundos (30), aquecimento em segundos (5), leitura de 0 a 1 (0.9), api (servlet ou reativo: as leituras passam
+ * a ser somente saldo e listagem do mês, em /api ou /api/reativo, para comparar as duas pilhas), disputados (0; com N > 0 as escritas
+ * se concentram em N lançamentos criados no início, metade trocando o status sem versão e metade lendo e alterando o valor com a
+ * versão lida, e a coluna 409 conta os conflitos) e, para a aplicação local, virtuais (false; true exige executar com Java 21+),
+ * threads (200, threads da plataforma do Tomcat) e conexoes (10, tanto JDBC quanto R2DBC)
+ * */
+public class GeradorCarga {
+
+	private static final Pattern ID = Pattern.compile("\"id\"\\s*:\\s*(\\d+)");
+	private static final Pattern VALOR = Pattern.compile("\"valor\"\\s*:\\s*[0-9.]+");
+	private static final String[] TERMOS = { "luz", "mercado", "sala", "aluguel", "cartao", "farm" };
+	
+	private final String url;
+	private final int usuarios;
+	private final int concorrencia;
+	private final double leitura;
+	private final long semente;
+	private final String api;
+	private final List<Long> disputados = new ArrayList<>();
+	
+	private GeradorCarga(String url, int usuarios, int concorrencia, double leitura, long semente, String api) {
+		this.url = url;
+		this.usuarios = usuarios;
+		this.concorrencia = concorrencia;
+		this.leitura = leitura;
+		this.semente = semente;
+		this.api = api == null ? null : "reativo".equals(api) ? "/api/reativo" : "/api";
+	}
+	
+	public static void main(String[] args) throws Exception {
+		Map<String, String> parametros = new HashMap<>();
+		for (String arg : args) {
+			String[] chaveValor = arg.replaceFirst("^--", "").split("=", 2);
+			parametros.put(chaveValor[0], chaveValor.length > 1 ? chaveValor[1] : "true");
+		}
+		
+		int usuarios = Integer.parseInt(parametros.getOrDefault("usuarios", "100"));
+		int concorrencia = Integer.parseInt(parametros.getOrDefault("concorrencia", "16"));
+		long semente = Long.parseLong(parametros.getOrDefault("semente", "42"));
+		
+		// mantém uma conexão keep-alive por thread
+		System.setProperty("http.maxConnections", String.valueOf(concorrencia));
+		// o restart do devtools chamaria este main novamente com os argumentos da aplicação
+		System.setProperty("spring.devtools.restart.enabled", "false");
+		
+		ConfigurableApplicationContext contexto = null;
+		String url = parametros.get("url");
+		if (url == null) {
+			contexto = new SpringApplicationBuilder(MinhasfinancasApplication.class)
+					.profiles("test")
+					.logStartupInfo(false)
+					.run("--server.port=0",
+							"--minhasfinancas.carga.usuarios=" + usuarios,
+							"--minhasfinancas.carga.lancamentos=" + parametros.getOrDefault("lancamentos", "100000"),
+							"--minhasfinancas.carga.semente=" + semente,
+							"--minhasfinancas.carga.ano=2020",
+							"--minhasfinancas.threads.virtuais=" + parametros.getOrDefault("virtuais", "false"),
+							"--server.tomcat.max-threads=" + parametros.getOrDefault("threads", "200"),
+							"--spring.datasource.hikari.maximum-pool-size=" + parametros.getOrDefault("conexoes", "10"),
+							"--minhasfinancas.r2dbc.conexoes=" + parametros.getOrDefault("conexoes", "10"));
+			url = "http://localhost:" + contexto.getEnvironment().getProperty("local.server.port");
+		}
+		
+		try {
+			new GeradorCarga(url, usuarios, concorrencia, Double.parseDouble(parametros.getOrDefault("leitura", "0.9")), semente,
+					parametros.get("api"))
+					.executar(Integer.parseInt(parametros.getOrDefault("disputados", "0")),
+							Integer.parseInt(parametros.getOrDefault("aquecimento", "5")), Integer.parseInt(parametros.getOrDefault("duracao", "30")));
+		} finally {
+			if (contexto != null) {
+				contexto.close();
+			}
+		}
+	}
+	
+	private void executar(int disputados, int aquecimento, int duracao) throws Exception {
+		Cliente criador = new Cliente(new Random(semente));
+		for (int i = 0; i < disputados; i++) {
+			Matcher matcher = ID.matcher(criador.escrita(1).enviar().corpo);
+			if (matcher.find()) {
+				this.disputados.add(Long.valueOf(matcher.group(1)));
+			}
+		}
+		
+		long inicioMedicao = System.nanoTime() + aquecimento * 1_000_000_000L;
+		long fim = inicioMedicao + duracao * 1_000_000_000L;
+		
+		System.out.printf("Carga em %s: %d threads, %.0f%% leituras, %d lançamentos disputados, %ds de aquecimento e %ds de medição%n",
+				url, concorrencia, leitura * 100, this.disputados.size(), aquecimento, duracao);
+		
+		ExecutorService executor = Executors.newFixedThreadPool(concorrencia);
+		List<Future<Map<String, Amostras>>> resultados = new ArrayList<>();
+		for (int i = 0; i < concorrencia; i++) {
+			Random random = new Random(semente + i);
+			resultados.add(executor.submit(() -> new Cliente(random).executar(inicioMedicao, fim)));
+		}
+		
+		Map<String, Amostras> total = new TreeMap<>();
+		for (Future<Map<String, Amostras>> resultado : resultados) {
+			resultado.get().forEach((endpoint, amostras) -> total.computeIfAbsent(endpoint, e -> new Amostras()).juntar(amostras));
+		}
+		executor.shutdown();
+		
+		imprimir(total, duracao);
+	}
+	
+	private static void imprimir(Map<String, Amostras> total, int duracao) {
+		System.out.printf("%n%-45s %9s %7s %7s %9s %9s %9s %9s %9s%n", "Endpoint", "Reqs", "Erros", "409", "Req/s", "p50 ms", "p99 ms", "p999 ms", "Max ms");
+		Amostras todas = new Amostras();
+		total.forEach((endpoint, amostras) -> {
+			imprimir(endpoint, amostras, duracao);
+			todas.juntar(amostras);
+		});
+		imprimir("Total", todas, duracao);
+	}
+	
+	private static void imprimir(String endpoint, Amostras amostras, int duracao) {
+		long[] latencias = amostras.ordenadas();
+		System.out.printf("%-45s %9d %7d %7d %9.1f %9.2f %9.2f %9.2f %9.2f%n", endpoint, latencias.length, amostras.erros, amostras.conflitos,
+				(double) latencias.length / duracao, percentil(latencias, 0.50), percentil(latencias, 0.99), percentil(latencias, 0.999),
+				percentil(latencias, 1));
+	}
+	
+	private static double percentil(long[] latencias, double percentil) {
+		if (latencias.length == 0) {
+			return 0;
+		}
+		int posicao = (int) Math.ceil(percentil * latencias.length) - 1;
+		return latencias[Math.max(posicao, 0)] / 1_000_000.0;
+	}
+	
+	/**
+	 * Uma thread de carga, com os ids dos lançamentos que ela criou para as atualizações de status
+	 * */
+	private class Cliente {
+		
+		private final Random random;
+		private final Map<String, Amostras> amostras = new HashMap<>();
+		private final List<Long> criados = new ArrayList<>();
+		
+		Cliente(Random random) {
+			this.random = random;
+		}
+		
+		Map<String, Amostras> executar(long inicioMedicao, long fim) {
+			long agora;
+			while ((agora = System.nanoTime()) < fim) {
+				long idUsuario = random.nextInt(usuarios) + 1;
+				Requisicao requisicao = random.nextDouble() < leitura ? leitura(idUsuario)
+						: disputados.isEmpty() ? escrita(idUsuario) : disputada(agora >= inicioMedicao);
+				
+				long inicio = System.nanoTime();
+				Resposta resposta = requisicao.enviar();
+				long latencia = System.nanoTime() - inicio;
+				
+				if (requisicao.endpoint.startsWith("POST /api/lancamentos") && resposta.sucesso()) {
+					Matcher matcher = ID.matcher(resposta.corpo);
+					if (matcher.find()) {
+						criados.add(Long.valueOf(matcher.group(1)));
+					}
+				}
+				
+				if (agora >= inicioMedicao) {
+					amostras.computeIfAbsent(requisicao.endpoint, e -> new Amostras()).registrar(latencia, resposta);
+				}
+			}
+			return amostras;
+		}
+		
+		private Requisicao leitura(long idUsuario) {
+			double sorteio = random.nextDouble();
+			if (api != null) {
+				return sorteio < 0.5
+						? new Requisicao("GET " + api + "/usuarios/{id}/saldo", "GET", api + "/usuarios/" + idUsuario + "/saldo", null)
+						: new Requisicao("GET " + api + "/lancamentos?mes", "GET",
+								api + "/lancamentos?usuario=" + idUsuario + "&ano=2020&mes=" + (random.nextInt(12) + 1), null);
+			}
+			if (sorteio < 0.4) {
+				return new Requisicao("GET /api/lancamentos/pagina", "GET", "/api/lancamentos/pagina?limit=50&usuario=" + idUsuario, null);
+			}
+			if (sorteio < 0.6) {
+				return new Requisicao("GET /api/lancamentos?descricao", "GET",
+						"/api/lancamentos?usuario=" + idUsuario + "&descricao=" + TERMOS[random.nextInt(TERMOS.length)], null);
+			}
+			if (sorteio < 0.9) {
+				return new Requisicao("GET /api/usuarios/{id}/saldo", "GET", "/api/usuarios/" + idUsuario + "/saldo", null);
+			}
+			return new Requisicao("POST /api/usuarios/autenticar", "POST", "/api/usuarios/autenticar",
+					"{\"email\":\"" + GeradorDados.email((int) idUsuario) + "\",\"senha\":\"" + GeradorDados.SENHA + "\"}");
+		}
+		
+		/**
+		 * Escrita em um dos lançamentos disputados: troca de status sem versão, que o servidor repete em caso de conflito,
+		 * ou leitura seguida da alteração do valor com a versão lida, que recebe 409 se outra thread alterou o lançamento no meio
+		 * */
+		private Requisicao disputada(boolean medindo) {
+			Long id = disputados.get(random.nextInt(disputados.size()));
+			if (random.nextBoolean()) {
+				return new Requisicao("PUT /api/lancamentos/{id}/atualiza-status", "PUT", "/api/lancamentos/" + id + "/atualiza-status",
+						"{\"status\":\"" + (random.nextBoolean() ? "EFETIVADO" : "CANCELADO") + "\"}");
+			}
+			
+			Requisicao consulta = new Requisicao("GET /api/lancamentos/{id}", "GET", "/api/lancamentos/" + id, null);
+			long inicio = System.nanoTime();
+			Resposta lido = consulta.enviar();
+			if (medindo) {
+				amostras.computeIfAbsent(consulta.endpoint, e -> new Amostras()).registrar(System.nanoTime() - inicio, lido);
+			}
+			return new Requisicao("PUT /api/lancamentos/{id} (com versao)", "PUT", "/api/lancamentos/" + id,
+					VALOR.matcher(lido.corpo).replaceFirst("\"valor\":" + (random.nextInt(100000) + 1) / 100.0));
+		}
+		
+		private Requisicao escrita(long idUsuario) {
+			if (!criados.isEmpty() && random.nextDouble() < 0.3) {
+				Long id = criados.remove(criados.size() - 1);
+				return new Requisicao("PUT /api/lancamentos/{id}/atualiza-status", "PUT", "/api/lancamentos/" + id + "/atualiza-status",
+						"{\"status\":\"" + (random.nextBoolean() ? "EFETIVADO" : "CANCELADO") + "\"}");
+			}
+			return new Requisicao("POST /api/lancamentos", "POST", "/api/lancamentos",
+					"{\"descricao\":\"Carga\",\"mes\":" + (random.nextInt(12) + 1) + ",\"ano\":2020,\"valor\":" + (random.nextInt(100000) + 1) / 100.0
+							+ ",\"tipo\":\"" + (random.nextInt(5) == 0 ? "RECEITA" : "DESPESA") + "\",\"usuario\":" + idUsuario + "}");
+		}
+		
+	}
+	
+	private class Requisicao {
+		
+		private final String endpoint;
+		private final String metodo;
+		private final String caminho;
+		private final String corpo;
+		
+		Requisicao(String endpoint, String metodo, String caminho, String corpo) {
+			this.endpoint = endpoint;
+			this.metodo = metodo;
+			this.caminho = caminho;
+			this.corpo = corpo;
+		}
+		
+		Resposta enviar() {
+			HttpURLConnection conexao = null;
+			try {
+				conexao = (HttpURLConnection) new URL(url + caminho).openConnection();
+				conexao.setRequestMethod(metodo);
+				if (corpo != null) {
+					conexao.setDoOutput(true);
+					conexao.setRequestProperty("Content-Type", "application/json");
+					try (OutputStream saida = conexao.getOutputStream()) {
+						saida.write(corpo.getBytes(StandardCharsets.UTF_8));
+					}
+				}
+				
+				int status = conexao.getResponseCode();
+				try (InputStream entrada = status < 400 ? conexao.getInputStream() : conexao.getErrorStream()) {
+					return new Resposta(status, ler(entrada));
+				}
+			} catch (IOException e) {
+				if (conexao != null) {
+					conexao.disconnect();
+				}
+				return new Resposta(-1, e.getMessage());
+			}
+		}
+		
+		/**
+		 * Lê a resposta inteira para que a conexão volte ao pool de keep-alive
+		 * */
+		private String ler(InputStream entrada) throws IOException {
+			if (entrada == null) {
+				return "";
+			}
+			StringBuilder texto = new StringBuilder();
+			byte[] buffer = new byte[8192];
+			for (int lidos; (lidos = entrada.read(buffer)) != -1;) {
+				// apenas o começo do corpo é guardado, onde fica o id do lançamento criado
+				if (texto.length() < 256) {
+					texto.append(new String(buffer, 0, lidos, StandardCharsets.UTF_8));
+				}
+			}
+			return texto.toString();
+		}
+		
+	}
+	
+	private static class Resposta {
+		
+		private final int status;
+		private final String corpo;
+		
+		Resposta(int status, String corpo) {
+			this.status = status;
+			this.corpo = corpo;
+		}
+		
+		boolean sucesso() {
+			return status >= 200 && status < 300;
+		}
+		
+	}
+	
+	/**
+	 * Latências em nanossegundos de um endpoint
+	 * */
+	private static class Amostras {
+		
+		private long[] latencias = new long[1024];
+		private int quantidade;
+		private long erros;
+		private long conflitos;
+		
+		void registrar(long latencia, Resposta resposta) {
+			if (resposta.status == 409) {
+				conflitos++;
+			}
+			registrar(latencia, resposta.sucesso() || resposta.status == 409);
+		}
+		
+		void registrar(long latencia, boolean sucesso) {
+			if (quantidade == latencias.length) {
+				latencias = Arrays.copyOf(latencias, quantidade * 2);
+			}
+			latencias[quantidade++] = latencia;
+			if (!sucesso) {
+				erros++;
+			}
+		}
+		
+		void juntar(Amostras outras) {
+			for (int i = 0; i < outras.quantidade; i++) {
+				registrar(outras.latencias[i], true);
+			}
+			erros += outras.erros;
+			conflitos += outras.conflitos;
+		}
+		
+		long[] ordenadas() {
+			long[] ordenadas = Arrays.copyOf(latencias, quantidade);
+			Arrays.sort(ordenadas);
+			return ordenadas;
+		}
+		
+	}
+	
+}
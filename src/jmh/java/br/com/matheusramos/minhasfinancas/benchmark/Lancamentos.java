@@ -0,0 +1,55 @@
+package br.com.matheusramos.minhasfinancas.benchmark;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import br.com.matheusramos.minhasfinancas.dtos.LancamentoDTO;
+import br.com.matheusramos.minhasfinancas.enums.EnumStatusLancamento;
+import br.com.matheusramos.minhasfinancas.enums.EnumTipoLancamento;
+import br.com.matheusramos.minhasfinancas.model.entity.Lancamento;
+import br.com.matheusramos.minhasfinancas.model.entity.Usuario;
+
+/**
+ * @author Matheus
+ * Massa de dados dos benchmarks, sempre com a mesma semente
+ * */
+public final class Lancamentos {
+
+	private static final String[] DESCRICOES = { "Salário", "Aluguel", "Conta de luz", "Supermercado", "Farmácia", "Combustível", "Internet", "Restaurante" };
+	
+	private Lancamentos() {
+	}
+	
+	public static Usuario usuario(long id) {
+		return Usuario.builder().id(id).nome("Usuário " + id).email("usuario" + id + "@email.com").senha("123456").build();
+	}
+	
+	public static List<Lancamento> lancamentos(int quantidade) {
+		Random random = new Random(42);
+		List<Lancamento> lancamentos = new ArrayList<>(quantidade);
+		Usuario usuario = usuario(1L);
+		for (int i = 0; i < quantidade; i++) {
+			lancamentos.add(Lancamento.builder()
+					.id((long) i + 1)
+					.descricao(DESCRICOES[random.nextInt(DESCRICOES.length)])
+					.mes(random.nextInt(12) + 1)
+					.ano(2018 + random.nextInt(3))
+					.valor(BigDecimal.valueOf(random.nextInt(500000) + 1, 2))
+					.tipo(random.nextInt(4) == 0 ? EnumTipoLancamento.RECEITA : EnumTipoLancamento.DESPESA)
+					.status(EnumStatusLancamento.values()[random.nextInt(EnumStatusLancamento.values().length)])
+					.usuario(usuario)
+					.dataCadastro(LocalDate.of(2020, 1, 1))
+					.build());
+		}
+		return lancamentos;
+	}
+	
+	public static LancamentoDTO dto(Lancamento lancamento) {
+		return new LancamentoDTO(lancamento.getId(), lancamento.getDescricao(), lancamento.getMes(), lancamento.getAno(),
+				lancamento.getValor(), lancamento.getUsuario().getId(), lancamento.getTipo(), lancamento.getStatus());
+	}
+	
+}
@@ -0,0 +1,101 @@
+package br.com.matheusramos.minhasfinancas.benchmark;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import br.com.matheusramos.minhasfinancas.MinhasfinancasApplication;
+import br.com.matheusramos.minhasfinancas.enums.EnumStatusLancamento;
+import br.com.matheusramos.minhasfinancas.enums.EnumTipoLancamento;
+import br.com.matheusramos.minhasfinancas.interfaces.LancamentoService;
+import br.com.matheusramos.minhasfinancas.model.entity.Usuario;
+import br.com.matheusramos.minhasfinancas.repositories.LancamentoRepository;
+import br.com.matheusramos.minhasfinancas.repositories.UsuarioRepository;
+import br.com.matheusramos.minhasfinancas.utils.GeradorDados;
+
+/**
+ * @author Matheus
+ * Saldo do usuário no H2 do perfil de teste: leitura do saldo consolidado comparada
+ * às duas somas por tipo que eram feitas antes da tabela saldo_usuario
+ * */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SaldoUsuarioBenchmark {
+
+	@Param({ "100" })
+	private int usuarios;
+	
+	@Param({ "1000" })
+	private int lancamentosPorUsuario;
+	
+	private ConfigurableApplicationContext contexto;
+	private LancamentoService service;
+	private LancamentoRepository repository;
+	private List<Long> idsUsuarios;
+	
+	@Setup(Level.Trial)
+	public void setUp() {
+		contexto = new SpringApplicationBuilder(MinhasfinancasApplication.class)
+				.profiles("test")
+				.logStartupInfo(false)
+				// sem o custo das estatísticas do Hibernate, para medir apenas a consulta
+				.run("--server.port=0", "--spring.jpa.properties.hibernate.generate_statistics=false");
+		service = contexto.getBean(LancamentoService.class);
+		repository = contexto.getBean(LancamentoRepository.class);
+		UsuarioRepository usuarioRepository = contexto.getBean(UsuarioRepository.class);
+		
+		GeradorDados gerador = new GeradorDados(42, 2020);
+		idsUsuarios = new ArrayList<>(usuarios);
+		for (int u = 0; u < usuarios; u++) {
+			Usuario usuario = usuarioRepository.save(gerador.usuario(u + 1));
+			idsUsuarios.add(usuario.getId());
+			repository.inserirEmLote(gerador.lancamentos(usuario, lancamentosPorUsuario));
+		}
+		service.recalcularSaldos();
+	}
+	
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		contexto.close();
+	}
+	
+	private Long usuarioAleatorio() {
+		return idsUsuarios.get(ThreadLocalRandom.current().nextInt(idsUsuarios.size()));
+	}
+	
+	@Benchmark
+	public BigDecimal saldoConsolidado() {
+		return service.obterSaldoPorUsuario(usuarioAleatorio());
+	}
+	
+	@Benchmark
+	public BigDecimal saldoSomandoLancamentos() {
+		Long idUsuario = usuarioAleatorio();
+		BigDecimal receitas = repository.obterSaldoPorTipoLancamentoEUsuarioEStatus(idUsuario, EnumTipoLancamento.RECEITA, EnumStatusLancamento.EFETIVADO);
+		BigDecimal despesas = repository.obterSaldoPorTipoLancamentoEUsuarioEStatus(idUsuario, EnumTipoLancamento.DESPESA, EnumStatusLancamento.EFETIVADO);
+		return (receitas == null ? BigDecimal.ZERO : receitas).subtract(despesas == null ? BigDecimal.ZERO : despesas);
+	}
+	
+}
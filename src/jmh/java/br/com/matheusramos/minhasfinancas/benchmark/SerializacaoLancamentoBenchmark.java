@@ -0,0 +1,63 @@
+package br.com.matheusramos.minhasfinancas.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import br.com.matheusramos.minhasfinancas.dtos.LancamentoDTO;
+import br.com.matheusramos.minhasfinancas.model.entity.Lancamento;
+
+/**
+ * @author Matheus
+ * Serialização JSON de uma listagem como DTO e como entidade (com o usuário aninhado)
+ * */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SerializacaoLancamentoBenchmark {
+
+	@Param({ "100", "1000" })
+	private int tamanho;
+	
+	private ObjectMapper objectMapper;
+	private List<Lancamento> entidades;
+	private List<LancamentoDTO> dtos;
+	
+	@Setup
+	public void setUp() {
+		// mesmos módulos do ObjectMapper configurado pelo Spring Boot
+		objectMapper = Jackson2ObjectMapperBuilder.json().build();
+		entidades = Lancamentos.lancamentos(tamanho);
+		dtos = entidades.stream().map(Lancamentos::dto).collect(Collectors.toList());
+	}
+	
+	@Benchmark
+	public byte[] serializarDTOs() throws JsonProcessingException {
+		return objectMapper.writeValueAsBytes(dtos);
+	}
+	
+	@Benchmark
+	public byte[] serializarEntidades() throws JsonProcessingException {
+		return objectMapper.writeValueAsBytes(entidades);
+	}
+	
+}
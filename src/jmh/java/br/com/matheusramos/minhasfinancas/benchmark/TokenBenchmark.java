@@ -0,0 +1,69 @@
+package br.com.matheusramos.minhasfinancas.benchmark;
+
+import java.util.Base64;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import br.com.matheusramos.minhasfinancas.services.TokenServiceImpl;
+
+/**
+ * @author Matheus
+ * Custo da verificação do token feita pelo filtro em cada chamada autenticada, comparável ao de uma consulta
+ * do usuário na base. A chave anterior (rotação) custa somente a busca na lista de chaves
+ * */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TokenBenchmark {
+
+	private TokenServiceImpl service;
+	private String token;
+	private String tokenChaveAnterior;
+	private String tokenAdulterado;
+	
+	@Setup
+	public void setUp() {
+		String chaveAnterior = Base64.getEncoder().encodeToString("chave-anterior-com-pelo-menos-32-bytes".getBytes());
+		String chaveAtual = Base64.getEncoder().encodeToString("chave-atual-com-pelo-menos-32-bytes".getBytes());
+		
+		service = new TokenServiceImpl(chaveAtual + "," + chaveAnterior, 60);
+		token = service.emitir(42L);
+		tokenChaveAnterior = new TokenServiceImpl(chaveAnterior, 60).emitir(42L);
+		tokenAdulterado = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+	}
+	
+	@Benchmark
+	public Optional<Long> verificar() {
+		return service.verificar(token);
+	}
+	
+	@Benchmark
+	public Optional<Long> verificarChaveAnterior() {
+		return service.verificar(tokenChaveAnterior);
+	}
+	
+	@Benchmark
+	public Optional<Long> verificarAdulterado() {
+		return service.verificar(tokenAdulterado);
+	}
+	
+	@Benchmark
+	public String emitir() {
+		return service.emitir(42L);
+	}
+	
+}
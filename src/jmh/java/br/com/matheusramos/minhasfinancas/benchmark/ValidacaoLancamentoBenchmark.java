@@ -0,0 +1,61 @@
+package br.com.matheusramos.minhasfinancas.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import br.com.matheusramos.minhasfinancas.exceptions.RegraNegocioException;
+import br.com.matheusramos.minhasfinancas.model.entity.Lancamento;
+import br.com.matheusramos.minhasfinancas.services.LancamentoServiceImpl;
+
+/**
+ * @author Matheus
+ * Validação do lançamento, executada em toda gravação e em cada linha da importação
+ * */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ValidacaoLancamentoBenchmark {
+
+	private LancamentoServiceImpl service;
+	private Lancamento valido;
+	private Lancamento invalido;
+	
+	@Setup
+	public void setUp() {
+		// validar não usa os repositórios
+		service = new LancamentoServiceImpl(null, null, null, null, null, null);
+		valido = Lancamentos.lancamentos(1).get(0);
+		invalido = Lancamentos.lancamentos(1).get(0);
+		invalido.setMes(13);
+	}
+	
+	@Benchmark
+	public Lancamento validarLancamentoValido() {
+		service.validar(valido);
+		return valido;
+	}
+	
+	@Benchmark
+	public String validarLancamentoInvalido() {
+		try {
+			service.validar(invalido);
+			return null;
+		} catch (RegraNegocioException e) {
+			return e.getMessage();
+		}
+	}
+	
+}
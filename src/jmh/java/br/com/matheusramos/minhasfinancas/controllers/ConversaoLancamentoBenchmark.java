@@ -0,0 +1,99 @@
+package br.com.matheusramos.minhasfinancas.controllers;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import br.com.matheusramos.minhasfinancas.benchmark.Lancamentos;
+import br.com.matheusramos.minhasfinancas.dtos.LancamentoDTO;
+import br.com.matheusramos.minhasfinancas.interfaces.UsuarioService;
+import br.com.matheusramos.minhasfinancas.model.entity.Lancamento;
+import br.com.matheusramos.minhasfinancas.model.entity.Usuario;
+
+/**
+ * @author Matheus
+ * Conversões entre entidade e DTO feitas pelo {@link LancamentoController} em cada requisição
+ * */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ConversaoLancamentoBenchmark {
+
+	private LancamentoController controller;
+	private Lancamento lancamento;
+	private LancamentoDTO dto;
+	
+	@Setup
+	public void setUp() {
+		controller = new LancamentoController(null, new UsuarioConhecido(), null, null, null);
+		lancamento = Lancamentos.lancamentos(1).get(0);
+		dto = controller.converter(lancamento);
+	}
+	
+	@Benchmark
+	public LancamentoDTO converter() {
+		return controller.converter(lancamento);
+	}
+	
+	@Benchmark
+	public Lancamento convertDTO() {
+		return controller.convertDTO(dto);
+	}
+	
+	/**
+	 * Usuário já presente no cache de existência, como na maior parte das requisições
+	 * */
+	private static class UsuarioConhecido implements UsuarioService {
+
+		@Override
+		public Usuario autenticar(String email, String senha) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public CompletableFuture<Usuario> autenticarAssincrono(String email, String senha) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public Usuario salvarUsuario(Usuario usuario) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public void validarEmail(String email) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public Optional<Usuario> obterPorId(Long id) {
+			return Optional.of(Lancamentos.usuario(id));
+		}
+
+		@Override
+		public boolean existe(Long id) {
+			return id != null;
+		}
+
+		@Override
+		public Usuario obterReferencia(Long id) {
+			return Usuario.builder().id(id).build();
+		}
+		
+	}
+	
+}
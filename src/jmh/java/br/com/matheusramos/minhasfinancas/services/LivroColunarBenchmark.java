@@ -0,0 +1,75 @@
+package br.com.matheusramos.minhasfinancas.services;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import br.com.matheusramos.minhasfinancas.benchmark.Lancamentos;
+import br.com.matheusramos.minhasfinancas.model.entity.Lancamento;
+
+/**
+ * @author Matheus
+ * Totais mês a mês por tipo e status dos três anos da massa de dados: soma das colunas do {@link LivroColunar}
+ * comparada à soma com BigDecimal das entidades já carregadas. No pacote de services porque o livro é package-private
+ * */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LivroColunarBenchmark {
+
+	private static final int INICIO = LivroColunar.periodo(2018, 1);
+	private static final int FIM = LivroColunar.periodo(2020, 12);
+	private static final int GRUPOS = (FIM - INICIO + 1) * LivroColunar.CELULAS;
+
+	@Param({ "100000" })
+	private int quantidade;
+
+	private List<Lancamento> entidades;
+	private LivroColunar livro;
+
+	@Setup
+	public void setUp() {
+		entidades = Lancamentos.lancamentos(quantidade);
+		LivroColunar.Montagem montagem = new LivroColunar.Montagem();
+		entidades.forEach(l -> montagem.adicionar(l.getValor().movePointRight(2).longValueExact(), l.getAno(), l.getMes(), l.getTipo(), l.getStatus()));
+		livro = montagem.montar();
+	}
+
+	@Benchmark
+	public long[] colunas() {
+		long[] totais = new long[GRUPOS];
+		livro.somar(INICIO, FIM, 1, totais, new int[GRUPOS]);
+		return totais;
+	}
+
+	@Benchmark
+	public BigDecimal[] entidades() {
+		BigDecimal[] totais = new BigDecimal[GRUPOS];
+		Arrays.fill(totais, BigDecimal.ZERO);
+		for (Lancamento lancamento : entidades) {
+			int periodo = LivroColunar.periodo(lancamento.getAno(), lancamento.getMes());
+			if (periodo >= INICIO && periodo <= FIM) {
+				int posicao = (periodo - INICIO) * LivroColunar.CELULAS + LivroColunar.celula(lancamento.getTipo(), lancamento.getStatus());
+				totais[posicao] = totais[posicao].add(lancamento.getValor());
+			}
+		}
+		return totais;
+	}
+
+}
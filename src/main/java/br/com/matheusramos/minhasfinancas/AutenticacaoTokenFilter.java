@@ -0,0 +1,84 @@
+package br.com.matheusramos.minhasfinancas;
+
+import java.io.IOException;
+import java.util.Optional;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import br.com.matheusramos.minhasfinancas.interfaces.TokenService;
+
+/**
+ * @author Matheus
+ * Verifica o token 'Authorization: Bearer' das chamadas à API somente em memória (assinatura, expiração e revogação)
+ * e guarda o id do usuário no atributo {@link #ID_USUARIO} da requisição. Token inválido responde 401; sem token,
+ * a chamada segue, a menos que 'minhasfinancas.token.obrigatorio' esteja ativo
+ * */
+@Component
+public class AutenticacaoTokenFilter extends OncePerRequestFilter {
+
+	public static final String ID_USUARIO = "minhasfinancas.idUsuario";
+	
+	private static final String API = "/api/";
+	private static final String BEARER = "Bearer ";
+	
+	private final TokenService tokenService;
+	private final boolean obrigatorio;
+	
+	public AutenticacaoTokenFilter(TokenService tokenService, @Value("${minhasfinancas.token.obrigatorio:false}") boolean obrigatorio) {
+		this.tokenService = tokenService;
+		this.obrigatorio = obrigatorio;
+	}
+	
+	/**
+	 * Token do cabeçalho Authorization, ou null
+	 * */
+	public static String token(HttpServletRequest request) {
+		String autorizacao = request.getHeader(HttpHeaders.AUTHORIZATION);
+		return autorizacao != null && autorizacao.startsWith(BEARER) ? autorizacao.substring(BEARER.length()).trim() : null;
+	}
+	
+	@Override
+	protected boolean shouldNotFilter(HttpServletRequest request) {
+		String caminho = request.getRequestURI().substring(request.getContextPath().length());
+		if (!caminho.startsWith(API) || HttpMethod.OPTIONS.matches(request.getMethod())) {
+			return true;
+		}
+		
+		// cadastro e login não têm token
+		return HttpMethod.POST.matches(request.getMethod())
+				&& (caminho.equals("/api/usuarios") || caminho.equals("/api/usuarios/autenticar"));
+	}
+	
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain) throws ServletException, IOException {
+		String token = token(request);
+		
+		if (token == null) {
+			if (obrigatorio) {
+				response.sendError(HttpServletResponse.SC_UNAUTHORIZED, "Informe o token de autenticação");
+				return;
+			}
+			chain.doFilter(request, response);
+			return;
+		}
+		
+		Optional<Long> idUsuario = tokenService.verificar(token);
+		if (!idUsuario.isPresent()) {
+			response.sendError(HttpServletResponse.SC_UNAUTHORIZED, "Token inválido, expirado ou revogado");
+			return;
+		}
+		
+		request.setAttribute(ID_USUARIO, idUsuario.get());
+		chain.doFilter(request, response);
+	}
+	
+}
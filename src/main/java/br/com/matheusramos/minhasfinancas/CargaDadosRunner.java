@@ -0,0 +1,82 @@
+package br.com.matheusramos.minhasfinancas;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import br.com.matheusramos.minhasfinancas.interfaces.LancamentoService;
+import br.com.matheusramos.minhasfinancas.interfaces.SenhaService;
+import br.com.matheusramos.minhasfinancas.model.entity.Lancamento;
+import br.com.matheusramos.minhasfinancas.model.entity.Usuario;
+import br.com.matheusramos.minhasfinancas.repositories.LancamentoRepository;
+import br.com.matheusramos.minhasfinancas.repositories.UsuarioRepository;
+import br.com.matheusramos.minhasfinancas.utils.GeradorDados;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * @author Matheus
+ * Popula o banco com dados sintéticos determinísticos (ver {@link GeradorDados}) e recalcula os saldos.
+ * Os e-mails gerados são fixos, então deve ser usado em um banco vazio, como o H2 do perfil de teste
+ * Uso: java -jar minhasfinancas.jar --spring.profiles.active=test --minhasfinancas.carga.usuarios=1000
+ * --minhasfinancas.carga.lancamentos=1000000 [--minhasfinancas.carga.semente=42] [--minhasfinancas.carga.ano=2020]
+ * */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "minhasfinancas.carga.usuarios")
+public class CargaDadosRunner implements CommandLineRunner {
+
+	private static final int TAMANHO_LOTE = 10000;
+	
+	private final UsuarioRepository usuarioRepository;
+	private final LancamentoRepository lancamentoRepository;
+	private final LancamentoService lancamentoService;
+	private final SenhaService senhaService;
+	private final int usuarios;
+	private final int lancamentos;
+	private final long semente;
+	private final int ano;
+	
+	public CargaDadosRunner(UsuarioRepository usuarioRepository, LancamentoRepository lancamentoRepository, LancamentoService lancamentoService,
+			SenhaService senhaService,
+			@Value("${minhasfinancas.carga.usuarios}") int usuarios,
+			@Value("${minhasfinancas.carga.lancamentos:0}") int lancamentos,
+			@Value("${minhasfinancas.carga.semente:42}") long semente,
+			@Value("${minhasfinancas.carga.ano:#{T(java.time.LocalDate).now().getYear()}}") int ano) {
+		this.usuarioRepository = usuarioRepository;
+		this.lancamentoRepository = lancamentoRepository;
+		this.lancamentoService = lancamentoService;
+		this.senhaService = senhaService;
+		this.usuarios = usuarios;
+		this.lancamentos = lancamentos;
+		this.semente = semente;
+		this.ano = ano;
+	}
+	
+	@Override
+	public void run(String... args) {
+		log.info("Gerando {} usuários e {} lançamentos com a semente {}", usuarios, lancamentos, semente);
+		long inicio = System.currentTimeMillis();
+		
+		GeradorDados gerador = new GeradorDados(semente, ano);
+		int[] quantidades = gerador.distribuir(usuarios, lancamentos);
+		// todos os usuários têm a mesma senha; um único hash evita minutos de BCrypt na carga
+		String senha = senhaService.codificar(GeradorDados.SENHA).join();
+		
+		for (int i = 0; i < usuarios; i++) {
+			Usuario usuario = gerador.usuario(i + 1);
+			usuario.setSenha(senha);
+			usuario = usuarioRepository.save(usuario);
+			for (int restantes = quantidades[i]; restantes > 0; restantes -= TAMANHO_LOTE) {
+				List<Lancamento> lote = gerador.lancamentos(usuario, Math.min(restantes, TAMANHO_LOTE));
+				lancamentoRepository.inserirEmLote(lote);
+			}
+		}
+		
+		lancamentoService.recalcularSaldos();
+		log.info("Carga concluída em {} ms", System.currentTimeMillis() - inicio);
+	}
+	
+}
@@ -0,0 +1,80 @@
+package br.com.matheusramos.minhasfinancas;
+
+import javax.servlet.DispatcherType;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import net.ttddyy.dsproxy.QueryCountHolder;
+
+/**
+ * @author Matheus
+ * Conta os comandos SQL executados por requisição na métrica 'minhasfinancas.sql.comandos' e registra um WARN
+ * quando a requisição passa do limite, o sinal mais comum de N+1. Usa a diferença do contador da thread,
+ * sem zerá-lo, para não interferir em outras contagens como a dos testes.
+ * Requisições assíncronas (CompletableFuture, Mono/Flux, StreamingResponseBody, SSE) não são contadas: os comandos
+ * rodam em outras threads, fora do contador da thread da requisição, e a diferença seria sempre perto de zero
+ * */
+@Slf4j
+@Component
+public class ContadorSqlInterceptor implements AsyncHandlerInterceptor {
+
+	private static final String INICIO = ContadorSqlInterceptor.class.getName() + ".inicio";
+	
+	private final ObjectProvider<MeterRegistry> registry;
+	private final long limiteComandos;
+	
+	public ContadorSqlInterceptor(ObjectProvider<MeterRegistry> registry, @Value("${minhasfinancas.sql.limite-comandos-requisicao:20}") long limiteComandos) {
+		this.registry = registry;
+		this.limiteComandos = limiteComandos;
+	}
+	
+	static long comandosExecutados() {
+		return QueryCountHolder.getGrandTotal().getTotal();
+	}
+	
+	@Override
+	public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+		// o despacho que escreve o resultado assíncrono também passa aqui
+		if (request.getDispatcherType() != DispatcherType.ASYNC) {
+			request.setAttribute(INICIO, comandosExecutados());
+		}
+		return true;
+	}
+	
+	@Override
+	public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+		request.removeAttribute(INICIO);
+	}
+	
+	@Override
+	public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+		Object inicio = request.getAttribute(INICIO);
+		if (inicio == null) {
+			return;
+		}
+		
+		long comandos = comandosExecutados() - (Long) inicio;
+		Object uri = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+		String endpoint = uri == null ? "UNKNOWN" : uri.toString();
+		
+		registry.ifAvailable(meterRegistry -> DistributionSummary.builder("minhasfinancas.sql.comandos")
+				.tag("method", request.getMethod())
+				.tag("uri", endpoint)
+				.register(meterRegistry)
+				.record(comandos));
+		
+		if (comandos > limiteComandos) {
+			log.warn("{} {} executou {} comandos SQL (limite {})", request.getMethod(), endpoint, comandos, limiteComandos);
+		}
+	}
+	
+}
@@ -0,0 +1,44 @@
+package br.com.matheusramos.minhasfinancas;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * @author Matheus
+ * Mede o tempo de cada método público dos serviços no timer 'minhasfinancas.servico',
+ * identificado pela classe do serviço, pelo método e pela exceção lançada (ou 'none')
+ * */
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class MetricasServicosAspect {
+
+	static final String METRICA = "minhasfinancas.servico";
+	
+	private final MeterRegistry registry;
+	
+	@Around("execution(public * br.com.matheusramos.minhasfinancas.interfaces.*Service.*(..))")
+	public Object medir(ProceedingJoinPoint joinPoint) throws Throwable {
+		Timer.Sample amostra = Timer.start(registry);
+		String excecao = "none";
+		try {
+			return joinPoint.proceed();
+		} catch (Throwable e) {
+			excecao = e.getClass().getSimpleName();
+			throw e;
+		} finally {
+			amostra.stop(Timer.builder(METRICA)
+					.tag("servico", joinPoint.getSignature().getDeclaringType().getSimpleName())
+					.tag("metodo", joinPoint.getSignature().getName())
+					.tag("excecao", excecao)
+					.register(registry));
+		}
+	}
+	
+}
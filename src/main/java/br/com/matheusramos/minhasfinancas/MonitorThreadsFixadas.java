@@ -0,0 +1,129 @@
+package br.com.matheusramos.minhasfinancas;
+
+import java.io.Closeable;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * @author Matheus
+ * Acompanha pelo JFR (evento jdk.VirtualThreadPinned) as threads virtuais que ficaram presas à thread da plataforma
+ * por mais que o limite, tipicamente I/O dentro de synchronized em drivers ou bibliotecas. Cada ocorrência vai para
+ * o timer 'minhasfinancas.threads.virtuais.fixadas', com o primeiro método fora do JDK na tag 'local' (onde a thread
+ * bloqueou), e as primeiras são registradas em WARN com a pilha. O synchronized responsável pode estar bem abaixo
+ * na pilha, como no Tomcat 9.0.33, que processava toda a requisição dentro de synchronized; para pilhas com mais
+ * de 64 quadros: -XX:FlightRecorderOptions:stackdepth=256
+ * */
+@Slf4j
+public class MonitorThreadsFixadas implements Closeable {
+
+	private static final String EVENTO = "jdk.VirtualThreadPinned";
+	private static final int OCORRENCIAS_REGISTRADAS = 10;
+	
+	private final MeterRegistry registry;
+	private final AtomicLong ocorrencias = new AtomicLong();
+	private final AutoCloseable gravacao;
+	
+	public MonitorThreadsFixadas(MeterRegistry registry, long limiteFixacaoMs) {
+		this.registry = registry;
+		this.gravacao = iniciar(Duration.ofMillis(limiteFixacaoMs));
+	}
+	
+	private AutoCloseable iniciar(Duration limite) {
+		try {
+			Class<?> tipo = Class.forName("jdk.jfr.consumer.RecordingStream");
+			Object stream = tipo.getConstructor().newInstance();
+			Object configuracao = tipo.getMethod("enable", String.class).invoke(stream, EVENTO);
+			metodo(configuracao, "withThreshold", Duration.class).invoke(configuracao, limite);
+			metodo(configuracao, "withStackTrace").invoke(configuracao);
+			
+			Consumer<Object> registrar = this::registrar;
+			tipo.getMethod("onEvent", String.class, Consumer.class).invoke(stream, EVENTO, registrar);
+			tipo.getMethod("startAsync").invoke(stream);
+			return (AutoCloseable) stream;
+		} catch (ReflectiveOperationException | RuntimeException e) {
+			log.warn("Não foi possível acompanhar as threads virtuais fixadas pelo JFR: {}", e.toString());
+			return () -> { };
+		}
+	}
+	
+	private void registrar(Object evento) {
+		try {
+			Duration duracao = (Duration) metodo(evento, "getDuration").invoke(evento);
+			List<String> pilha = pilha(evento);
+			String local = local(pilha);
+			
+			if (registry != null) {
+				Timer.builder("minhasfinancas.threads.virtuais.fixadas").tag("local", local).register(registry).record(duracao);
+			}
+			
+			if (ocorrencias.incrementAndGet() <= OCORRENCIAS_REGISTRADAS) {
+				log.warn("Thread virtual fixada por {} ms em {}:\n\t{}", duracao.toMillis(), local, String.join("\n\t", pilha));
+			}
+		} catch (ReflectiveOperationException e) {
+			log.debug("Evento {} não lido", EVENTO, e);
+		}
+	}
+	
+	/**
+	 * Primeiro método da pilha fora do JDK, onde está o synchronized ou a chamada nativa
+	 * */
+	private static String local(List<String> pilha) {
+		for (String quadro : pilha) {
+			if (!quadro.startsWith("java.") && !quadro.startsWith("jdk.") && !quadro.startsWith("sun.")) {
+				return quadro.substring(0, quadro.indexOf(':'));
+			}
+		}
+		return pilha.isEmpty() ? "desconhecido" : pilha.get(0).substring(0, pilha.get(0).indexOf(':'));
+	}
+	
+	private static List<String> pilha(Object evento) throws ReflectiveOperationException {
+		List<String> pilha = new ArrayList<>();
+		Object rastro = metodo(evento, "getStackTrace").invoke(evento);
+		if (rastro == null) {
+			return pilha;
+		}
+		
+		for (Object quadro : (List<?>) metodo(rastro, "getFrames").invoke(rastro)) {
+			Object metodo = metodo(quadro, "getMethod").invoke(quadro);
+			Object tipo = metodo(metodo, "getType").invoke(metodo);
+			pilha.add(metodo(tipo, "getName").invoke(tipo) + "." + metodo(metodo, "getName").invoke(metodo)
+					+ ":" + metodo(quadro, "getLineNumber").invoke(quadro));
+		}
+		return pilha;
+	}
+	
+	/**
+	 * Métodos pelas classes públicas do jdk.jfr, não pelas implementações internas, que o módulo não exporta
+	 * */
+	private static Method metodo(Object alvo, String nome, Class<?>... parametros) throws NoSuchMethodException {
+		for (Class<?> tipo = alvo.getClass(); tipo != null; tipo = tipo.getSuperclass()) {
+			if (Modifier.isPublic(tipo.getModifiers())) {
+				try {
+					return tipo.getMethod(nome, parametros);
+				} catch (NoSuchMethodException e) {
+					// procura na superclasse
+				}
+			}
+		}
+		throw new NoSuchMethodException(nome);
+	}
+	
+	@Override
+	public void close() {
+		try {
+			gravacao.close();
+		} catch (Exception e) {
+			log.debug("Erro ao encerrar a gravação do JFR", e);
+		}
+	}
+	
+}
@@ -0,0 +1,45 @@
+package br.com.matheusramos.minhasfinancas;
+
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.stereotype.Component;
+
+import net.ttddyy.dsproxy.listener.logging.SLF4JLogLevel;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+
+/**
+ * @author Matheus
+ * Envolve o DataSource com o datasource-proxy para contar os comandos SQL por thread (QueryCountHolder),
+ * registrar como WARN no logger 'minhasfinancas.sql.lenta' os comandos mais lentos que o limite, com os parâmetros,
+ * e como DEBUG no logger 'minhasfinancas.sql' todos os comandos executados
+ * */
+@Component
+public class MonitoramentoSqlPostProcessor implements BeanPostProcessor {
+
+	static final String NOME_DATASOURCE = "minhasfinancas";
+	
+	private final long limiteConsultaLentaMs;
+	
+	public MonitoramentoSqlPostProcessor(@Value("${minhasfinancas.sql.consulta-lenta-ms:500}") long limiteConsultaLentaMs) {
+		this.limiteConsultaLentaMs = limiteConsultaLentaMs;
+	}
+	
+	@Override
+	public Object postProcessAfterInitialization(Object bean, String beanName) {
+		if (!(bean instanceof DataSource) || bean instanceof ProxyDataSource) {
+			return bean;
+		}
+		
+		return ProxyDataSourceBuilder.create(NOME_DATASOURCE, (DataSource) bean)
+				.countQuery()
+				.logSlowQueryBySlf4j(limiteConsultaLentaMs, TimeUnit.MILLISECONDS, SLF4JLogLevel.WARN, "minhasfinancas.sql.lenta")
+				.logQueryBySlf4j(SLF4JLogLevel.DEBUG, "minhasfinancas.sql")
+				.build();
+	}
+	
+}
@@ -0,0 +1,42 @@
+package br.com.matheusramos.minhasfinancas;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * @author Matheus
+ * Pool de conexões R2DBC das leituras reativas (/api/reativo), separado do pool JDBC do JPA.
+ * Usuário e senha são os mesmos do spring.datasource; localmente a url r2dbc:h2:mem:///db abre o mesmo banco em memória
+ * */
+@Slf4j
+@Configuration
+public class R2dbcConfiguration {
+
+	@Bean(destroyMethod = "dispose")
+	public ConnectionPool connectionFactory(@Value("${minhasfinancas.r2dbc.url}") String url,
+			@Value("${spring.datasource.username:}") String usuario,
+			@Value("${spring.datasource.password:}") String senha,
+			@Value("${minhasfinancas.r2dbc.conexoes:10}") int conexoes) {
+		ConnectionFactoryOptions opcoes = ConnectionFactoryOptions.parse(url).mutate()
+				.option(ConnectionFactoryOptions.USER, usuario)
+				.option(ConnectionFactoryOptions.PASSWORD, senha)
+				.build();
+
+		log.info("Leituras reativas em {} com até {} conexões", url, conexoes);
+		return new ConnectionPool(ConnectionPoolConfiguration.builder(ConnectionFactories.get(opcoes))
+				.initialSize(1)
+				.maxSize(conexoes)
+				.maxIdleTime(Duration.ofMinutes(10))
+				.build());
+	}
+
+}
@@ -0,0 +1,31 @@
+package br.com.matheusramos.minhasfinancas;
+
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import br.com.matheusramos.minhasfinancas.interfaces.LancamentoService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * @author Matheus
+ * Recalcula as tabelas de saldos e de resumo mensal a partir dos lançamentos existentes
+ * Uso: java -jar minhasfinancas.jar --minhasfinancas.saldos.recalcular=true
+ * */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "minhasfinancas.saldos.recalcular", havingValue = "true")
+@RequiredArgsConstructor
+public class RecalculoSaldosRunner implements CommandLineRunner {
+
+	private final LancamentoService lancamentoService;
+	
+	@Override
+	public void run(String... args) {
+		log.info("Recalculando saldos e resumos mensais dos usuários");
+		lancamentoService.recalcularSaldos();
+		log.info("Saldos e resumos mensais recalculados");
+	}
+	
+}
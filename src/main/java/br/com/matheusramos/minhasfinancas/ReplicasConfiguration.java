@@ -0,0 +1,116 @@
+package br.com.matheusramos.minhasfinancas;
+
+import java.io.Closeable;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.flywaydb.core.Flyway;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * @author Matheus
+ * Com 'minhasfinancas.datasource.replicas.urls' preenchido, o DataSource da aplicação passa a ser o {@link RoteamentoDataSource}:
+ * um pool Hikari para o primário (spring.datasource.*) e um para cada réplica, com o mesmo usuário, senha e configurações
+ * spring.datasource.hikari.*. As métricas hikaricp.* de cada pool são identificadas pela tag 'pool' (primario, replica-1, ...)
+ * */
+@Slf4j
+@Configuration
+@ConditionalOnExpression("!'${minhasfinancas.datasource.replicas.urls:}'.trim().isEmpty()")
+public class ReplicasConfiguration {
+
+	@Bean
+	@Primary
+	public DataSource dataSource(DataSourceProperties propriedades, Environment environment, ObjectProvider<MeterRegistry> registry,
+			@Value("${minhasfinancas.datasource.replicas.urls}") List<String> urls,
+			@Value("${minhasfinancas.datasource.replicas.selecao:rodizio}") String selecao,
+			@Value("${minhasfinancas.datasource.replicas.lag-maximo-ms:1000}") long lagMaximoMs,
+			@Value("${minhasfinancas.datasource.replicas.intervalo-verificacao-ms:1000}") long intervaloMs,
+			@Value("${minhasfinancas.datasource.replicas.consulta-lag}") String consultaLag,
+			@Value("${minhasfinancas.datasource.replicas.migrar:false}") boolean migrar,
+			@Value("${spring.flyway.schemas:}") String[] esquemas) {
+		Binder binder = Binder.get(environment);
+		HikariDataSource primario = pool(propriedades, propriedades.determineUrl(), "primario", binder, registry);
+
+		Map<String, DataSource> replicas = new LinkedHashMap<>();
+		for (String url : urls) {
+			HikariDataSource replica = pool(propriedades, url.trim(), "replica-" + (replicas.size() + 1), binder, registry);
+			if (migrar) {
+				// somente para réplicas locais (H2), que não recebem o esquema por replicação
+				Flyway.configure().dataSource(replica).schemas(esquemas).load().migrate();
+			}
+			replicas.put(replica.getPoolName(), replica);
+		}
+
+		RoteamentoDataSource roteamento = new RoteamentoDataSource(primario, replicas,
+				RoteamentoDataSource.Selecao.valueOf(selecao.trim().toUpperCase().replace('-', '_')), lagMaximoMs, intervaloMs, consultaLag);
+		registry.ifAvailable(r -> roteamento.getReplicas().forEach(replica -> {
+			Gauge.builder("minhasfinancas.datasource.replica.lag", replica, ReplicasConfiguration::lagMs)
+					.baseUnit("milliseconds").tag("pool", replica.getNome()).register(r);
+			Gauge.builder("minhasfinancas.datasource.replica.pendentes", replica, rep -> rep.getPendentes().get())
+					.tag("pool", replica.getNome()).register(r);
+		}));
+		roteamento.iniciar();
+
+		log.info("Transações somente leitura em {} réplica(s) por {}, com atraso máximo de {} ms", replicas.size(), selecao, lagMaximoMs);
+		return new DataSourceReplicado(roteamento, primario, replicas.values());
+	}
+
+	private static HikariDataSource pool(DataSourceProperties propriedades, String url, String nome, Binder binder,
+			ObjectProvider<MeterRegistry> registry) {
+		HikariDataSource hikari = propriedades.initializeDataSourceBuilder().type(HikariDataSource.class).url(url).build();
+		binder.bind("spring.datasource.hikari", Bindable.ofInstance(hikari));
+		hikari.setPoolName(nome);
+		registry.ifAvailable(r -> hikari.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(r)));
+		return hikari;
+	}
+
+	private static double lagMs(RoteamentoDataSource.Replica replica) {
+		return replica.getLagMs() == Long.MAX_VALUE ? Double.NaN : replica.getLagMs();
+	}
+
+	/**
+	 * Obtém a conexão real somente no primeiro comando, quando a transação já está marcada como somente leitura
+	 * */
+	private static class DataSourceReplicado extends LazyConnectionDataSourceProxy implements Closeable {
+
+		private final RoteamentoDataSource roteamento;
+		private final HikariDataSource primario;
+		private final Iterable<DataSource> replicas;
+
+		DataSourceReplicado(RoteamentoDataSource roteamento, HikariDataSource primario, Iterable<DataSource> replicas) {
+			super(roteamento);
+			this.roteamento = roteamento;
+			this.primario = primario;
+			this.replicas = replicas;
+		}
+
+		@Override
+		public void close() {
+			roteamento.close();
+			replicas.forEach(replica -> ((HikariDataSource) replica).close());
+			primario.close();
+		}
+
+	}
+
+}
@@ -0,0 +1,208 @@
+package br.com.matheusramos.minhasfinancas;
+
+import java.io.Closeable;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import br.com.matheusramos.minhasfinancas.utils.Transacoes;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * @author Matheus
+ * Envia as transações somente leitura para uma das réplicas e todo o resto para o primário. Deve ficar atrás de um
+ * LazyConnectionDataSourceProxy, para que a conexão seja obtida depois de a transação ser marcada como readOnly.
+ * Réplicas com atraso acima de 'lagMaximoMs' (ou cuja consulta de atraso falha) saem do rodízio até a próxima verificação,
+ * e durante 'lagMaximoMs' + 'intervaloMs' após o commit de uma escrita as leituras do mesmo usuário (ou, sem token,
+ * do mesmo endereço) continuam no primário, tempo em que qualquer réplica elegível já recebeu a escrita
+ * */
+@Slf4j
+public class RoteamentoDataSource extends AbstractDataSource implements Closeable {
+
+	public enum Selecao { RODIZIO, MENOS_PENDENTES }
+
+	private static final int LIMITE_ESCRITAS_RECENTES = 10_000;
+
+	private final DataSource primario;
+	private final List<Replica> replicas;
+	private final Selecao selecao;
+	private final long lagMaximoMs;
+	private final long intervaloMs;
+	private final String consultaLag;
+
+	private final AtomicInteger proxima = new AtomicInteger();
+	// momento (System.nanoTime) até o qual as leituras de cada usuário/endereço ficam no primário
+	private final Map<String, Long> escritasRecentes = new ConcurrentHashMap<>();
+	private final ScheduledExecutorService verificador = Executors.newSingleThreadScheduledExecutor(tarefa -> {
+		Thread thread = new Thread(tarefa, "replicas-lag");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	public RoteamentoDataSource(DataSource primario, Map<String, DataSource> replicas, Selecao selecao, long lagMaximoMs,
+			long intervaloMs, String consultaLag) {
+		this.primario = primario;
+		this.replicas = replicas.entrySet().stream().map(r -> new Replica(r.getKey(), r.getValue())).collect(Collectors.toList());
+		this.selecao = selecao;
+		this.lagMaximoMs = lagMaximoMs;
+		this.intervaloMs = intervaloMs;
+		this.consultaLag = consultaLag;
+	}
+
+	public void iniciar() {
+		verificador.scheduleWithFixedDelay(this::verificarLag, 0, intervaloMs, TimeUnit.MILLISECONDS);
+	}
+
+	public List<Replica> getReplicas() {
+		return replicas;
+	}
+
+	@Override
+	public Connection getConnection() throws SQLException {
+		String chave = chaveLeitor();
+
+		if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+			if (chave != null && TransactionSynchronizationManager.isSynchronizationActive()) {
+				Transacoes.aposCommit(() -> registrarEscrita(chave));
+			}
+			return primario.getConnection();
+		}
+
+		Long ate = chave == null ? null : escritasRecentes.get(chave);
+		if (ate != null && System.nanoTime() - ate < 0) {
+			return primario.getConnection();
+		}
+
+		Replica replica = selecionar();
+		return replica == null ? primario.getConnection() : replica.conectar();
+	}
+
+	/**
+	 * Com usuário e senha explícitos a conexão é sempre do primário
+	 * */
+	@Override
+	public Connection getConnection(String username, String password) throws SQLException {
+		return primario.getConnection(username, password);
+	}
+
+	@Override
+	public void close() {
+		verificador.shutdownNow();
+	}
+
+	Replica selecionar() {
+		List<Replica> elegiveis = replicas.stream().filter(r -> r.lagMs <= lagMaximoMs).collect(Collectors.toList());
+		if (elegiveis.isEmpty()) {
+			return null;
+		}
+
+		if (selecao == Selecao.MENOS_PENDENTES) {
+			return elegiveis.stream().min(Comparator.comparingInt(r -> r.pendentes.get())).get();
+		}
+		return elegiveis.get(Math.floorMod(proxima.getAndIncrement(), elegiveis.size()));
+	}
+
+	void verificarLag() {
+		for (Replica replica : replicas) {
+			try (Connection conexao = replica.dataSource.getConnection();
+					Statement comando = conexao.createStatement();
+					ResultSet resultado = comando.executeQuery(consultaLag)) {
+				long lag = resultado.next() ? resultado.getLong(1) : Long.MAX_VALUE;
+				if (lag > lagMaximoMs && replica.lagMs <= lagMaximoMs) {
+					log.warn("Réplica {} com atraso de {} ms, leituras desviadas até ela voltar a {} ms", replica.nome, lag, lagMaximoMs);
+				}
+				replica.lagMs = lag;
+			} catch (SQLException | RuntimeException e) {
+				if (replica.lagMs != Long.MAX_VALUE) {
+					log.warn("Réplica {} fora do rodízio, a consulta de atraso falhou: {}", replica.nome, e.getMessage());
+				}
+				replica.lagMs = Long.MAX_VALUE;
+			}
+		}
+	}
+
+	void registrarEscrita(String chave) {
+		if (escritasRecentes.size() >= LIMITE_ESCRITAS_RECENTES) {
+			long agora = System.nanoTime();
+			escritasRecentes.values().removeIf(ate -> agora - ate >= 0);
+		}
+		escritasRecentes.put(chave, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(lagMaximoMs + intervaloMs));
+	}
+
+	/**
+	 * Usuário do token ou, sem token, o endereço do cliente; null fora de uma requisição
+	 * */
+	private static String chaveLeitor() {
+		RequestAttributes atributos = RequestContextHolder.getRequestAttributes();
+		if (!(atributos instanceof ServletRequestAttributes)) {
+			return null;
+		}
+
+		Object idUsuario = atributos.getAttribute(AutenticacaoTokenFilter.ID_USUARIO, RequestAttributes.SCOPE_REQUEST);
+		if (idUsuario != null) {
+			return "usuario:" + idUsuario;
+		}
+
+		HttpServletRequest request = ((ServletRequestAttributes) atributos).getRequest();
+		return "endereco:" + request.getRemoteAddr();
+	}
+
+	/**
+	 * Uma réplica, com o atraso da última verificação e as conexões entregues ainda não fechadas
+	 * */
+	@Getter
+	public static class Replica {
+
+		private final String nome;
+		private final DataSource dataSource;
+		private final AtomicInteger pendentes = new AtomicInteger();
+		private volatile long lagMs = Long.MAX_VALUE;
+
+		Replica(String nome, DataSource dataSource) {
+			this.nome = nome;
+			this.dataSource = dataSource;
+		}
+
+		Connection conectar() throws SQLException {
+			Connection conexao = dataSource.getConnection();
+			pendentes.incrementAndGet();
+			AtomicBoolean fechada = new AtomicBoolean();
+
+			return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[] { Connection.class }, (proxy, metodo, args) -> {
+				if ("close".equals(metodo.getName()) && fechada.compareAndSet(false, true)) {
+					pendentes.decrementAndGet();
+				}
+				try {
+					return metodo.invoke(conexao, args);
+				} catch (InvocationTargetException e) {
+					throw e.getCause();
+				}
+			});
+		}
+
+	}
+
+}
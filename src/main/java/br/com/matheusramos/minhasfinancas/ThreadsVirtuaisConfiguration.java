@@ -0,0 +1,77 @@
+package br.com.matheusramos.minhasfinancas;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.jdbc.DataSourceUnwrapper;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * @author Matheus
+ * Modo 'minhasfinancas.threads.virtuais=true' (Java 21+): o Tomcat executa cada requisição, e com ela as transações
+ * dos services, em uma thread virtual nova, assim como as respostas assíncronas do applicationTaskExecutor.
+ * O teto de concorrência deixa de ser o server.tomcat.max-threads e passa a ser o pool de conexões: as requisições
+ * excedentes esperam por uma conexão (hikaricp.connections.pending) sem ocupar threads da plataforma.
+ * O hash das senhas continua no pool próprio do SenhaService, por ser trabalho de CPU.
+ * O projeto é compilado para Java 8, por isso as APIs de threads virtuais são obtidas por reflexão
+ * */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "minhasfinancas.threads.virtuais", havingValue = "true")
+public class ThreadsVirtuaisConfiguration {
+
+	@Bean(destroyMethod = "shutdown")
+	public ExecutorService executorThreadsVirtuais() {
+		return novoExecutor("requisicao-");
+	}
+	
+	@Bean
+	public WebServerFactoryCustomizer<TomcatServletWebServerFactory> tomcatThreadsVirtuais(ExecutorService executorThreadsVirtuais) {
+		return factory -> factory.addProtocolHandlerCustomizers(protocolo -> protocolo.setExecutor(executorThreadsVirtuais));
+	}
+	
+	@Bean(name = TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+	public AsyncTaskExecutor applicationTaskExecutor(ExecutorService executorThreadsVirtuais) {
+		return new TaskExecutorAdapter(executorThreadsVirtuais);
+	}
+	
+	@Bean(destroyMethod = "close")
+	public MonitorThreadsFixadas monitorThreadsFixadas(ObjectProvider<MeterRegistry> registry, ObjectProvider<DataSource> dataSource,
+			@Value("${minhasfinancas.threads.virtuais.limite-fixacao-ms:20}") long limiteFixacaoMs) {
+		HikariDataSource hikari = DataSourceUnwrapper.unwrap(dataSource.getIfAvailable(), HikariDataSource.class);
+		log.info("Requisições em threads virtuais; acesso ao banco limitado a {} conexões (spring.datasource.hikari.maximum-pool-size)",
+				hikari == null ? "?" : hikari.getMaximumPoolSize());
+		
+		return new MonitorThreadsFixadas(registry.getIfAvailable(), limiteFixacaoMs);
+	}
+	
+	static ExecutorService novoExecutor(String prefixo) {
+		try {
+			Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+			builder = Class.forName("java.lang.Thread$Builder$OfVirtual").getMethod("name", String.class, long.class).invoke(builder, prefixo, 0L);
+			ThreadFactory factory = (ThreadFactory) Class.forName("java.lang.Thread$Builder").getMethod("factory").invoke(builder);
+			return (ExecutorService) Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class).invoke(null, factory);
+		} catch (ReflectiveOperationException e) {
+			throw new IllegalStateException("'minhasfinancas.threads.virtuais' exige Java 21 ou superior (atual: "
+					+ System.getProperty("java.version") + ")", e);
+		}
+	}
+	
+}
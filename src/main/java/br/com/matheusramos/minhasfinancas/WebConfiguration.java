@@ -1,17 +1,48 @@
 package br.com.matheusramos.minhasfinancas;
 
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.EnableWebMvc;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 @EnableWebMvc
 @Configuration
 public class WebConfiguration implements WebMvcConfigurer {
 	
+	// exportações de histórico grande podem levar minutos escrevendo a resposta
+	private static final long TEMPO_LIMITE_ASSINCRONO = TimeUnit.MINUTES.toMillis(30);
+	
+	private final ObjectProvider<AsyncTaskExecutor> taskExecutor;
+	private final ContadorSqlInterceptor contadorSqlInterceptor;
+	
+	public WebConfiguration(@Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME) ObjectProvider<AsyncTaskExecutor> taskExecutor,
+			ContadorSqlInterceptor contadorSqlInterceptor) {
+		this.taskExecutor = taskExecutor;
+		this.contadorSqlInterceptor = contadorSqlInterceptor;
+	}
+	
+	@Override
+	public void addInterceptors(InterceptorRegistry registry) {
+		registry.addInterceptor(contadorSqlInterceptor).addPathPatterns("/api/**");
+	}
+	
 	@Override
 	public void addCorsMappings(CorsRegistry registry) {
 		registry.addMapping("/**").allowedMethods("GET", "POST", "PUT", "DELETE", "OPTIONS");
 	}
 	
+	@Override
+	public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+		configurer.setDefaultTimeout(TEMPO_LIMITE_ASSINCRONO);
+		taskExecutor.ifAvailable(configurer::setTaskExecutor);
+	}
+	
 }
@@ -0,0 +1,105 @@
+package br.com.matheusramos.minhasfinancas.controllers;
+
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.function.Supplier;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestAttribute;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+
+import br.com.matheusramos.minhasfinancas.AutenticacaoTokenFilter;
+import br.com.matheusramos.minhasfinancas.exceptions.RegraNegocioException;
+import br.com.matheusramos.minhasfinancas.interfaces.AnaliseLancamentosService;
+import br.com.matheusramos.minhasfinancas.interfaces.UsuarioService;
+import br.com.matheusramos.minhasfinancas.interfaces.VersaoLivroService;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * @author Matheus
+ * Análises do histórico de lançamentos do usuário. Os meses são informados como ano-mês (2020-01); as respostas
+ * usam a mesma ETag do saldo e do resumo, com 304 enquanto nenhum lançamento do usuário mudar
+ * */
+@RestController
+@RequestMapping("/api/usuarios/{id}/analise")
+@RequiredArgsConstructor
+public class AnaliseController {
+
+	private final AnaliseLancamentosService service;
+	private final UsuarioService usuarioService;
+	private final VersaoLivroService versaoLivroService;
+
+	/**
+	 * Receitas, despesas e saldo de cada mês do período
+	 * */
+	@GetMapping("/tendencia")
+	public ResponseEntity obterTendencia(@PathVariable("id") Long id,
+			@RequestParam("inicio") String inicio, @RequestParam("fim") String fim,
+			@RequestAttribute(name = AutenticacaoTokenFilter.ID_USUARIO, required = false) Long idAutenticado,
+			WebRequest request) {
+		return responder(id, idAutenticado, request, () -> service.obterTendencia(id, mes(inicio), mes(fim)));
+	}
+
+	/**
+	 * Total e quantidade de lançamentos por tipo e status no período
+	 * */
+	@GetMapping("/composicao")
+	public ResponseEntity obterComposicao(@PathVariable("id") Long id,
+			@RequestParam("inicio") String inicio, @RequestParam("fim") String fim,
+			@RequestAttribute(name = AutenticacaoTokenFilter.ID_USUARIO, required = false) Long idAutenticado,
+			WebRequest request) {
+		return responder(id, idAutenticado, request, () -> service.obterComposicao(id, mes(inicio), mes(fim)));
+	}
+
+	/**
+	 * Receitas, despesas e saldo de cada ano do intervalo
+	 * */
+	@GetMapping("/anos")
+	public ResponseEntity obterComparativoAnual(@PathVariable("id") Long id,
+			@RequestParam("inicio") Integer anoInicial, @RequestParam("fim") Integer anoFinal,
+			@RequestAttribute(name = AutenticacaoTokenFilter.ID_USUARIO, required = false) Long idAutenticado,
+			WebRequest request) {
+		return responder(id, idAutenticado, request, () -> service.obterComparativoAnual(id, anoInicial, anoFinal));
+	}
+
+	/**
+	 * Mesmas verificações do saldo: com token somente o próprio usuário, sem token o usuário deve existir
+	 * */
+	private ResponseEntity responder(Long id, Long idAutenticado, WebRequest request, Supplier<Object> consulta) {
+		if (idAutenticado != null && !idAutenticado.equals(id)) {
+			return new ResponseEntity(HttpStatus.FORBIDDEN);
+		}
+
+		if (idAutenticado == null && !usuarioService.existe(id)) {
+			return new ResponseEntity(HttpStatus.NOT_FOUND);
+		}
+
+		return versaoLivroService.consultar(id, etag -> {
+			if (request.checkNotModified(etag)) {
+				return null;
+			}
+
+			try {
+				return ResponseEntity.ok().cacheControl(CacheControl.noCache().cachePrivate()).body(consulta.get());
+			} catch (RegraNegocioException e) {
+				return ResponseEntity.badRequest().body(e.getMessage());
+			}
+		});
+	}
+
+	private static YearMonth mes(String valor) {
+		try {
+			return YearMonth.parse(valor.trim());
+		} catch (DateTimeParseException e) {
+			throw new RegraNegocioException("Mês inválido: " + valor + ". Use o formato ano-mês, como 2020-01.");
+		}
+	}
+
+}
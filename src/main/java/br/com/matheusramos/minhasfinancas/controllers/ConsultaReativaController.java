@@ -0,0 +1,86 @@
+package br.com.matheusramos.minhasfinancas.controllers;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestAttribute;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import br.com.matheusramos.minhasfinancas.AutenticacaoTokenFilter;
+import br.com.matheusramos.minhasfinancas.dtos.LancamentoDTO;
+import br.com.matheusramos.minhasfinancas.model.entity.Lancamento;
+import br.com.matheusramos.minhasfinancas.model.entity.Usuario;
+import br.com.matheusramos.minhasfinancas.repositories.ConsultaReativaRepository;
+import lombok.RequiredArgsConstructor;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * @author Matheus
+ * Versão reativa das leituras de saldo e lançamentos. A thread do Tomcat é liberada enquanto o R2DBC consulta o banco.
+ * Com 'Accept: application/stream+json' a listagem é escrita um lançamento por linha, pedindo a próxima linha ao banco
+ * somente depois de escrever a anterior; com application/json a resposta é a mesma lista de /api/lancamentos
+ * */
+@RestController
+@RequestMapping("/api/reativo")
+@RequiredArgsConstructor
+public class ConsultaReativaController {
+
+	private final ConsultaReativaRepository repository;
+
+	@GetMapping("usuarios/{id}/saldo")
+	public Mono<ResponseEntity> obterSaldo(@PathVariable("id") Long id,
+			@RequestAttribute(name = AutenticacaoTokenFilter.ID_USUARIO, required = false) Long idAutenticado) {
+		if (idAutenticado != null && !idAutenticado.equals(id)) {
+			return Mono.just(new ResponseEntity(HttpStatus.FORBIDDEN));
+		}
+
+		return repository.obterSaldo(id).<ResponseEntity>map(ResponseEntity::ok)
+				.defaultIfEmpty(new ResponseEntity(HttpStatus.NOT_FOUND));
+	}
+
+	@GetMapping("lancamentos/{id}")
+	public Mono<ResponseEntity> obterLancamento(@PathVariable("id") Long id,
+			@RequestAttribute(name = AutenticacaoTokenFilter.ID_USUARIO, required = false) Long idAutenticado) {
+		return repository.obterLancamento(id).<ResponseEntity>map(lancamento -> outroUsuario(idAutenticado, lancamento.getUsuario())
+				? new ResponseEntity(HttpStatus.FORBIDDEN)
+				: ResponseEntity.ok(lancamento))
+				.defaultIfEmpty(new ResponseEntity(HttpStatus.NOT_FOUND));
+	}
+
+	/**
+	 * Sem filtro por descrição, que responde 400: a busca sem acentos e ordenada por relevância de /api/lancamentos
+	 * usa o índice em memória, consultado de forma bloqueante
+	 * */
+	@GetMapping("lancamentos")
+	public Mono<ResponseEntity<Flux<LancamentoDTO>>> buscar(@RequestParam(value = "descricao", required = false) String descricao,
+			@RequestParam(value = "mes", required = false) Integer mes,
+			@RequestParam(value = "ano", required = false) Integer ano,
+			@RequestParam("usuario") Long idUsuario,
+			@RequestAttribute(name = AutenticacaoTokenFilter.ID_USUARIO, required = false) Long idAutenticado) {
+		if (outroUsuario(idAutenticado, idUsuario)) {
+			return Mono.just(new ResponseEntity<>(HttpStatus.FORBIDDEN));
+		}
+		
+		if (descricao != null && !descricao.trim().isEmpty()) {
+			return Mono.just(ResponseEntity.badRequest().build());
+		}
+		
+		Lancamento lancamentoFiltro = new Lancamento();
+		lancamentoFiltro.setMes(mes);
+		lancamentoFiltro.setAno(ano);
+		lancamentoFiltro.setUsuario(Usuario.builder().id(idUsuario).build());
+
+		return repository.existeUsuario(idUsuario).map(existe -> existe
+				? ResponseEntity.ok(repository.listar(lancamentoFiltro))
+				: ResponseEntity.badRequest().build());
+	}
+	
+	private static boolean outroUsuario(Long idAutenticado, Long idUsuario) {
+		return idAutenticado != null && !idAutenticado.equals(idUsuario);
+	}
+
+}
@@ -0,0 +1,56 @@
+package br.com.matheusramos.minhasfinancas.controllers;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestAttribute;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import br.com.matheusramos.minhasfinancas.AutenticacaoTokenFilter;
+import br.com.matheusramos.minhasfinancas.exceptions.ServicoOcupadoException;
+import br.com.matheusramos.minhasfinancas.interfaces.EventosLivroService;
+import br.com.matheusramos.minhasfinancas.interfaces.UsuarioService;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * @author Matheus
+ * Stream de server-sent events (evento 'livro') com o saldo e os lançamentos alterados a cada gravação do usuário,
+ * no lugar de consultar o saldo e a lista periodicamente. O id de cada evento é a ETag do livro
+ * */
+@RestController
+@RequestMapping("/api/usuarios/{id}/eventos")
+@RequiredArgsConstructor
+public class EventosController {
+
+	private final EventosLivroService service;
+	private final UsuarioService usuarioService;
+
+	/**
+	 * Mesmas verificações do saldo: com token somente o próprio usuário, sem token o usuário deve existir
+	 * */
+	@GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+	public ResponseEntity<SseEmitter> assinar(@PathVariable("id") Long id,
+			@RequestAttribute(name = AutenticacaoTokenFilter.ID_USUARIO, required = false) Long idAutenticado) {
+		if (idAutenticado != null && !idAutenticado.equals(id)) {
+			return new ResponseEntity<>(HttpStatus.FORBIDDEN);
+		}
+
+		if (idAutenticado == null && !usuarioService.existe(id)) {
+			return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+		}
+
+		try {
+			// sem o buffer de proxies como o nginx, que seguraria os eventos
+			return ResponseEntity.ok().cacheControl(CacheControl.noStore()).header("X-Accel-Buffering", "no").body(service.assinar(id));
+		} catch (ServicoOcupadoException e) {
+			return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1").build();
+		}
+	}
+
+}
@@ -1,29 +1,53 @@
 package br.com.matheusramos.minhasfinancas.controllers;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Optional;
 
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestAttribute;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import br.com.matheusramos.minhasfinancas.AutenticacaoTokenFilter;
 import br.com.matheusramos.minhasfinancas.dtos.AtualizaStatusDTO;
+import br.com.matheusramos.minhasfinancas.dtos.AtualizaStatusLoteDTO;
 import br.com.matheusramos.minhasfinancas.dtos.LancamentoDTO;
+import br.com.matheusramos.minhasfinancas.dtos.PaginaDTO;
 import br.com.matheusramos.minhasfinancas.enums.EnumStatusLancamento;
 import br.com.matheusramos.minhasfinancas.enums.EnumTipoLancamento;
 import br.com.matheusramos.minhasfinancas.exceptions.RegraNegocioException;
+import br.com.matheusramos.minhasfinancas.interfaces.IdempotenciaService;
 import br.com.matheusramos.minhasfinancas.interfaces.LancamentoService;
 import br.com.matheusramos.minhasfinancas.interfaces.UsuarioService;
+import br.com.matheusramos.minhasfinancas.interfaces.VersaoLivroService;
 import br.com.matheusramos.minhasfinancas.model.entity.Lancamento;
 import br.com.matheusramos.minhasfinancas.model.entity.Usuario;
+import br.com.matheusramos.minhasfinancas.utils.LancamentoCsv;
 import lombok.RequiredArgsConstructor;
 
 @RestController
@@ -31,90 +55,331 @@ import lombok.RequiredArgsConstructor;
 @RequiredArgsConstructor
 public class LancamentoController {
 
+	private static final int TENTATIVAS_ATUALIZACAO_STATUS = 3;
+	private static final String CHAVE_IDEMPOTENCIA = "Idempotency-Key";
+	
 	private final LancamentoService service;
 	private final UsuarioService usuarioService;
+	private final VersaoLivroService versaoLivroService;
+	private final ObjectMapper objectMapper;
+	private final IdempotenciaService idempotenciaService;
 	
 	@GetMapping("{id}")
-	public ResponseEntity obterLancamento(@PathVariable("id") Long id) {
-		return service.obterPorId(id).map(lancamento -> new ResponseEntity(converter(lancamento), HttpStatus.OK))
+	public ResponseEntity obterLancamento(@PathVariable("id") Long id,
+			@RequestAttribute(name = AutenticacaoTokenFilter.ID_USUARIO, required = false) Long idAutenticado) {
+		return service.obterDTOPorId(id).map(lancamento -> outroUsuario(idAutenticado, lancamento.getUsuario())
+				? new ResponseEntity(HttpStatus.FORBIDDEN)
+				: new ResponseEntity(lancamento, HttpStatus.OK))
 				.orElseGet(() -> new ResponseEntity(HttpStatus.NOT_FOUND));
 	}
 	
+	/**
+	 * Com Idempotency-Key, a repetição da requisição recebe o lançamento criado na primeira, sem criar outro.
+	 * A chave vale para o usuário do token ou, sem token, para o usuário do lançamento
+	 * */
 	@PostMapping
-	public ResponseEntity salvar(@RequestBody LancamentoDTO lancamentoDTO) {
+	public ResponseEntity salvar(@RequestBody LancamentoDTO lancamentoDTO,
+			@RequestHeader(name = CHAVE_IDEMPOTENCIA, required = false) String chaveIdempotencia,
+			@RequestAttribute(name = AutenticacaoTokenFilter.ID_USUARIO, required = false) Long idAutenticado) {
+		if (outroUsuario(idAutenticado, lancamentoDTO.getUsuario())) {
+			return new ResponseEntity(HttpStatus.FORBIDDEN);
+		}
+		
+		Long idUsuario = idAutenticado != null ? idAutenticado : lancamentoDTO.getUsuario();
+		return idempotenciaService.executar(idUsuario, chaveIdempotencia, "POST /api/lancamentos", lancamentoDTO,
+				() -> salvarLancamento(lancamentoDTO));
+	}
+	
+	private ResponseEntity salvarLancamento(LancamentoDTO lancamentoDTO) {
 		try {
 			Lancamento lancamento = convertDTO(lancamentoDTO);
 			lancamento = service.salvar(lancamento);
 			
-			return new ResponseEntity(lancamento, HttpStatus.CREATED);
+			return new ResponseEntity(converter(lancamento), HttpStatus.CREATED);
 		} catch (RegraNegocioException e) {
 			return ResponseEntity.badRequest().body(e.getMessage());
 		}
 	}
 	
+	/**
+	 * Com token, todas as linhas devem ser do usuário do token
+	 * */
+	@PostMapping(value = "lote", consumes = MediaType.APPLICATION_JSON_VALUE)
+	public ResponseEntity importar(@RequestBody List<LancamentoDTO> lancamentosDTO,
+			@RequestAttribute(name = AutenticacaoTokenFilter.ID_USUARIO, required = false) Long idAutenticado) {
+		if (lancamentosDTO.stream().anyMatch(dto -> dto.getUsuario() != null && outroUsuario(idAutenticado, dto.getUsuario()))) {
+			return new ResponseEntity(HttpStatus.FORBIDDEN);
+		}
+		
+		try {
+			return ResponseEntity.ok(service.importar(lancamentosDTO));
+		} catch (RegraNegocioException e) {
+			return ResponseEntity.badRequest().body(e.getMessage());
+		}
+	}
+	
+	@PostMapping(value = "lote", consumes = "text/csv")
+	public ResponseEntity importarCsv(InputStream corpo,
+			@RequestAttribute(name = AutenticacaoTokenFilter.ID_USUARIO, required = false) Long idAutenticado) throws IOException {
+		return importar(LancamentoCsv.ler(new InputStreamReader(corpo, StandardCharsets.UTF_8)), idAutenticado);
+	}
+	
 	@PutMapping("{id}")
-	public ResponseEntity atualizar(@PathVariable("id") Long id, @RequestBody LancamentoDTO lancamentoDTO) {
+	public ResponseEntity atualizar(@PathVariable("id") Long id, @RequestBody LancamentoDTO lancamentoDTO,
+			@RequestAttribute(name = AutenticacaoTokenFilter.ID_USUARIO, required = false) Long idAutenticado) {
 		return service.obterPorId(id).map(lancamentoEntidade -> {
+			if (outroUsuario(idAutenticado, lancamentoEntidade.getUsuario().getId()) || outroUsuario(idAutenticado, lancamentoDTO.getUsuario())) {
+				return new ResponseEntity(HttpStatus.FORBIDDEN);
+			}
+			
+			if (lancamentoDTO.getVersao() != null && !lancamentoDTO.getVersao().equals(lancamentoEntidade.getVersao())) {
+				return conflito(id);
+			}
+			
 			try {
 				Lancamento lancamento = convertDTO(lancamentoDTO);
 				lancamento.setId(lancamentoEntidade.getId());
-				service.atualizar(lancamento);
-				return ResponseEntity.ok(lancamento);
+				lancamento.setVersao(lancamentoEntidade.getVersao());
+				return ResponseEntity.ok(converter(service.atualizar(lancamento)));
 			} catch(RegraNegocioException e) {
 				return ResponseEntity.badRequest().body(e.getMessage());
+			} catch (OptimisticLockingFailureException e) {
+				return conflito(id);
 			}
 		}).orElseGet(() -> new ResponseEntity("Lançamento não encontrado com o Id informado", HttpStatus.BAD_REQUEST));
 	}
 	
 	@DeleteMapping("{id}")
-	public ResponseEntity deletar(@PathVariable("id") Long id) {
+	public ResponseEntity deletar(@PathVariable("id") Long id,
+			@RequestAttribute(name = AutenticacaoTokenFilter.ID_USUARIO, required = false) Long idAutenticado) {
 		return service.obterPorId(id).map(lancamentoEntidade -> {
-			service.deletar(lancamentoEntidade);
-			return new ResponseEntity(HttpStatus.NO_CONTENT);
+			if (outroUsuario(idAutenticado, lancamentoEntidade.getUsuario().getId())) {
+				return new ResponseEntity(HttpStatus.FORBIDDEN);
+			}
+			
+			try {
+				service.deletar(lancamentoEntidade);
+				return new ResponseEntity(HttpStatus.NO_CONTENT);
+			} catch (OptimisticLockingFailureException e) {
+				return conflito(id);
+			}
 		}).orElseGet(() -> new ResponseEntity("Lançamento não encontrado com o Id informado", HttpStatus.BAD_REQUEST));
 	}
 	
+	/**
+	 * Sem 'versao' a troca de status não depende do estado lido, então em caso de conflito ela é repetida
+	 * sobre o lançamento relido, até {@value #TENTATIVAS_ATUALIZACAO_STATUS} vezes. Com Idempotency-Key, a repetição
+	 * recebe a resposta da primeira requisição sem ler o lançamento, por isso a chave exige o token do usuário
+	 * */
 	@PutMapping("{id}/atualiza-status")
-	public ResponseEntity atualizarStatus(@PathVariable("id") Long id, @RequestBody AtualizaStatusDTO statusDTO) {
-		return service.obterPorId(id).map(lancamento -> {
-			EnumStatusLancamento statusSelecionado = EnumStatusLancamento.valueOf(statusDTO.getStatus());
-			if (statusSelecionado == null) {
-				return ResponseEntity.badRequest().body("Não foi possível atualizar o status do lançamento, envie os dados novamente");
+	public ResponseEntity atualizarStatus(@PathVariable("id") Long id, @RequestBody AtualizaStatusDTO statusDTO,
+			@RequestHeader(name = CHAVE_IDEMPOTENCIA, required = false) String chaveIdempotencia,
+			@RequestAttribute(name = AutenticacaoTokenFilter.ID_USUARIO, required = false) Long idAutenticado) {
+		return idempotenciaService.executar(idAutenticado, chaveIdempotencia, "PUT /api/lancamentos/" + id + "/atualiza-status", statusDTO,
+				() -> trocarStatus(id, statusDTO, idAutenticado));
+	}
+	
+	private ResponseEntity trocarStatus(Long id, AtualizaStatusDTO statusDTO, Long idAutenticado) {
+		EnumStatusLancamento statusSelecionado;
+		try {
+			statusSelecionado = EnumStatusLancamento.valueOf(String.valueOf(statusDTO.getStatus()));
+		} catch (IllegalArgumentException e) {
+			return ResponseEntity.badRequest().body("Não foi possível atualizar o status do lançamento, envie os dados novamente");
+		}
+		
+		int tentativas = statusDTO.getVersao() == null ? TENTATIVAS_ATUALIZACAO_STATUS : 1;
+		for (int tentativa = 1; ; tentativa++) {
+			Optional<Lancamento> encontrado = service.obterPorId(id);
+			if (!encontrado.isPresent()) {
+				return new ResponseEntity("Lançamento não encontrado com o Id informado", HttpStatus.BAD_REQUEST);
+			}
+			
+			Lancamento lancamento = encontrado.get();
+			if (outroUsuario(idAutenticado, lancamento.getUsuario().getId())) {
+				return new ResponseEntity(HttpStatus.FORBIDDEN);
+			}
+			if (statusDTO.getVersao() != null && !statusDTO.getVersao().equals(lancamento.getVersao())) {
+				return conflito(id);
+			}
+			if (lancamento.getStatus() == statusSelecionado) {
+				return ResponseEntity.ok(converter(lancamento));
 			}
 			
 			try {
-				lancamento.setStatus(statusSelecionado);
-				service.atualizar(lancamento);
-				return ResponseEntity.ok(lancamento);
+				return ResponseEntity.ok(converter(service.atualizarStatus(lancamento, statusSelecionado)));
 			} catch (RegraNegocioException e) {
 				return ResponseEntity.badRequest().body(e.getMessage());
+			} catch (OptimisticLockingFailureException e) {
+				if (tentativa == tentativas) {
+					return conflito(id);
+				}
 			}
-		}).orElseGet(() -> new ResponseEntity("Lançamento não encontrado com o Id informado", HttpStatus.BAD_REQUEST));
+		}
 	}
 	
+	/**
+	 * Com token, os 'ids' ou o 'usuario' informados devem ser do usuário do token
+	 * */
+	@PutMapping("atualiza-status")
+	public ResponseEntity atualizarStatusEmLote(@RequestBody AtualizaStatusLoteDTO dto,
+			@RequestAttribute(name = AutenticacaoTokenFilter.ID_USUARIO, required = false) Long idAutenticado) {
+		EnumStatusLancamento status;
+		try {
+			status = EnumStatusLancamento.valueOf(String.valueOf(dto.getStatus()));
+		} catch (IllegalArgumentException e) {
+			return ResponseEntity.badRequest().body("Não foi possível atualizar o status dos lançamentos, envie os dados novamente");
+		}
+		
+		try {
+			if (dto.getIds() != null && !dto.getIds().isEmpty()) {
+				if (idAutenticado != null && !service.pertencemAoUsuario(dto.getIds(), idAutenticado)) {
+					return new ResponseEntity(HttpStatus.FORBIDDEN);
+				}
+				return ResponseEntity.ok(service.atualizarStatusEmLote(dto.getIds(), status));
+			}
+			
+			if (outroUsuario(idAutenticado, dto.getUsuario())) {
+				return new ResponseEntity(HttpStatus.FORBIDDEN);
+			}
+			return ResponseEntity.ok(service.atualizarStatusPorMes(dto.getUsuario(), dto.getAno(), dto.getMes(), status));
+		} catch (RegraNegocioException e) {
+			return ResponseEntity.badRequest().body(e.getMessage());
+		}
+	}
+	
+	/**
+	 * Com If-None-Match igual à versão do livro do usuário, responde 304 sem consultar os lançamentos
+	 * */
 	@GetMapping
 	public ResponseEntity buscar(@RequestParam(value = "descricao", required = false) String descricao, 
 			@RequestParam(value = "mes", required = false) Integer mes, 
 			@RequestParam(value = "ano", required = false) Integer ano, 
-			@RequestParam("usuario") String idUsuario) {
+			@RequestParam("usuario") String idUsuario,
+			@RequestAttribute(name = AutenticacaoTokenFilter.ID_USUARIO, required = false) Long idAutenticado,
+			WebRequest request) {
+		if (outroUsuario(idAutenticado, Long.valueOf(idUsuario))) {
+			return new ResponseEntity(HttpStatus.FORBIDDEN);
+		}
+		
+		Lancamento lancamentoFiltro = new Lancamento();
+		lancamentoFiltro.setDescricao(descricao);
+		lancamentoFiltro.setMes(mes);
+		lancamentoFiltro.setAno(ano);
+		
+		if (!usuarioService.existe(Long.valueOf(idUsuario))) {
+			return ResponseEntity.badRequest().body("Houve um erro na consulta do lançamento. O usuário não foi encontrado para o Id informado");
+		} else {
+			lancamentoFiltro.setUsuario(Usuario.builder().id(Long.valueOf(idUsuario)).build());
+		}
+		
+		return versaoLivroService.consultar(Long.valueOf(idUsuario), etag -> {
+			if (request.checkNotModified(etag)) {
+				return null;
+			}
+			
+			List<LancamentoDTO> lancamentos = service.listar(lancamentoFiltro);
+			return ResponseEntity.ok().cacheControl(CacheControl.noCache().cachePrivate()).body(lancamentos);
+		});
+		
+	}
+	
+	@GetMapping("pagina")
+	public ResponseEntity buscarPagina(@RequestParam(value = "descricao", required = false) String descricao, 
+			@RequestParam(value = "mes", required = false) Integer mes, 
+			@RequestParam(value = "ano", required = false) Integer ano, 
+			@RequestParam("usuario") Long idUsuario,
+			@RequestParam(value = "limit", defaultValue = "50") Integer limite,
+			@RequestParam(value = "next", required = false) String next,
+			@RequestParam(value = "ordem", defaultValue = "asc") String ordem,
+			@RequestAttribute(name = AutenticacaoTokenFilter.ID_USUARIO, required = false) Long idAutenticado) {
+		if (outroUsuario(idAutenticado, idUsuario)) {
+			return new ResponseEntity(HttpStatus.FORBIDDEN);
+		}
+		
 		Lancamento lancamentoFiltro = new Lancamento();
 		lancamentoFiltro.setDescricao(descricao);
 		lancamentoFiltro.setMes(mes);
 		lancamentoFiltro.setAno(ano);
 		
-		Optional<Usuario> usuarioOpt = usuarioService.obterPorId(Long.valueOf(idUsuario));
-		if (!usuarioOpt.isPresent()) {
+		if (!usuarioService.existe(idUsuario)) {
 			return ResponseEntity.badRequest().body("Houve um erro na consulta do lançamento. O usuário não foi encontrado para o Id informado");
 		} else {
-			lancamentoFiltro.setUsuario(usuarioOpt.get());
+			lancamentoFiltro.setUsuario(Usuario.builder().id(idUsuario).build());
 		}
 		
-		List<Lancamento> lancamentos = service.buscar(lancamentoFiltro);
-		return ResponseEntity.ok(lancamentos);
+		try {
+			PaginaDTO<LancamentoDTO> pagina = service.buscarPagina(lancamentoFiltro, next, limite, "desc".equalsIgnoreCase(ordem));
+			return ResponseEntity.ok(pagina);
+		} catch (RegraNegocioException e) {
+			return ResponseEntity.badRequest().body(e.getMessage());
+		}
+	}
+	
+	@GetMapping("export")
+	public ResponseEntity<StreamingResponseBody> exportar(@RequestParam("usuario") Long idUsuario,
+			@RequestParam(value = "format", defaultValue = "ndjson") String formato,
+			@RequestAttribute(name = AutenticacaoTokenFilter.ID_USUARIO, required = false) Long idAutenticado) {
+		if (outroUsuario(idAutenticado, idUsuario)) {
+			return new ResponseEntity<>(HttpStatus.FORBIDDEN);
+		}
+		
+		if (!"ndjson".equals(formato) && !"csv".equals(formato)) {
+			return ResponseEntity.badRequest().body(mensagem("Informe um 'format' válido: ndjson ou csv"));
+		}
+		
+		if (!usuarioService.existe(idUsuario)) {
+			return ResponseEntity.badRequest().body(mensagem("O usuário não foi encontrado para o Id informado"));
+		}
 		
+		boolean csv = "csv".equals(formato);
+		ObjectWriter jsonWriter = objectMapper.writerFor(LancamentoDTO.class);
+		
+		// o corpo é escrito em outra thread, conforme os lançamentos são lidos da base
+		StreamingResponseBody corpo = saida -> {
+			Writer writer = new OutputStreamWriter(saida, StandardCharsets.UTF_8);
+			if (csv) {
+				writer.write(LancamentoCsv.CABECALHO);
+				writer.write('\n');
+			}
+			
+			service.exportar(idUsuario, dto -> {
+				try {
+					writer.write(csv ? LancamentoCsv.linha(dto) : jsonWriter.writeValueAsString(dto));
+					writer.write('\n');
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			});
+			writer.flush();
+		};
+		
+		return ResponseEntity.ok()
+				.contentType(csv ? new MediaType("text", "csv", StandardCharsets.UTF_8) : new MediaType("application", "x-ndjson", StandardCharsets.UTF_8))
+				.header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"lancamentos-" + idUsuario + "." + formato + "\"")
+				.body(corpo);
+	}
+	
+	/**
+	 * O lançamento foi alterado ou excluído por outra requisição; responde com o estado atual, de onde o cliente
+	 * tira a nova 'versao'
+	 * */
+	private ResponseEntity conflito(Long id) {
+		return service.obterDTOPorId(id).map(atual -> new ResponseEntity(atual, HttpStatus.CONFLICT))
+				.orElseGet(() -> new ResponseEntity("Lançamento não encontrado com o Id informado", HttpStatus.BAD_REQUEST));
 	}
 	
-	private LancamentoDTO converter(Lancamento lancamento) {
+	/**
+	 * Com token, somente os lançamentos do próprio usuário; sem token não há restrição
+	 * */
+	private static boolean outroUsuario(Long idAutenticado, Long idUsuario) {
+		return idAutenticado != null && !idAutenticado.equals(idUsuario);
+	}
+	
+	private StreamingResponseBody mensagem(String mensagem) {
+		return saida -> saida.write(mensagem.getBytes(StandardCharsets.UTF_8));
+	}
+	
+	LancamentoDTO converter(Lancamento lancamento) {
 		return LancamentoDTO.builder()
 				.id(lancamento.getId())
 				.descricao(lancamento.getDescricao())
@@ -124,10 +389,11 @@ public class LancamentoController {
 				.status(lancamento.getStatus().name())
 				.tipo(lancamento.getTipo().name())
 				.usuario(lancamento.getUsuario().getId())
+				.versao(lancamento.getVersao())
 				.build();
 	}
 	
-	private Lancamento convertDTO(LancamentoDTO dto) {
+	Lancamento convertDTO(LancamentoDTO dto) {
 		Lancamento lancamento = new Lancamento();
 		lancamento.setId(dto.getId());
 		lancamento.setDescricao(dto.getDescricao());
@@ -135,10 +401,10 @@ public class LancamentoController {
 		lancamento.setMes(dto.getMes());
 		lancamento.setValor(dto.getValor());
 		
-		Usuario usuario = usuarioService
-				.obterPorId(dto.getUsuario())
-				.orElseThrow(() -> new RegraNegocioException("Usuário não encontrado para o Id informado")); 
-		lancamento.setUsuario(usuario);
+		if (!usuarioService.existe(dto.getUsuario())) {
+			throw new RegraNegocioException("Usuário não encontrado para o Id informado");
+		}
+		lancamento.setUsuario(usuarioService.obterReferencia(dto.getUsuario()));
 		
 		if (dto.getTipo() != null) {			
 			lancamento.setTipo(EnumTipoLancamento.valueOf(dto.getTipo()));
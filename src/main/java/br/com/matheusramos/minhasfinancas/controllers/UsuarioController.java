@@ -1,22 +1,36 @@
 package br.com.matheusramos.minhasfinancas.controllers;
 
 import java.math.BigDecimal;
-import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
+import javax.servlet.http.HttpServletRequest;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestAttribute;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
+import br.com.matheusramos.minhasfinancas.AutenticacaoTokenFilter;
+import br.com.matheusramos.minhasfinancas.dtos.UsuarioAutenticadoDTO;
+import br.com.matheusramos.minhasfinancas.dtos.UsuarioCadastradoDTO;
 import br.com.matheusramos.minhasfinancas.dtos.UsuarioDTO;
 import br.com.matheusramos.minhasfinancas.exceptions.ErroAuthException;
 import br.com.matheusramos.minhasfinancas.exceptions.RegraNegocioException;
+import br.com.matheusramos.minhasfinancas.exceptions.ServicoOcupadoException;
 import br.com.matheusramos.minhasfinancas.interfaces.LancamentoService;
+import br.com.matheusramos.minhasfinancas.interfaces.TokenService;
 import br.com.matheusramos.minhasfinancas.interfaces.UsuarioService;
+import br.com.matheusramos.minhasfinancas.interfaces.VersaoLivroService;
 import br.com.matheusramos.minhasfinancas.model.entity.Usuario;
 import lombok.RequiredArgsConstructor;
 
@@ -27,15 +41,42 @@ public class UsuarioController {
 
 	private final UsuarioService service;
 	private final LancamentoService lancamentoService;
+	private final TokenService tokenService;
+	private final VersaoLivroService versaoLivroService;
 	
+	/**
+	 * Resposta assíncrona: a thread do Tomcat é liberada enquanto a senha é conferida no pool do SenhaService
+	 * */
 	@PostMapping("/autenticar")
-	public ResponseEntity autenticar(@RequestBody UsuarioDTO dto) {
-		try {
-			Usuario usuarioAuth = service.autenticar(dto.getEmail(), dto.getSenha());
-			return ResponseEntity.ok(usuarioAuth);
-		} catch (ErroAuthException e) {
-			return ResponseEntity.badRequest().body(e.getMessage());
+	public CompletableFuture<ResponseEntity> autenticar(@RequestBody UsuarioDTO dto) {
+		return service.autenticarAssincrono(dto.getEmail(), dto.getSenha())
+				.<ResponseEntity>thenApply(usuario -> ResponseEntity.ok(UsuarioAutenticadoDTO.builder()
+						.id(usuario.getId()).nome(usuario.getNome()).email(usuario.getEmail())
+						.token(tokenService.emitir(usuario.getId())).build()))
+				.exceptionally(this::erroAutenticacao);
+	}
+	
+	/**
+	 * Logout: revoga o token enviado até a sua expiração
+	 * */
+	@PostMapping("/sair")
+	public ResponseEntity sair(HttpServletRequest request) {
+		tokenService.revogar(AutenticacaoTokenFilter.token(request));
+		return ResponseEntity.noContent().build();
+	}
+	
+	private ResponseEntity erroAutenticacao(Throwable erro) {
+		Throwable causa = erro instanceof CompletionException && erro.getCause() != null ? erro.getCause() : erro;
+		
+		if (causa instanceof ServicoOcupadoException) {
+			return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1").body(causa.getMessage());
+		}
+		
+		if (causa instanceof ErroAuthException) {
+			return ResponseEntity.badRequest().body(causa.getMessage());
 		}
+		
+		throw new CompletionException(causa);
 	}
 	
 	@PostMapping
@@ -45,23 +86,58 @@ public class UsuarioController {
 		
 		try {
 			Usuario usuarioSalvo = service.salvarUsuario(usuario);
-			return new ResponseEntity(usuarioSalvo, HttpStatus.CREATED);
+			return new ResponseEntity(UsuarioCadastradoDTO.builder().id(usuarioSalvo.getId()).nome(usuarioSalvo.getNome())
+					.email(usuarioSalvo.getEmail()).build(), HttpStatus.CREATED);
 		} catch (RegraNegocioException e) {
 			return ResponseEntity.badRequest().body(e.getMessage());
 		}
 	}
 	
+	/**
+	 * Com token, o usuário já foi verificado pelo filtro e a existência não é consultada. Com If-None-Match igual
+	 * à versão do livro do usuário, responde 304 sem consultar o saldo
+	 * */
 	@GetMapping("{id}/saldo")
-	public ResponseEntity obterSaldo(@PathVariable("id") Long id) {
-		Optional<Usuario> usuario = service.obterPorId(id);
+	public ResponseEntity obterSaldo(@PathVariable("id") Long id,
+			@RequestAttribute(name = AutenticacaoTokenFilter.ID_USUARIO, required = false) Long idAutenticado,
+			WebRequest request) {
+		if (idAutenticado != null && !idAutenticado.equals(id)) {
+			return new ResponseEntity(HttpStatus.FORBIDDEN);
+		}
 		
-		if (!usuario.isPresent()) {
+		if (idAutenticado == null && !service.existe(id)) {
 			return new ResponseEntity(HttpStatus.NOT_FOUND);
 		}
 		
-		BigDecimal saldo = lancamentoService.obterSaldoPorUsuario(id);
-		return ResponseEntity.ok(saldo);
+		return versaoLivroService.consultar(id, etag -> {
+			if (request.checkNotModified(etag)) {
+				return null;
+			}
+			
+			BigDecimal saldo = lancamentoService.obterSaldoPorUsuario(id);
+			return ResponseEntity.ok().cacheControl(CacheControl.noCache().cachePrivate()).body(saldo);
+		});
+		
+	}
+	
+	/**
+	 * Receitas, despesas e saldo de cada mês do ano, lidos do resumo mensal sem somar os lançamentos
+	 * */
+	@GetMapping("{id}/resumo")
+	public ResponseEntity obterResumo(@PathVariable("id") Long id, @RequestParam("ano") Integer ano,
+			@RequestAttribute(name = AutenticacaoTokenFilter.ID_USUARIO, required = false) Long idAutenticado,
+			WebRequest request) {
+		if (idAutenticado != null && !idAutenticado.equals(id)) {
+			return new ResponseEntity(HttpStatus.FORBIDDEN);
+		}
+		
+		if (idAutenticado == null && !service.existe(id)) {
+			return new ResponseEntity(HttpStatus.NOT_FOUND);
+		}
 		
+		return versaoLivroService.consultar(id, etag -> request.checkNotModified(etag) ? null
+				: ResponseEntity.ok().cacheControl(CacheControl.noCache().cachePrivate()).body(lancamentoService.obterResumoMensal(id, ano)));
 	}
+
 	
 }
@@ -11,4 +11,9 @@ public class AtualizaStatusDTO {
 
 	private String status;
 	
+	/**
+	 * Opcional: informada, a troca de status é recusada se o lançamento mudou desde a leitura
+	 * */
+	private Long versao;
+	
 }
@@ -0,0 +1,25 @@
+package br.com.matheusramos.minhasfinancas.dtos;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Informe os 'ids' dos lançamentos ou o 'usuario', 'ano' e 'mes' cujos lançamentos pendentes serão atualizados
+ * */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AtualizaStatusLoteDTO {
+
+	private List<Long> ids;
+	private Long usuario;
+	private Integer ano;
+	private Integer mes;
+	private String status;
+	
+}
@@ -0,0 +1,25 @@
+package br.com.matheusramos.minhasfinancas.dtos;
+
+import br.com.matheusramos.minhasfinancas.enums.EnumStatusLancamento;
+import br.com.matheusramos.minhasfinancas.enums.EnumTipoLancamento;
+import br.com.matheusramos.minhasfinancas.model.Dinheiro;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Total e quantidade dos lançamentos de um tipo e status no período consultado
+ * */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ComposicaoLancamentosDTO {
+
+	private EnumTipoLancamento tipo;
+	private EnumStatusLancamento status;
+	private Dinheiro total;
+	private Integer quantidade;
+	
+}
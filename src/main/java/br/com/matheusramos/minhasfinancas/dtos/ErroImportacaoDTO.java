@@ -0,0 +1,15 @@
+package br.com.matheusramos.minhasfinancas.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ErroImportacaoDTO {
+
+	private Integer linha;
+	private String mensagem;
+	
+}
@@ -0,0 +1,29 @@
+package br.com.matheusramos.minhasfinancas.dtos;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import br.com.matheusramos.minhasfinancas.model.Dinheiro;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Estado do livro do usuário após uma ou mais gravações. Sem os lançamentos, com 'recarregar', os ids alterados não
+ * são conhecidos (importação, recálculo ou eventos descartados numa conexão lenta) e o cliente deve reler a lista
+ * */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class EventoLivroDTO {
+
+	private String versao;
+	private Dinheiro saldo;
+	private List<Long> lancamentos;
+	private boolean recarregar;
+	
+}
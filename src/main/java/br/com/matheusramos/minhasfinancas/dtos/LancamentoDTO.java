@@ -2,6 +2,11 @@ package br.com.matheusramos.minhasfinancas.dtos;
 
 import java.math.BigDecimal;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+
+import br.com.matheusramos.minhasfinancas.enums.EnumStatusLancamento;
+import br.com.matheusramos.minhasfinancas.enums.EnumTipoLancamento;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -22,4 +27,24 @@ public class LancamentoDTO {
 	private String tipo;
 	private String status;
 	
+	/**
+	 * Versão lida pelo cliente; enviada de volta na alteração, a alteração é recusada se o lançamento mudou desde então.
+	 * Omitida nas listagens
+	 * */
+	@JsonInclude(Include.NON_NULL)
+	private Long versao;
+	
+	/**
+	 * Construtor usado nas projeções JPQL/Criteria, que selecionam somente as colunas do DTO
+	 * */
+	public LancamentoDTO(Long id, String descricao, Integer mes, Integer ano, BigDecimal valor, Long usuario,
+			EnumTipoLancamento tipo, EnumStatusLancamento status) {
+		this(id, descricao, mes, ano, valor, usuario, tipo, status, null);
+	}
+	
+	public LancamentoDTO(Long id, String descricao, Integer mes, Integer ano, BigDecimal valor, Long usuario,
+			EnumTipoLancamento tipo, EnumStatusLancamento status, Long versao) {
+		this(id, descricao, mes, ano, valor, usuario, tipo == null ? null : tipo.name(), status == null ? null : status.name(), versao);
+	}
+	
 }
@@ -0,0 +1,19 @@
+package br.com.matheusramos.minhasfinancas.dtos;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResultadoAtualizacaoStatusDTO {
+
+	private Integer atualizados;
+	private List<Long> ignorados;
+	
+}
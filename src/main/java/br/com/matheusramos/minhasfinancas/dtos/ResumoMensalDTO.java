@@ -0,0 +1,25 @@
+package br.com.matheusramos.minhasfinancas.dtos;
+
+import br.com.matheusramos.minhasfinancas.model.Dinheiro;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Totais de um mês; o saldo considera somente os lançamentos efetivados e os cancelados não entram em nenhum total
+ * */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResumoMensalDTO {
+
+	private Integer mes;
+	private Dinheiro receitas;
+	private Dinheiro despesas;
+	private Dinheiro receitasPendentes;
+	private Dinheiro despesasPendentes;
+	private Dinheiro saldo;
+	
+}
@@ -0,0 +1,30 @@
+package br.com.matheusramos.minhasfinancas.dtos;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import br.com.matheusramos.minhasfinancas.model.Dinheiro;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Totais de um mês ou, sem o mês, de um ano inteiro; como no resumo mensal, o saldo considera somente os lançamentos
+ * efetivados e os cancelados não entram em nenhum total
+ * */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class TotalPeriodoDTO {
+
+	private Integer ano;
+	private Integer mes;
+	private Dinheiro receitas;
+	private Dinheiro despesas;
+	private Dinheiro receitasPendentes;
+	private Dinheiro despesasPendentes;
+	private Dinheiro saldo;
+	
+}
@@ -0,0 +1,18 @@
+package br.com.matheusramos.minhasfinancas.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UsuarioCadastradoDTO {
+
+	private Long id;
+	private String nome;
+	private String email;
+	
+}
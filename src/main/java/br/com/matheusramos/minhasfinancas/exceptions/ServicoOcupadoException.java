@@ -0,0 +1,9 @@
+package br.com.matheusramos.minhasfinancas.exceptions;
+
+public class ServicoOcupadoException extends RuntimeException {
+
+	public ServicoOcupadoException(String msg) {
+		super(msg);
+	}
+	
+}
@@ -0,0 +1,22 @@
+package br.com.matheusramos.minhasfinancas.interfaces;
+
+import java.time.YearMonth;
+import java.util.List;
+
+import br.com.matheusramos.minhasfinancas.dtos.ComposicaoLancamentosDTO;
+import br.com.matheusramos.minhasfinancas.dtos.TotalPeriodoDTO;
+
+/**
+ * @author Matheus
+ * Análises sobre todo o histórico de lançamentos de um usuário: evolução mês a mês, composição por tipo e status
+ * e comparação entre anos. Os períodos incluem o início e o fim
+ * */
+public interface AnaliseLancamentosService {
+
+	List<TotalPeriodoDTO> obterTendencia(Long idUsuario, YearMonth inicio, YearMonth fim);
+	
+	List<ComposicaoLancamentosDTO> obterComposicao(Long idUsuario, YearMonth inicio, YearMonth fim);
+	
+	List<TotalPeriodoDTO> obterComparativoAnual(Long idUsuario, Integer anoInicial, Integer anoFinal);
+	
+}
@@ -0,0 +1,31 @@
+package br.com.matheusramos.minhasfinancas.interfaces;
+
+import java.time.Instant;
+import java.util.Optional;
+
+import br.com.matheusramos.minhasfinancas.model.entity.RequisicaoIdempotente;
+
+/**
+ * @author Matheus
+ * Onde ficam as requisições com Idempotency-Key: em memória (padrão, um nó) ou na tabela requisicao_idempotente
+ * (minhasfinancas.idempotencia.armazenamento=tabela), compartilhada entre os nós
+ * */
+public interface ArmazenamentoIdempotencia {
+
+	/**
+	 * Reserva a chave para a requisição e devolve vazio; com a chave já reservada e não expirada, devolve a requisição
+	 * existente, em andamento ou concluída
+	 * */
+	Optional<RequisicaoIdempotente> reservar(String chave, String impressao, Instant expiraEm);
+	
+	/**
+	 * Guarda a resposta e troca a validade curta da reserva pela da resposta concluída
+	 * */
+	void concluir(String chave, int status, String corpo, Instant expiraEm);
+	
+	/**
+	 * Desfaz a reserva de uma requisição que não terminou com sucesso, para que ela possa ser repetida
+	 * */
+	void liberar(String chave);
+	
+}
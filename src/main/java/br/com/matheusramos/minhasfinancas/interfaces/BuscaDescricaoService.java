@@ -0,0 +1,22 @@
+package br.com.matheusramos.minhasfinancas.interfaces;
+
+import java.util.List;
+
+/**
+ * @author Matheus
+ * Busca por trechos da descrição dos lançamentos de um usuário, sem diferenciar maiúsculas e acentos
+ * */
+public interface BuscaDescricaoService {
+
+	/**
+	 * Ids dos lançamentos do usuário cuja descrição contém o termo, do mais relevante para o menos relevante
+	 * */
+	List<Long> buscar(Long idUsuario, String termo);
+	
+	void registrar(Long idUsuario, Long idLancamento, String descricao);
+	
+	void remover(Long idUsuario, Long idLancamento);
+	
+	void invalidar(Long idUsuario);
+	
+}
@@ -0,0 +1,28 @@
+package br.com.matheusramos.minhasfinancas.interfaces;
+
+import java.util.Collection;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * @author Matheus
+ * Avisos, por server-sent events, das gravações confirmadas no livro de cada usuário: o saldo atual, a versão do livro
+ * (a mesma ETag das consultas) e os ids dos lançamentos alterados, para que o cliente não precise consultar o saldo
+ * e os lançamentos periodicamente
+ * */
+public interface EventosLivroService {
+
+	/**
+	 * Abre uma conexão que recebe de imediato o estado atual do livro; lança ServicoOcupadoException quando o limite
+	 * de conexões abertas foi atingido
+	 * */
+	SseEmitter assinar(Long idUsuario);
+	
+	/**
+	 * Chamado após o commit da gravação; sem os ids (null) o evento pede que o cliente releia os lançamentos
+	 * */
+	void publicar(Long idUsuario, Collection<Long> idsLancamentos);
+	
+	void publicarTodos();
+	
+}
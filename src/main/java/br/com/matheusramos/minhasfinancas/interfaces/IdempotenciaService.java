@@ -0,0 +1,21 @@
+package br.com.matheusramos.minhasfinancas.interfaces;
+
+import java.util.function.Supplier;
+
+import org.springframework.http.ResponseEntity;
+
+/**
+ * @author Matheus
+ * Requisições repetidas com a mesma Idempotency-Key recebem a primeira resposta de sucesso guardada, sem executar
+ * a operação de novo. As chaves valem por usuário e por um tempo limitado
+ * */
+public interface IdempotenciaService {
+
+	/**
+	 * Sem chave apenas executa a ação. A mesma chave com outra operação ou outro corpo responde 422, e com a primeira
+	 * requisição ainda em andamento responde 409.
+	 * Com chave e sem usuário responde 401
+	 * */
+	ResponseEntity executar(Long idUsuario, String chave, String operacao, Object requisicao, Supplier<ResponseEntity> acao);
+	
+}
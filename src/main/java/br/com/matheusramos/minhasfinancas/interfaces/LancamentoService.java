@@ -3,7 +3,13 @@ package br.com.matheusramos.minhasfinancas.interfaces;
 import java.math.BigDecimal;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
+import br.com.matheusramos.minhasfinancas.dtos.LancamentoDTO;
+import br.com.matheusramos.minhasfinancas.dtos.PaginaDTO;
+import br.com.matheusramos.minhasfinancas.dtos.ResultadoAtualizacaoStatusDTO;
+import br.com.matheusramos.minhasfinancas.dtos.ResultadoImportacaoDTO;
+import br.com.matheusramos.minhasfinancas.dtos.ResumoMensalDTO;
 import br.com.matheusramos.minhasfinancas.enums.EnumStatusLancamento;
 import br.com.matheusramos.minhasfinancas.model.entity.Lancamento;
 
@@ -13,14 +19,37 @@ public interface LancamentoService {
 	
 	Lancamento atualizar(Lancamento lancamento);
 	
+	ResultadoImportacaoDTO importar(List<LancamentoDTO> lancamentos);
+	
 	void deletar(Lancamento lancamento);
 	
 	List<Lancamento> buscar(Lancamento lancamento);
 	
-	void atualizarStatus(Lancamento lancamento, EnumStatusLancamento status);
+	List<LancamentoDTO> listar(Lancamento lancamento);
+	
+	PaginaDTO<LancamentoDTO> buscarPagina(Lancamento lancamento, String next, int limite, boolean decrescente);
+	
+	void exportar(Long idUsuario, Consumer<LancamentoDTO> consumidor);
+	
+	/**
+	 * Devolve o lançamento gravado, com a nova versão; o lançamento informado pode ter sido lido em outra transação
+	 * */
+	Lancamento atualizarStatus(Lancamento lancamento, EnumStatusLancamento status);
+	
+	ResultadoAtualizacaoStatusDTO atualizarStatusEmLote(List<Long> ids, EnumStatusLancamento status);
+	
+	boolean pertencemAoUsuario(List<Long> ids, Long idUsuario);
+	
+	ResultadoAtualizacaoStatusDTO atualizarStatusPorMes(Long idUsuario, Integer ano, Integer mes, EnumStatusLancamento status);
 	
 	Optional<Lancamento> obterPorId(Long lancamento);
 	
+	Optional<LancamentoDTO> obterDTOPorId(Long lancamento);
+	
 	BigDecimal obterSaldoPorUsuario(Long idUsuario);
 	
+	List<ResumoMensalDTO> obterResumoMensal(Long idUsuario, Integer ano);
+	
+	void recalcularSaldos();
+	
 }
@@ -0,0 +1,21 @@
+package br.com.matheusramos.minhasfinancas.interfaces;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * @author Matheus
+ * Hash das senhas em um pool próprio; os futures falham com ServicoOcupadoException quando a fila está cheia
+ * ou a tarefa esperou mais que o tempo limite
+ * */
+public interface SenhaService {
+
+	CompletableFuture<String> codificar(String senha);
+	
+	CompletableFuture<Boolean> confere(String senha, String senhaArmazenada);
+	
+	/**
+	 * Senha armazenada em texto puro ou com um custo diferente do configurado
+	 * */
+	boolean precisaAtualizar(String senhaArmazenada);
+	
+}
@@ -0,0 +1,20 @@
+package br.com.matheusramos.minhasfinancas.interfaces;
+
+import java.util.Optional;
+
+/**
+ * @author Matheus
+ * Tokens de sessão assinados (HMAC) com o id do usuário e a expiração, verificados sem consultar a base
+ * */
+public interface TokenService {
+
+	String emitir(Long idUsuario);
+	
+	/**
+	 * Id do usuário do token, vazio se o token for inválido, expirado ou revogado
+	 * */
+	Optional<Long> verificar(String token);
+	
+	void revogar(String token);
+	
+}
@@ -1,6 +1,7 @@
 package br.com.matheusramos.minhasfinancas.interfaces;
 
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 import br.com.matheusramos.minhasfinancas.model.entity.Usuario;
 
@@ -11,9 +12,18 @@ public interface UsuarioService {
 
 	Usuario autenticar(String email, String senha);
 	
+	/**
+	 * Confere a senha no pool do SenhaService, sem ocupar a thread da requisição durante o hash
+	 * */
+	CompletableFuture<Usuario> autenticarAssincrono(String email, String senha);
+	
 	Usuario salvarUsuario(Usuario usuario);
 	
 	void validarEmail(String email);
 	
 	Optional<Usuario> obterPorId(Long id);
+	
+	boolean existe(Long id);
+	
+	Usuario obterReferencia(Long id);
 }
@@ -0,0 +1,25 @@
+package br.com.matheusramos.minhasfinancas.interfaces;
+
+import java.util.function.Function;
+
+/**
+ * @author Matheus
+ * Versão do livro de lançamentos de cada usuário, gravada em saldo_usuario na mesma transação de qualquer gravação nos
+ * lançamentos ou no saldo do usuário. É a ETag das consultas do usuário, que respondem 304 sem consultar os dados
+ * enquanto ela não muda, e vale igual em todos os nós
+ * */
+public interface VersaoLivroService {
+
+	/**
+	 * ETag da versão atual, lida na transação em andamento; obtida antes da consulta, para que uma gravação confirmada
+	 * no meio apenas a torne antiga
+	 * */
+	String etag(Long idUsuario);
+	
+	/**
+	 * Lê a ETag e executa a consulta na mesma transação somente leitura, e portanto na mesma conexão: com réplicas,
+	 * a versão nunca vem de uma réplica mais adiantada que a dos dados
+	 * */
+	<T> T consultar(Long idUsuario, Function<String, T> consulta);
+	
+}
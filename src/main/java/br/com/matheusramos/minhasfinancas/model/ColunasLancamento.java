@@ -0,0 +1,15 @@
+package br.com.matheusramos.minhasfinancas.model;
+
+import br.com.matheusramos.minhasfinancas.enums.EnumStatusLancamento;
+import br.com.matheusramos.minhasfinancas.enums.EnumTipoLancamento;
+
+/**
+ * @author Matheus
+ * Recebe, um lançamento por vez, somente as colunas usadas nas análises, sem montar entidade nem DTO
+ * */
+@FunctionalInterface
+public interface ColunasLancamento {
+
+	void aceitar(long centavos, int ano, int mes, EnumTipoLancamento tipo, EnumStatusLancamento status);
+
+}
@@ -0,0 +1,41 @@
+package br.com.matheusramos.minhasfinancas.model;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import br.com.matheusramos.minhasfinancas.dtos.LancamentoDTO;
+import br.com.matheusramos.minhasfinancas.exceptions.RegraNegocioException;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * @author Matheus
+ * Posição do último lançamento de uma página, na ordenação (ano, mes, id), enviada ao cliente como token opaco
+ * */
+@Getter
+@AllArgsConstructor
+public class CursorLancamento {
+
+	private int ano;
+	private int mes;
+	private long id;
+	
+	public static CursorLancamento de(LancamentoDTO lancamento) {
+		return new CursorLancamento(lancamento.getAno(), lancamento.getMes(), lancamento.getId());
+	}
+	
+	public String codificar() {
+		String valor = ano + ":" + mes + ":" + id;
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(valor.getBytes(StandardCharsets.UTF_8));
+	}
+	
+	public static CursorLancamento decodificar(String token) {
+		try {
+			String[] partes = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split(":");
+			return new CursorLancamento(Integer.parseInt(partes[0]), Integer.parseInt(partes[1]), Long.parseLong(partes[2]));
+		} catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+			throw new RegraNegocioException("Informe um 'next' válido");
+		}
+	}
+	
+}
@@ -0,0 +1,13 @@
+package br.com.matheusramos.minhasfinancas.model;
+
+/**
+ * @author Matheus
+ * Projeção com o id e a descrição do lançamento, usada para montar o índice de busca por descrição
+ * */
+public interface DescricaoLancamento {
+
+	Long getId();
+	
+	String getDescricao();
+	
+}
@@ -0,0 +1,91 @@
+package br.com.matheusramos.minhasfinancas.model;
+
+import java.math.BigDecimal;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+/**
+ * @author Matheus
+ * Valor monetário em centavos num long. As colunas de valor são numeric(16,2), então qualquer valor gravado cabe
+ * em centavos, e as somas e subtrações são exatas, sem o BigDecimal (e o BigInteger) que cada operação do BigDecimal
+ * cria; um resultado fora do long lança ArithmeticException em vez de transbordar. No JSON é o mesmo número decimal
+ * com duas casas do BigDecimal
+ * */
+public final class Dinheiro implements Comparable<Dinheiro> {
+
+	public static final Dinheiro ZERO = new Dinheiro(0);
+
+	private static final int CASAS_DECIMAIS = 2;
+
+	private final long centavos;
+
+	private Dinheiro(long centavos) {
+		this.centavos = centavos;
+	}
+
+	public static Dinheiro deCentavos(long centavos) {
+		return centavos == 0 ? ZERO : new Dinheiro(centavos);
+	}
+
+	/**
+	 * Lança ArithmeticException para valores com mais de duas casas decimais ou fora do long
+	 * */
+	@JsonCreator
+	public static Dinheiro de(BigDecimal valor) {
+		if (valor == null) {
+			return null;
+		}
+		try {
+			return deCentavos(valor.movePointRight(CASAS_DECIMAIS).longValueExact());
+		} catch (ArithmeticException e) {
+			throw new ArithmeticException("Valor não representável em centavos: " + valor.toPlainString());
+		}
+	}
+
+	public long getCentavos() {
+		return centavos;
+	}
+
+	public Dinheiro somar(Dinheiro outro) {
+		return outro.centavos == 0 ? this : deCentavos(Math.addExact(centavos, outro.centavos));
+	}
+
+	public Dinheiro subtrair(Dinheiro outro) {
+		return outro.centavos == 0 ? this : deCentavos(Math.subtractExact(centavos, outro.centavos));
+	}
+
+	public Dinheiro negar() {
+		return deCentavos(Math.negateExact(centavos));
+	}
+
+	public int sinal() {
+		return Long.signum(centavos);
+	}
+
+	@JsonValue
+	public BigDecimal toBigDecimal() {
+		return BigDecimal.valueOf(centavos, CASAS_DECIMAIS);
+	}
+
+	@Override
+	public int compareTo(Dinheiro outro) {
+		return Long.compare(centavos, outro.centavos);
+	}
+
+	@Override
+	public boolean equals(Object objeto) {
+		return objeto instanceof Dinheiro && ((Dinheiro) objeto).centavos == centavos;
+	}
+
+	@Override
+	public int hashCode() {
+		return Long.hashCode(centavos);
+	}
+
+	@Override
+	public String toString() {
+		return toBigDecimal().toPlainString();
+	}
+
+}
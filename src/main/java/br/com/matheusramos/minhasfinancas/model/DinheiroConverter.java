@@ -0,0 +1,25 @@
+package br.com.matheusramos.minhasfinancas.model;
+
+import java.math.BigDecimal;
+
+import javax.persistence.AttributeConverter;
+import javax.persistence.Converter;
+
+/**
+ * @author Matheus
+ * Colunas numeric(16,2) lidas e gravadas como {@link Dinheiro}
+ * */
+@Converter
+public class DinheiroConverter implements AttributeConverter<Dinheiro, BigDecimal> {
+
+	@Override
+	public BigDecimal convertToDatabaseColumn(Dinheiro valor) {
+		return valor == null ? null : valor.toBigDecimal();
+	}
+
+	@Override
+	public Dinheiro convertToEntityAttribute(BigDecimal valor) {
+		return Dinheiro.de(valor);
+	}
+
+}
@@ -0,0 +1,52 @@
+package br.com.matheusramos.minhasfinancas.model;
+
+import java.math.BigDecimal;
+
+import br.com.matheusramos.minhasfinancas.enums.EnumStatusLancamento;
+import br.com.matheusramos.minhasfinancas.enums.EnumTipoLancamento;
+import br.com.matheusramos.minhasfinancas.model.entity.Lancamento;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * @author Matheus
+ * Valores de um lançamento que influenciam o saldo e o resumo mensal do usuário
+ * */
+@Getter
+@AllArgsConstructor
+public class SituacaoLancamento {
+
+	private Long idUsuario;
+	private Integer ano;
+	private Integer mes;
+	private EnumTipoLancamento tipo;
+	private EnumStatusLancamento status;
+	private BigDecimal valor;
+	
+	public static SituacaoLancamento de(Lancamento lancamento) {
+		if (lancamento == null || lancamento.getUsuario() == null) {
+			return null;
+		}
+		
+		return new SituacaoLancamento(lancamento.getUsuario().getId(), lancamento.getAno(), lancamento.getMes(), lancamento.getTipo(), lancamento.getStatus(), lancamento.getValor());
+	}
+	
+	/**
+	 * Valor com sinal que o lançamento soma ao saldo: somente lançamentos efetivados contam
+	 * */
+	public Dinheiro getContribuicaoSaldo() {
+		if (status != EnumStatusLancamento.EFETIVADO || valor == null || idUsuario == null) {
+			return Dinheiro.ZERO;
+		}
+		
+		return tipo == EnumTipoLancamento.DESPESA ? getTotal().negar() : getTotal();
+	}
+	
+	/**
+	 * Valor em centavos, como é somado no resumo mensal
+	 * */
+	public Dinheiro getTotal() {
+		return Dinheiro.de(valor);
+	}
+	
+}
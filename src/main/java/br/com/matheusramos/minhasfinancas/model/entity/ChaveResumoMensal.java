@@ -0,0 +1,49 @@
+package br.com.matheusramos.minhasfinancas.model.entity;
+
+import java.io.Serializable;
+
+import javax.persistence.Column;
+import javax.persistence.Embeddable;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+
+import br.com.matheusramos.minhasfinancas.enums.EnumStatusLancamento;
+import br.com.matheusramos.minhasfinancas.enums.EnumTipoLancamento;
+import br.com.matheusramos.minhasfinancas.model.SituacaoLancamento;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * @author Matheus
+ * */
+@Embeddable
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChaveResumoMensal implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	@Column(name = "id_usuario")
+	private Long idUsuario;
+	
+	@Column(name = "ano")
+	private Integer ano;
+	
+	@Column(name = "mes")
+	private Integer mes;
+	
+	@Column(name = "tipo")
+	@Enumerated(value = EnumType.STRING)
+	private EnumTipoLancamento tipo;
+	
+	@Column(name = "status")
+	@Enumerated(value = EnumType.STRING)
+	private EnumStatusLancamento status;
+	
+	public static ChaveResumoMensal de(SituacaoLancamento situacao) {
+		return new ChaveResumoMensal(situacao.getIdUsuario(), situacao.getAno(), situacao.getMes(), situacao.getTipo(), situacao.getStatus());
+	}
+	
+}
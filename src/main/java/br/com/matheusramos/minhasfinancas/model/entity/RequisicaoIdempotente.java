@@ -0,0 +1,52 @@
+package br.com.matheusramos.minhasfinancas.model.entity;
+
+import java.time.Instant;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * @author Matheus
+ * Requisição recebida com Idempotency-Key: a impressão (hash da operação e do corpo) e, depois de concluída,
+ * o status e o corpo da primeira resposta
+ * */
+@Entity
+@Table(name = "requisicao_idempotente", schema = "financas")
+@Builder
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RequisicaoIdempotente {
+
+	@Id
+	@Column(name = "chave")
+	private String chave;
+	
+	@Column(name = "impressao")
+	private String impressao;
+	
+	@Column(name = "status")
+	private Integer status;
+	
+	@Column(name = "corpo")
+	private String corpo;
+	
+	@Column(name = "expira_em")
+	private Instant expiraEm;
+	
+	public boolean concluida() {
+		return status != null;
+	}
+	
+	public boolean expirada(Instant agora) {
+		return !expiraEm.isAfter(agora);
+	}
+	
+}
@@ -0,0 +1,33 @@
+package br.com.matheusramos.minhasfinancas.model.entity;
+
+import javax.persistence.Column;
+import javax.persistence.Convert;
+import javax.persistence.EmbeddedId;
+import javax.persistence.Entity;
+import javax.persistence.Table;
+
+import br.com.matheusramos.minhasfinancas.model.Dinheiro;
+import br.com.matheusramos.minhasfinancas.model.DinheiroConverter;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * @author Matheus
+ * Total dos lançamentos de um usuário em um mês, por tipo e status, mantido na mesma transação das escritas de lançamento
+ * */
+@Entity
+@Table(name = "resumo_mensal", schema = "financas")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResumoMensal {
+
+	@EmbeddedId
+	private ChaveResumoMensal chave;
+	
+	@Column(name = "total")
+	@Convert(converter = DinheiroConverter.class)
+	private Dinheiro total;
+	
+}
@@ -0,0 +1,39 @@
+package br.com.matheusramos.minhasfinancas.model.entity;
+
+import javax.persistence.Column;
+import javax.persistence.Convert;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+import br.com.matheusramos.minhasfinancas.model.Dinheiro;
+import br.com.matheusramos.minhasfinancas.model.DinheiroConverter;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * @author Matheus
+ * Saldo consolidado do usuário, mantido na mesma transação das escritas de lançamento
+ * */
+@Entity
+@Table(name = "saldo_usuario", schema = "financas")
+@Builder
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SaldoUsuario {
+
+	@Id
+	@Column(name = "id_usuario")
+	private Long idUsuario;
+	
+	@Column(name = "saldo")
+	@Convert(converter = DinheiroConverter.class)
+	private Dinheiro saldo;
+	
+	@Column(name = "versao")
+	private Long versao;
+	
+}
@@ -0,0 +1,104 @@
+package br.com.matheusramos.minhasfinancas.repositories;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.BiFunction;
+
+import org.springframework.stereotype.Repository;
+
+import br.com.matheusramos.minhasfinancas.dtos.LancamentoDTO;
+import br.com.matheusramos.minhasfinancas.model.entity.Lancamento;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+import io.r2dbc.spi.Statement;
+import lombok.RequiredArgsConstructor;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * @author Matheus
+ * Leituras não bloqueantes via R2DBC. Cada consulta obtém uma conexão do pool ao ser assinada e a devolve ao terminar
+ * ou ao ser cancelada; as linhas são emitidas conforme a demanda de quem assina
+ * */
+@Repository
+@RequiredArgsConstructor
+public class ConsultaReativaRepository {
+
+	private static final int TAMANHO_LOTE_LEITURA = 500;
+
+	private static final String COLUNAS_LANCAMENTO = "select id, descricao, mes, ano, valor, id_usuario, tipo, status from financas.lancamento ";
+
+	private final ConnectionFactory connectionFactory;
+
+	public Mono<Boolean> existeUsuario(Long idUsuario) {
+		return consultar("select 1 from financas.usuario where id = $1", (row, metadata) -> Boolean.TRUE, idUsuario)
+				.next()
+				.defaultIfEmpty(Boolean.FALSE);
+	}
+
+	/**
+	 * Vazio quando o usuário não existe; sem saldo consolidado, zero
+	 * */
+	public Mono<BigDecimal> obterSaldo(Long idUsuario) {
+		return consultar("select s.saldo from financas.usuario u left join financas.saldo_usuario s on s.id_usuario = u.id where u.id = $1",
+				(row, metadata) -> Optional.ofNullable(row.get(0, BigDecimal.class)), idUsuario)
+				.next()
+				.map(saldo -> saldo.orElse(BigDecimal.ZERO));
+	}
+
+	public Mono<LancamentoDTO> obterLancamento(Long id) {
+		return consultar(COLUNAS_LANCAMENTO + "where id = $1", ConsultaReativaRepository::converter, id).next();
+	}
+
+	/**
+	 * Mesmos filtros de usuário, mês e ano e mesma ordenação de {@link LancamentoRepositoryCustom#listar(Lancamento)}.
+	 * A busca por descrição não é feita aqui: ela usa o índice do BuscaDescricaoService, disponível somente em /api/lancamentos
+	 * */
+	public Flux<LancamentoDTO> listar(Lancamento filtro) {
+		StringBuilder sql = new StringBuilder(COLUNAS_LANCAMENTO).append("where id_usuario = $1");
+		List<Object> parametros = new ArrayList<>();
+		parametros.add(filtro.getUsuario().getId());
+
+		if (filtro.getMes() != null) {
+			parametros.add(filtro.getMes());
+			sql.append(" and mes = $").append(parametros.size());
+		}
+
+		if (filtro.getAno() != null) {
+			parametros.add(filtro.getAno());
+			sql.append(" and ano = $").append(parametros.size());
+		}
+
+		sql.append(" order by ano, mes, id");
+		return consultar(sql.toString(), ConsultaReativaRepository::converter, parametros.toArray())
+				.limitRate(TAMANHO_LOTE_LEITURA);
+	}
+
+	private <T> Flux<T> consultar(String sql, BiFunction<Row, RowMetadata, T> conversor, Object... parametros) {
+		return Flux.usingWhen(connectionFactory.create(), conexao -> {
+			Statement comando = conexao.createStatement(sql);
+			for (int i = 0; i < parametros.length; i++) {
+				comando.bind(i, parametros[i]);
+			}
+			return Flux.from(comando.execute()).concatMap(resultado -> resultado.map(conversor));
+		}, Connection::close);
+	}
+
+	private static LancamentoDTO converter(Row row, RowMetadata metadata) {
+		return LancamentoDTO.builder()
+				.id(row.get(0, Long.class))
+				.descricao(row.get(1, String.class))
+				.mes(row.get(2, Integer.class))
+				.ano(row.get(3, Integer.class))
+				.valor(row.get(4, BigDecimal.class))
+				.usuario(row.get(5, Long.class))
+				.tipo(row.get(6, String.class))
+				.status(row.get(7, String.class))
+				.build();
+	}
+
+}
@@ -1,19 +1,29 @@
 package br.com.matheusramos.minhasfinancas.repositories;
 
 import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import javax.persistence.QueryHint;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
+import br.com.matheusramos.minhasfinancas.dtos.LancamentoDTO;
 import br.com.matheusramos.minhasfinancas.enums.EnumStatusLancamento;
 import br.com.matheusramos.minhasfinancas.enums.EnumTipoLancamento;
+import br.com.matheusramos.minhasfinancas.model.DescricaoLancamento;
+import br.com.matheusramos.minhasfinancas.model.SituacaoLancamento;
 import br.com.matheusramos.minhasfinancas.model.entity.Lancamento;
 
 /**
  * @author Matheus
  */
-public interface LancamentoRepository extends JpaRepository<Lancamento, Long> {
+public interface LancamentoRepository extends JpaRepository<Lancamento, Long>, LancamentoRepositoryCustom {
 	
 	@Query(value = "select sum(l.valor) from Lancamento l join l.usuario u where u.id = :idUsuario and l.tipo = :tipoLancamento and l.status = :status group by u")
 	BigDecimal obterSaldoPorTipoLancamentoEUsuarioEStatus(
@@ -21,4 +31,50 @@ public interface LancamentoRepository extends JpaRepository<Lancamento, Long> {
 			@Param("tipoLancamento") EnumTipoLancamento tipoLancamento,
 			@Param("status") EnumStatusLancamento satus);
 	
+	@Query(value = "select new br.com.matheusramos.minhasfinancas.dtos.LancamentoDTO(l.id, l.descricao, l.mes, l.ano, l.valor, l.usuario.id, l.tipo, l.status, l.versao) "
+			+ "from Lancamento l where l.id = :id")
+	Optional<LancamentoDTO> obterDTOPorId(@Param("id") Long id);
+	
+	/**
+	 * Lê a situação gravada na base, sem flush das alterações pendentes da entidade em memória,
+	 * para calcular a diferença de saldo de uma atualização
+	 * */
+	@QueryHints(@QueryHint(name = "org.hibernate.flushMode", value = "COMMIT"))
+	@Query(value = "select new br.com.matheusramos.minhasfinancas.model.SituacaoLancamento(l.usuario.id, l.ano, l.mes, l.tipo, l.status, l.valor) from Lancamento l where l.id = :id")
+	Optional<SituacaoLancamento> obterSituacao(@Param("id") Long id);
+	
+	@Query(value = "select l.id as id, l.descricao as descricao from Lancamento l where l.usuario.id = :idUsuario")
+	List<DescricaoLancamento> obterDescricoesPorUsuario(@Param("idUsuario") Long idUsuario);
+	
+	@Query(value = "select l.id from Lancamento l where l.id in :ids and l.status = :status")
+	List<Long> obterIdsPorStatus(@Param("ids") Collection<Long> ids, @Param("status") EnumStatusLancamento status);
+	
+	@Query(value = "select case when count(l) > 0 then true else false end from Lancamento l where l.id in :ids and l.usuario.id <> :idUsuario")
+	boolean existeDeOutroUsuario(@Param("ids") Collection<Long> ids, @Param("idUsuario") Long idUsuario);
+	
+	@Query(value = "select l.id from Lancamento l where l.usuario.id = :idUsuario and l.ano = :ano and l.mes = :mes and l.status = :status")
+	List<Long> obterIdsPorUsuarioEMesEStatus(
+			@Param("idUsuario") Long idUsuario, 
+			@Param("ano") Integer ano, 
+			@Param("mes") Integer mes, 
+			@Param("status") EnumStatusLancamento status);
+	
+	/**
+	 * Total dos lançamentos informados agrupado por usuário, mês e tipo, para calcular a diferença de saldo e do resumo mensal
+	 * de uma atualização em lote
+	 * */
+	@Query(value = "select new br.com.matheusramos.minhasfinancas.model.SituacaoLancamento(l.usuario.id, l.ano, l.mes, l.tipo, l.status, sum(l.valor)) "
+			+ "from Lancamento l where l.id in :ids and l.status = :status group by l.usuario.id, l.ano, l.mes, l.tipo, l.status")
+	List<SituacaoLancamento> somarPorUsuarioEMesETipo(@Param("ids") Collection<Long> ids, @Param("status") EnumStatusLancamento status);
+	
+	/**
+	 * Update em lote não passa pelo @Version da entidade, então a versão é incrementada aqui
+	 * */
+	@Modifying
+	@Query(value = "update Lancamento l set l.status = :novoStatus, l.versao = l.versao + 1 where l.id in :ids and l.status = :statusEsperado")
+	int atualizarStatus(
+			@Param("ids") Collection<Long> ids, 
+			@Param("statusEsperado") EnumStatusLancamento statusEsperado, 
+			@Param("novoStatus") EnumStatusLancamento novoStatus);
+	
 }
@@ -0,0 +1,54 @@
+package br.com.matheusramos.minhasfinancas.repositories;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+
+import br.com.matheusramos.minhasfinancas.dtos.LancamentoDTO;
+import br.com.matheusramos.minhasfinancas.model.ColunasLancamento;
+import br.com.matheusramos.minhasfinancas.model.CursorLancamento;
+import br.com.matheusramos.minhasfinancas.model.entity.Lancamento;
+
+/**
+ * @author Matheus
+ * Consultas de lançamento montadas com Criteria, implementadas em {@link LancamentoRepositoryImpl}
+ */
+public interface LancamentoRepositoryCustom {
+
+	/**
+	 * Lista os lançamentos do usuário do filtro já projetados no DTO, em um único select sem carregar entidades
+	 * */
+	List<LancamentoDTO> listar(Lancamento filtro);
+	
+	/**
+	 * Lista, entre os ids informados, os lançamentos que atendem ao usuário, mês e ano do filtro.
+	 * A descrição do filtro é ignorada, pois os ids já vêm da busca por descrição
+	 * */
+	List<LancamentoDTO> listarPorIds(Lancamento filtro, Collection<Long> ids);
+	
+	/**
+	 * Busca até 'limite' lançamentos do usuário do filtro posicionados depois do cursor (keyset),
+	 * ordenados por (ano, mes, id), sem OFFSET e sem consulta de contagem
+	 * */
+	List<LancamentoDTO> buscarPagina(Lancamento filtro, CursorLancamento cursor, int limite, boolean decrescente);
+	
+	/**
+	 * Percorre todos os lançamentos do usuário com um cursor somente de avanço. Os registros são projetados
+	 * no DTO, sem entidades no contexto de persistência, para que a memória não cresça com o tamanho do histórico.
+	 * Deve ser chamado dentro de uma transação
+	 * */
+	void percorrerPorUsuario(Long idUsuario, Consumer<LancamentoDTO> consumidor);
+	
+	/**
+	 * Percorre, ordenados por ano e mês, somente o valor em centavos, o período, o tipo e o status dos lançamentos
+	 * do usuário, lidos direto do JDBC sem entidades nem DTOs
+	 * */
+	void percorrerColunasPorUsuario(Long idUsuario, ColunasLancamento consumidor);
+	
+	/**
+	 * Insere os lançamentos em lotes JDBC, sem passar pelo contexto de persistência
+	 * (a geração de id IDENTITY impede o Hibernate de agrupar os inserts)
+	 * */
+	void inserirEmLote(List<Lancamento> lancamentos);
+	
+}
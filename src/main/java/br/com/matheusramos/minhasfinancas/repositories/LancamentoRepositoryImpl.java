@@ -0,0 +1,172 @@
+package br.com.matheusramos.minhasfinancas.repositories;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Order;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Selection;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import br.com.matheusramos.minhasfinancas.dtos.LancamentoDTO;
+import br.com.matheusramos.minhasfinancas.enums.EnumStatusLancamento;
+import br.com.matheusramos.minhasfinancas.enums.EnumTipoLancamento;
+import br.com.matheusramos.minhasfinancas.model.ColunasLancamento;
+import br.com.matheusramos.minhasfinancas.model.CursorLancamento;
+import br.com.matheusramos.minhasfinancas.model.entity.Lancamento;
+
+/**
+ * @author Matheus
+ */
+public class LancamentoRepositoryImpl implements LancamentoRepositoryCustom {
+
+	private static final int TAMANHO_LOTE_LEITURA = 500;
+	private static final int TAMANHO_LOTE_ESCRITA = 500;
+	
+	private static final String INSERIR_LANCAMENTO = "insert into financas.lancamento "
+			+ "(descricao, mes, ano, valor, tipo, status, id_usuario, data_cadastro) values (?, ?, ?, ?, ?, ?, ?, ?)";
+	
+	// valor tem duas casas decimais, então valor * 100 é inteiro e chega como long sem passar por BigDecimal
+	private static final String COLUNAS_POR_USUARIO = "select cast(valor * 100 as bigint), ano, mes, tipo, status "
+			+ "from financas.lancamento where id_usuario = ? order by ano, mes";
+	
+	@PersistenceContext
+	private EntityManager em;
+	
+	private final JdbcTemplate jdbcTemplate;
+	
+	public LancamentoRepositoryImpl(JdbcTemplate jdbcTemplate) {
+		this.jdbcTemplate = jdbcTemplate;
+	}
+	
+	@Override
+	public List<LancamentoDTO> listar(Lancamento filtro) {
+		CriteriaBuilder cb = em.getCriteriaBuilder();
+		CriteriaQuery<LancamentoDTO> query = cb.createQuery(LancamentoDTO.class);
+		Root<Lancamento> root = query.from(Lancamento.class);
+		
+		query.select(projetar(cb, root))
+				.where(filtrar(cb, root, filtro).toArray(new Predicate[0]))
+				.orderBy(cb.asc(root.get("ano")), cb.asc(root.get("mes")), cb.asc(root.get("id")));
+		return em.createQuery(query).getResultList();
+	}
+	
+	@Override
+	public List<LancamentoDTO> listarPorIds(Lancamento filtro, Collection<Long> ids) {
+		CriteriaBuilder cb = em.getCriteriaBuilder();
+		CriteriaQuery<LancamentoDTO> query = cb.createQuery(LancamentoDTO.class);
+		Root<Lancamento> root = query.from(Lancamento.class);
+		
+		Lancamento semDescricao = Lancamento.builder().usuario(filtro.getUsuario()).mes(filtro.getMes()).ano(filtro.getAno()).build();
+		List<Predicate> predicados = filtrar(cb, root, semDescricao);
+		predicados.add(root.get("id").in(ids));
+		
+		query.select(projetar(cb, root)).where(predicados.toArray(new Predicate[0]));
+		return em.createQuery(query).getResultList();
+	}
+	
+	@Override
+	public List<LancamentoDTO> buscarPagina(Lancamento filtro, CursorLancamento cursor, int limite, boolean decrescente) {
+		CriteriaBuilder cb = em.getCriteriaBuilder();
+		CriteriaQuery<LancamentoDTO> query = cb.createQuery(LancamentoDTO.class);
+		Root<Lancamento> root = query.from(Lancamento.class);
+		
+		Path<Integer> ano = root.get("ano");
+		Path<Integer> mes = root.get("mes");
+		Path<Long> id = root.get("id");
+		
+		List<Predicate> predicados = filtrar(cb, root, filtro);
+		if (cursor != null) {
+			predicados.add(decrescente 
+					? cb.or(cb.lessThan(ano, cursor.getAno()), cb.and(cb.equal(ano, cursor.getAno()), 
+							cb.or(cb.lessThan(mes, cursor.getMes()), cb.and(cb.equal(mes, cursor.getMes()), cb.lessThan(id, cursor.getId())))))
+					: cb.or(cb.greaterThan(ano, cursor.getAno()), cb.and(cb.equal(ano, cursor.getAno()), 
+							cb.or(cb.greaterThan(mes, cursor.getMes()), cb.and(cb.equal(mes, cursor.getMes()), cb.greaterThan(id, cursor.getId()))))));
+		}
+		
+		List<Order> ordem = new ArrayList<>();
+		for (Path<?> campo : new Path<?>[] { ano, mes, id }) {
+			ordem.add(decrescente ? cb.desc(campo) : cb.asc(campo));
+		}
+		
+		query.select(projetar(cb, root)).where(predicados.toArray(new Predicate[0])).orderBy(ordem);
+		return em.createQuery(query).setMaxResults(limite).getResultList();
+	}
+	
+	@Override
+	public void percorrerPorUsuario(Long idUsuario, Consumer<LancamentoDTO> consumidor) {
+		try (Stream<LancamentoDTO> lancamentos = em
+				.createQuery("select new br.com.matheusramos.minhasfinancas.dtos.LancamentoDTO(l.id, l.descricao, l.mes, l.ano, l.valor, l.usuario.id, l.tipo, l.status) "
+						+ "from Lancamento l where l.usuario.id = :idUsuario order by l.ano, l.mes, l.id", LancamentoDTO.class)
+				.setParameter("idUsuario", idUsuario)
+				.setHint("org.hibernate.fetchSize", TAMANHO_LOTE_LEITURA)
+				.getResultStream()) {
+			lancamentos.forEach(consumidor);
+		}
+	}
+	
+	@Override
+	public void percorrerColunasPorUsuario(Long idUsuario, ColunasLancamento consumidor) {
+		jdbcTemplate.query(conexao -> {
+			PreparedStatement ps = conexao.prepareStatement(COLUNAS_POR_USUARIO);
+			ps.setLong(1, idUsuario);
+			ps.setFetchSize(TAMANHO_LOTE_LEITURA);
+			return ps;
+		}, (RowCallbackHandler) rs -> consumidor.aceitar(rs.getLong(1), rs.getInt(2), rs.getInt(3),
+				EnumTipoLancamento.valueOf(rs.getString(4)), EnumStatusLancamento.valueOf(rs.getString(5))));
+	}
+	
+	@Override
+	public void inserirEmLote(List<Lancamento> lancamentos) {
+		jdbcTemplate.batchUpdate(INSERIR_LANCAMENTO, lancamentos, TAMANHO_LOTE_ESCRITA, (ps, lancamento) -> {
+			LocalDate dataCadastro = lancamento.getDataCadastro() != null ? lancamento.getDataCadastro() : LocalDate.now();
+			ps.setString(1, lancamento.getDescricao());
+			ps.setInt(2, lancamento.getMes());
+			ps.setInt(3, lancamento.getAno());
+			ps.setBigDecimal(4, lancamento.getValor());
+			ps.setString(5, lancamento.getTipo().name());
+			ps.setString(6, lancamento.getStatus().name());
+			ps.setLong(7, lancamento.getUsuario().getId());
+			ps.setDate(8, Date.valueOf(dataCadastro));
+		});
+	}
+	
+	private Selection<LancamentoDTO> projetar(CriteriaBuilder cb, Root<Lancamento> root) {
+		return cb.construct(LancamentoDTO.class, root.get("id"), root.get("descricao"), root.get("mes"), root.get("ano"),
+				root.get("valor"), root.get("usuario").get("id"), root.get("tipo"), root.get("status"));
+	}
+	
+	private List<Predicate> filtrar(CriteriaBuilder cb, Root<Lancamento> root, Lancamento filtro) {
+		List<Predicate> predicados = new ArrayList<>();
+		predicados.add(cb.equal(root.get("usuario").get("id"), filtro.getUsuario().getId()));
+		
+		if (filtro.getDescricao() != null && !filtro.getDescricao().trim().isEmpty()) {
+			predicados.add(cb.like(cb.lower(root.get("descricao")), "%" + filtro.getDescricao().trim().toLowerCase() + "%"));
+		}
+		
+		if (filtro.getMes() != null) {
+			predicados.add(cb.equal(root.get("mes"), filtro.getMes()));
+		}
+		
+		if (filtro.getAno() != null) {
+			predicados.add(cb.equal(root.get("ano"), filtro.getAno()));
+		}
+		
+		return predicados;
+	}
+	
+}
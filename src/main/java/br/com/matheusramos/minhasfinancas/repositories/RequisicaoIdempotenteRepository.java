@@ -0,0 +1,42 @@
+package br.com.matheusramos.minhasfinancas.repositories;
+
+import java.time.Instant;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import br.com.matheusramos.minhasfinancas.model.entity.RequisicaoIdempotente;
+
+/**
+ * @author Matheus
+ * */
+public interface RequisicaoIdempotenteRepository extends JpaRepository<RequisicaoIdempotente, String> {
+
+	/**
+	 * Insert direto, sem a consulta prévia que o save faria por a chave ser atribuída; falha com a chave já existente
+	 * */
+	@Modifying
+	@Query(value = "insert into financas.requisicao_idempotente (chave, impressao, expira_em) "
+			+ "values (:chave, :impressao, :expiraEm)", nativeQuery = true)
+	void inserir(@Param("chave") String chave, @Param("impressao") String impressao, @Param("expiraEm") Instant expiraEm);
+	
+	@Modifying
+	@Query(value = "update RequisicaoIdempotente r set r.status = :status, r.corpo = :corpo, r.expiraEm = :expiraEm where r.chave = :chave")
+	int concluir(@Param("chave") String chave, @Param("status") Integer status, @Param("corpo") String corpo,
+			@Param("expiraEm") Instant expiraEm);
+	
+	@Modifying
+	@Query(value = "delete from RequisicaoIdempotente r where r.chave = :chave")
+	int apagar(@Param("chave") String chave);
+	
+	@Modifying
+	@Query(value = "delete from RequisicaoIdempotente r where r.chave = :chave and r.expiraEm <= :agora")
+	int apagarExpirada(@Param("chave") String chave, @Param("agora") Instant agora);
+	
+	@Modifying
+	@Query(value = "delete from RequisicaoIdempotente r where r.expiraEm <= :agora")
+	int apagarExpiradas(@Param("agora") Instant agora);
+	
+}
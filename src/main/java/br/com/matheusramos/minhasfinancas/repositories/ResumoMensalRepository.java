@@ -0,0 +1,34 @@
+package br.com.matheusramos.minhasfinancas.repositories;
+
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import br.com.matheusramos.minhasfinancas.model.entity.ChaveResumoMensal;
+import br.com.matheusramos.minhasfinancas.model.entity.ResumoMensal;
+
+/**
+ * @author Matheus
+ * */
+public interface ResumoMensalRepository extends JpaRepository<ResumoMensal, ChaveResumoMensal>, ResumoMensalRepositoryCustom {
+
+	/**
+	 * Leitura pelo prefixo (id_usuario, ano) da chave primária
+	 * */
+	@Query(value = "select r from ResumoMensal r where r.chave.idUsuario = :idUsuario and r.chave.ano = :ano")
+	List<ResumoMensal> obterPorUsuarioEAno(@Param("idUsuario") Long idUsuario, @Param("ano") Integer ano);
+	
+	@Modifying
+	@Query(value = "delete from financas.resumo_mensal", nativeQuery = true)
+	void apagarResumos();
+	
+	@Modifying
+	@Query(value = "insert into financas.resumo_mensal (id_usuario, ano, mes, tipo, status, total) "
+			+ "select id_usuario, ano, mes, tipo, status, coalesce(sum(valor), 0) from financas.lancamento "
+			+ "group by id_usuario, ano, mes, tipo, status", nativeQuery = true)
+	int recalcularResumos();
+	
+}
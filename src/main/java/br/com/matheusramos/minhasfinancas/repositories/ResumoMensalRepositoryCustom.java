@@ -0,0 +1,17 @@
+package br.com.matheusramos.minhasfinancas.repositories;
+
+import br.com.matheusramos.minhasfinancas.model.Dinheiro;
+import br.com.matheusramos.minhasfinancas.model.entity.ChaveResumoMensal;
+
+/**
+ * @author Matheus
+ * Escritas do resumo mensal que dependem do banco, implementadas em {@link ResumoMensalRepositoryImpl}
+ */
+public interface ResumoMensalRepositoryCustom {
+
+	/**
+	 * Soma o valor ao total da chave, criando a linha do mês, tipo e status se ela ainda não existe, em um único comando
+	 * */
+	void somarTotal(ChaveResumoMensal chave, Dinheiro valor);
+	
+}
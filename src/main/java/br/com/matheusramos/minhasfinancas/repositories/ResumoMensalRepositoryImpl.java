@@ -0,0 +1,51 @@
+package br.com.matheusramos.minhasfinancas.repositories;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import org.springframework.beans.factory.annotation.Value;
+
+import br.com.matheusramos.minhasfinancas.model.Dinheiro;
+import br.com.matheusramos.minhasfinancas.model.entity.ChaveResumoMensal;
+
+/**
+ * @author Matheus
+ * Upsert com ON CONFLICT no PostgreSQL e MERGE no H2, como o de {@link SaldoUsuarioRepositoryImpl}: dois lançamentos
+ * concorrentes no mesmo mês, tipo e status não tentam mais inserir a mesma linha
+ */
+public class ResumoMensalRepositoryImpl implements ResumoMensalRepositoryCustom {
+
+	private static final String SOMAR_POSTGRES = "insert into financas.resumo_mensal as r (id_usuario, ano, mes, tipo, status, total) "
+			+ "values (?1, ?2, ?3, ?4, ?5, ?6) "
+			+ "on conflict (id_usuario, ano, mes, tipo, status) do update set total = r.total + excluded.total";
+	
+	private static final String SOMAR_H2 = "merge into financas.resumo_mensal r "
+			+ "using (select cast(?1 as bigint) id_usuario, cast(?2 as integer) ano, cast(?3 as integer) mes, "
+			+ "cast(?4 as varchar(20)) tipo, cast(?5 as varchar(20)) status, cast(?6 as numeric(16,2)) total) v "
+			+ "on r.id_usuario = v.id_usuario and r.ano = v.ano and r.mes = v.mes and r.tipo = v.tipo and r.status = v.status "
+			+ "when matched then update set r.total = r.total + v.total "
+			+ "when not matched then insert (id_usuario, ano, mes, tipo, status, total) "
+			+ "values (v.id_usuario, v.ano, v.mes, v.tipo, v.status, v.total)";
+	
+	@PersistenceContext
+	private EntityManager em;
+	
+	private final String somar;
+	
+	public ResumoMensalRepositoryImpl(@Value("${spring.datasource.url}") String url) {
+		this.somar = url.startsWith("jdbc:postgresql:") ? SOMAR_POSTGRES : SOMAR_H2;
+	}
+	
+	@Override
+	public void somarTotal(ChaveResumoMensal chave, Dinheiro valor) {
+		em.createNativeQuery(somar)
+				.setParameter(1, chave.getIdUsuario())
+				.setParameter(2, chave.getAno())
+				.setParameter(3, chave.getMes())
+				.setParameter(4, chave.getTipo().name())
+				.setParameter(5, chave.getStatus().name())
+				.setParameter(6, valor.toBigDecimal())
+				.executeUpdate();
+	}
+	
+}
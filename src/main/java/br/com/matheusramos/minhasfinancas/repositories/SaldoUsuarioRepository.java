@@ -0,0 +1,31 @@
+package br.com.matheusramos.minhasfinancas.repositories;
+
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import br.com.matheusramos.minhasfinancas.model.entity.SaldoUsuario;
+
+/**
+ * @author Matheus
+ * */
+public interface SaldoUsuarioRepository extends JpaRepository<SaldoUsuario, Long>, SaldoUsuarioRepositoryCustom {
+
+	@Modifying
+	@Query(value = "delete from financas.saldo_usuario", nativeQuery = true)
+	void apagarSaldos();
+	
+	@Modifying
+	@Query(value = "insert into financas.saldo_usuario (id_usuario, saldo, versao) "
+			+ "select u.id, coalesce(sum(case when l.tipo = 'RECEITA' then l.valor else -l.valor end), 0), nextval('financas.versao_livro') "
+			+ "from financas.usuario u left join financas.lancamento l on l.id_usuario = u.id and l.status = 'EFETIVADO' "
+			+ "group by u.id", nativeQuery = true)
+	int recalcularSaldos();
+	
+	@Query(value = "select s.versao from SaldoUsuario s where s.idUsuario = :idUsuario")
+	Optional<Long> obterVersao(@Param("idUsuario") Long idUsuario);
+	
+}
@@ -0,0 +1,17 @@
+package br.com.matheusramos.minhasfinancas.repositories;
+
+import br.com.matheusramos.minhasfinancas.model.Dinheiro;
+
+/**
+ * @author Matheus
+ * Escritas do saldo que dependem do banco, implementadas em {@link SaldoUsuarioRepositoryImpl}
+ */
+public interface SaldoUsuarioRepositoryCustom {
+
+	/**
+	 * Soma o valor ao saldo do usuário e muda a versão do livro, criando a linha do usuário se ela ainda não existe,
+	 * em um único comando. Com valor zero apenas muda a versão
+	 * */
+	void somarSaldo(Long idUsuario, Dinheiro valor);
+	
+}
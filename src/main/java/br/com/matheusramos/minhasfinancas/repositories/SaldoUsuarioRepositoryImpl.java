@@ -0,0 +1,40 @@
+package br.com.matheusramos.minhasfinancas.repositories;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import org.springframework.beans.factory.annotation.Value;
+
+import br.com.matheusramos.minhasfinancas.model.Dinheiro;
+
+/**
+ * @author Matheus
+ * Upsert com ON CONFLICT no PostgreSQL e MERGE no H2, que também leva a versão do livro ao próximo valor da sequência. Com update seguido de insert quando nenhuma linha era alterada,
+ * duas transações sem a linha do usuário inseriam a mesma chave e uma delas falhava
+ */
+public class SaldoUsuarioRepositoryImpl implements SaldoUsuarioRepositoryCustom {
+
+	private static final String SOMAR_POSTGRES = "insert into financas.saldo_usuario as s (id_usuario, saldo, versao) "
+			+ "values (?1, ?2, nextval('financas.versao_livro')) "
+			+ "on conflict (id_usuario) do update set saldo = s.saldo + excluded.saldo, versao = excluded.versao";
+	
+	private static final String SOMAR_H2 = "merge into financas.saldo_usuario s "
+			+ "using (select cast(?1 as bigint) id_usuario, cast(?2 as numeric(16,2)) saldo) v on s.id_usuario = v.id_usuario "
+			+ "when matched then update set s.saldo = s.saldo + v.saldo, s.versao = nextval('financas.versao_livro') "
+			+ "when not matched then insert (id_usuario, saldo, versao) values (v.id_usuario, v.saldo, nextval('financas.versao_livro'))";
+	
+	@PersistenceContext
+	private EntityManager em;
+	
+	private final String somar;
+	
+	public SaldoUsuarioRepositoryImpl(@Value("${spring.datasource.url}") String url) {
+		this.somar = url.startsWith("jdbc:postgresql:") ? SOMAR_POSTGRES : SOMAR_H2;
+	}
+	
+	@Override
+	public void somarSaldo(Long idUsuario, Dinheiro valor) {
+		em.createNativeQuery(somar).setParameter(1, idUsuario).setParameter(2, valor.toBigDecimal()).executeUpdate();
+	}
+	
+}
@@ -3,6 +3,10 @@ package br.com.matheusramos.minhasfinancas.repositories;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import br.com.matheusramos.minhasfinancas.model.entity.Usuario;
 
@@ -15,4 +19,12 @@ public interface UsuarioRepository extends JpaRepository<Usuario, Long> {
 
 	Optional<Usuario> findByEmail(String email);
 	
+	/**
+	 * Troca a senha somente se ela ainda for a lida no login, sem sobrescrever uma alteração concorrente
+	 * */
+	@Transactional
+	@Modifying
+	@Query(value = "update Usuario u set u.senha = :novaSenha where u.id = :id and u.senha = :senhaAnterior")
+	int atualizarSenha(@Param("id") Long id, @Param("senhaAnterior") String senhaAnterior, @Param("novaSenha") String novaSenha);
+	
 }
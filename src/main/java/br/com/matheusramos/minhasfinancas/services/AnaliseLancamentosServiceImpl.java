@@ -0,0 +1,175 @@
+package br.com.matheusramos.minhasfinancas.services;
+
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import br.com.matheusramos.minhasfinancas.dtos.ComposicaoLancamentosDTO;
+import br.com.matheusramos.minhasfinancas.dtos.TotalPeriodoDTO;
+import br.com.matheusramos.minhasfinancas.enums.EnumStatusLancamento;
+import br.com.matheusramos.minhasfinancas.enums.EnumTipoLancamento;
+import br.com.matheusramos.minhasfinancas.exceptions.RegraNegocioException;
+import br.com.matheusramos.minhasfinancas.interfaces.AnaliseLancamentosService;
+import br.com.matheusramos.minhasfinancas.interfaces.VersaoLivroService;
+import br.com.matheusramos.minhasfinancas.model.Dinheiro;
+import br.com.matheusramos.minhasfinancas.repositories.LancamentoRepository;
+
+/**
+ * @author Matheus
+ * Responde as análises somando o {@link LivroColunar} do usuário, montado na primeira análise e guardado com a versão
+ * do livro lida antes da consulta. Qualquer gravação do usuário altera a versão e o próximo acesso monta outro.
+ * Somente os usuários usados mais recentemente ficam em memória
+ * */
+@Service
+public class AnaliseLancamentosServiceImpl implements AnaliseLancamentosService {
+
+	private static final int MAXIMO_MESES = 1200;
+
+	private final LancamentoRepository repository;
+	private final VersaoLivroService versaoLivroService;
+	private final Map<Long, Livro> livros;
+
+	public AnaliseLancamentosServiceImpl(LancamentoRepository repository, VersaoLivroService versaoLivroService,
+			@Value("${minhasfinancas.analise.maximo-usuarios:1000}") int maximoUsuarios) {
+		this.repository = repository;
+		this.versaoLivroService = versaoLivroService;
+		this.livros = Collections.synchronizedMap(new LinkedHashMap<Long, Livro>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Long, Livro> eldest) {
+				return size() > maximoUsuarios;
+			}
+		});
+	}
+
+	@Override
+	@Transactional(readOnly = true, noRollbackFor = RegraNegocioException.class)
+	public List<TotalPeriodoDTO> obterTendencia(Long idUsuario, YearMonth inicio, YearMonth fim) {
+		int periodoInicial = validarPeriodo(inicio, fim);
+		int meses = LivroColunar.periodo(fim.getYear(), fim.getMonthValue()) - periodoInicial + 1;
+
+		long[] totais = new long[meses * LivroColunar.CELULAS];
+		obterLivro(idUsuario).somar(periodoInicial, periodoInicial + meses - 1, 1, totais, new int[totais.length]);
+
+		List<TotalPeriodoDTO> tendencia = new ArrayList<>(meses);
+		for (int i = 0; i < meses; i++) {
+			YearMonth mes = inicio.plusMonths(i);
+			tendencia.add(totalizar(mes.getYear(), mes.getMonthValue(), totais, i * LivroColunar.CELULAS));
+		}
+		return tendencia;
+	}
+
+	@Override
+	@Transactional(readOnly = true, noRollbackFor = RegraNegocioException.class)
+	public List<ComposicaoLancamentosDTO> obterComposicao(Long idUsuario, YearMonth inicio, YearMonth fim) {
+		int periodoInicial = validarPeriodo(inicio, fim);
+		int periodoFinal = LivroColunar.periodo(fim.getYear(), fim.getMonthValue());
+
+		long[] totais = new long[LivroColunar.CELULAS];
+		int[] quantidades = new int[LivroColunar.CELULAS];
+		obterLivro(idUsuario).somar(periodoInicial, periodoFinal, periodoFinal - periodoInicial + 1, totais, quantidades);
+
+		List<ComposicaoLancamentosDTO> composicao = new ArrayList<>(LivroColunar.CELULAS);
+		for (EnumTipoLancamento tipo : EnumTipoLancamento.values()) {
+			for (EnumStatusLancamento status : EnumStatusLancamento.values()) {
+				int celula = LivroColunar.celula(tipo, status);
+				composicao.add(ComposicaoLancamentosDTO.builder().tipo(tipo).status(status)
+						.total(Dinheiro.deCentavos(totais[celula])).quantidade(quantidades[celula]).build());
+			}
+		}
+		return composicao;
+	}
+
+	@Override
+	@Transactional(readOnly = true, noRollbackFor = RegraNegocioException.class)
+	public List<TotalPeriodoDTO> obterComparativoAnual(Long idUsuario, Integer anoInicial, Integer anoFinal) {
+		if (anoInicial == null || anoFinal == null) {
+			throw new RegraNegocioException("Informe o ano inicial e o ano final.");
+		}
+		if (anoInicial < 1 || anoFinal > 9999) {
+			throw new RegraNegocioException("Informe anos entre 1 e 9999.");
+		}
+		validarPeriodo(YearMonth.of(anoInicial, 1), YearMonth.of(anoFinal, 12));
+
+		int anos = anoFinal - anoInicial + 1;
+		long[] totais = new long[anos * LivroColunar.CELULAS];
+		obterLivro(idUsuario).somar(LivroColunar.periodo(anoInicial, 1), LivroColunar.periodo(anoFinal, 12), 12,
+				totais, new int[totais.length]);
+
+		List<TotalPeriodoDTO> comparativo = new ArrayList<>(anos);
+		for (int i = 0; i < anos; i++) {
+			comparativo.add(totalizar(anoInicial + i, null, totais, i * LivroColunar.CELULAS));
+		}
+		return comparativo;
+	}
+
+	/**
+	 * Período inicial do livro colunar; o intervalo é limitado para que o resultado não cresça sem limite
+	 * */
+	private static int validarPeriodo(YearMonth inicio, YearMonth fim) {
+		if (inicio == null || fim == null) {
+			throw new RegraNegocioException("Informe o início e o fim do período.");
+		}
+		if (fim.isBefore(inicio)) {
+			throw new RegraNegocioException("O fim do período deve ser posterior ao início.");
+		}
+		if (inicio.getYear() < 1 || fim.getYear() > 9999) {
+			throw new RegraNegocioException("Informe anos entre 1 e 9999.");
+		}
+		if (inicio.plusMonths(MAXIMO_MESES - 1L).isBefore(fim)) {
+			throw new RegraNegocioException("Informe um período de até " + MAXIMO_MESES / 12 + " anos.");
+		}
+		return LivroColunar.periodo(inicio.getYear(), inicio.getMonthValue());
+	}
+
+	private static TotalPeriodoDTO totalizar(Integer ano, Integer mes, long[] totais, int grupo) {
+		Dinheiro receitas = centavos(totais, grupo, EnumTipoLancamento.RECEITA, EnumStatusLancamento.EFETIVADO);
+		Dinheiro despesas = centavos(totais, grupo, EnumTipoLancamento.DESPESA, EnumStatusLancamento.EFETIVADO);
+		return TotalPeriodoDTO.builder().ano(ano).mes(mes).receitas(receitas).despesas(despesas)
+				.receitasPendentes(centavos(totais, grupo, EnumTipoLancamento.RECEITA, EnumStatusLancamento.PENDENTE))
+				.despesasPendentes(centavos(totais, grupo, EnumTipoLancamento.DESPESA, EnumStatusLancamento.PENDENTE))
+				.saldo(receitas.subtrair(despesas)).build();
+	}
+
+	private static Dinheiro centavos(long[] totais, int grupo, EnumTipoLancamento tipo, EnumStatusLancamento status) {
+		return Dinheiro.deCentavos(totais[grupo + LivroColunar.celula(tipo, status)]);
+	}
+
+	private LivroColunar obterLivro(Long idUsuario) {
+		String versao = versaoLivroService.etag(idUsuario);
+		Livro livro = livros.get(idUsuario);
+		if (livro != null && livro.versao.equals(versao)) {
+			return livro.colunas;
+		}
+
+		LivroColunar.Montagem montagem = new LivroColunar.Montagem();
+		repository.percorrerColunasPorUsuario(idUsuario, montagem::adicionar);
+		LivroColunar colunas = montagem.montar();
+		livros.put(idUsuario, new Livro(versao, colunas));
+		return colunas;
+	}
+
+	/**
+	 * Livro colunar e a versão do livro do usuário em que foi lido
+	 * */
+	private static class Livro {
+
+		private final String versao;
+		private final LivroColunar colunas;
+
+		Livro(String versao, LivroColunar colunas) {
+			this.versao = versao;
+			this.colunas = colunas;
+		}
+
+	}
+
+}
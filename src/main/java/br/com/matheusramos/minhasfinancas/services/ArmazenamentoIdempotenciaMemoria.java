@@ -0,0 +1,89 @@
+package br.com.matheusramos.minhasfinancas.services;
+
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import br.com.matheusramos.minhasfinancas.interfaces.ArmazenamentoIdempotencia;
+import br.com.matheusramos.minhasfinancas.model.entity.RequisicaoIdempotente;
+
+/**
+ * @author Matheus
+ * Reservas em andamento e requisições concluídas ficam em mapas separados, cada um em ordem de chegada; como a validade
+ * é a mesma dentro de cada mapa, as expiradas estão sempre no início e saem a cada reserva. Acima do máximo de chaves
+ * as mais antigas saem mesmo antes de expirar
+ * */
+@Service
+@ConditionalOnProperty(name = "minhasfinancas.idempotencia.armazenamento", havingValue = "memoria", matchIfMissing = true)
+public class ArmazenamentoIdempotenciaMemoria implements ArmazenamentoIdempotencia {
+
+	private final LinkedHashMap<String, RequisicaoIdempotente> reservadas;
+	private final LinkedHashMap<String, RequisicaoIdempotente> concluidas;
+	
+	public ArmazenamentoIdempotenciaMemoria(@Value("${minhasfinancas.idempotencia.maximo-chaves:10000}") int maximoChaves) {
+		this.reservadas = limitado(maximoChaves);
+		this.concluidas = limitado(maximoChaves);
+	}
+	
+	private static LinkedHashMap<String, RequisicaoIdempotente> limitado(int maximoChaves) {
+		return new LinkedHashMap<String, RequisicaoIdempotente>(16, 0.75f, false) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, RequisicaoIdempotente> eldest) {
+				return size() > maximoChaves;
+			}
+		};
+	}
+	
+	@Override
+	public synchronized Optional<RequisicaoIdempotente> reservar(String chave, String impressao, Instant expiraEm) {
+		Instant agora = Instant.now();
+		apagarExpiradas(reservadas, agora);
+		apagarExpiradas(concluidas, agora);
+		
+		RequisicaoIdempotente existente = concluidas.get(chave);
+		if (existente == null) {
+			existente = reservadas.get(chave);
+		}
+		if (existente != null && !existente.expirada(agora)) {
+			return Optional.of(existente);
+		}
+		
+		concluidas.remove(chave);
+		reservadas.remove(chave);
+		reservadas.put(chave, RequisicaoIdempotente.builder().chave(chave).impressao(impressao).expiraEm(expiraEm).build());
+		return Optional.empty();
+	}
+	
+	private static void apagarExpiradas(LinkedHashMap<String, RequisicaoIdempotente> requisicoes, Instant agora) {
+		for (Iterator<RequisicaoIdempotente> iterator = requisicoes.values().iterator(); iterator.hasNext() && iterator.next().expirada(agora); ) {
+			iterator.remove();
+		}
+	}
+
+	/**
+	 * Troca a reserva por outra requisição concluída, sem alterar a que já foi devolvida a outra thread
+	 * */
+	@Override
+	public synchronized void concluir(String chave, int status, String corpo, Instant expiraEm) {
+		RequisicaoIdempotente reservada = reservadas.remove(chave);
+		if (reservada != null) {
+			concluidas.put(chave, RequisicaoIdempotente.builder().chave(chave).impressao(reservada.getImpressao())
+					.status(status).corpo(corpo).expiraEm(expiraEm).build());
+		}
+	}
+
+	@Override
+	public synchronized void liberar(String chave) {
+		reservadas.remove(chave);
+		concluidas.remove(chave);
+	}
+
+}
@@ -0,0 +1,96 @@
+package br.com.matheusramos.minhasfinancas.services;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import br.com.matheusramos.minhasfinancas.interfaces.ArmazenamentoIdempotencia;
+import br.com.matheusramos.minhasfinancas.model.entity.RequisicaoIdempotente;
+import br.com.matheusramos.minhasfinancas.repositories.RequisicaoIdempotenteRepository;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * @author Matheus
+ * A reserva é o insert da chave: entre nós concorrentes somente um consegue, e os demais leem a requisição existente.
+ * Cada operação roda na sua própria transação de escrita, que também mantém a leitura no primário mesmo com réplicas.
+ * As requisições expiradas são apagadas periodicamente
+ * */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "minhasfinancas.idempotencia.armazenamento", havingValue = "tabela")
+public class ArmazenamentoIdempotenciaTabela implements ArmazenamentoIdempotencia {
+
+	private final RequisicaoIdempotenteRepository repository;
+	private final TransactionTemplate transacao;
+	private final ScheduledExecutorService limpeza = Executors.newSingleThreadScheduledExecutor(tarefa -> {
+		Thread thread = new Thread(tarefa, "idempotencia-limpeza");
+		thread.setDaemon(true);
+		return thread;
+	});
+	
+	public ArmazenamentoIdempotenciaTabela(RequisicaoIdempotenteRepository repository, PlatformTransactionManager transactionManager,
+			@Value("${minhasfinancas.idempotencia.intervalo-limpeza-minutos:10}") long intervaloLimpezaMinutos) {
+		this(repository, transactionManager);
+		limpeza.scheduleWithFixedDelay(this::apagarExpiradas, intervaloLimpezaMinutos, intervaloLimpezaMinutos, TimeUnit.MINUTES);
+	}
+	
+	ArmazenamentoIdempotenciaTabela(RequisicaoIdempotenteRepository repository, PlatformTransactionManager transactionManager) {
+		this.repository = repository;
+		this.transacao = new TransactionTemplate(transactionManager);
+	}
+	
+	@Override
+	public Optional<RequisicaoIdempotente> reservar(String chave, String impressao, Instant expiraEm) {
+		// a requisição existente pode expirar ou ser liberada entre o insert recusado e a leitura
+		for (;;) {
+			try {
+				transacao.execute(status -> {
+					repository.apagarExpirada(chave, Instant.now());
+					repository.inserir(chave, impressao, expiraEm);
+					return null;
+				});
+				return Optional.empty();
+			} catch (DataIntegrityViolationException e) {
+				Optional<RequisicaoIdempotente> existente = transacao.execute(status -> repository.findById(chave));
+				if (existente.isPresent()) {
+					return existente;
+				}
+			}
+		}
+	}
+
+	@Override
+	public void concluir(String chave, int status, String corpo, Instant expiraEm) {
+		transacao.execute(s -> repository.concluir(chave, status, corpo, expiraEm));
+	}
+
+	@Override
+	public void liberar(String chave) {
+		transacao.execute(status -> repository.apagar(chave));
+	}
+	
+	private void apagarExpiradas() {
+		try {
+			transacao.execute(status -> repository.apagarExpiradas(Instant.now()));
+		} catch (RuntimeException e) {
+			log.warn("Falha ao apagar as requisições idempotentes expiradas", e);
+		}
+	}
+	
+	@PreDestroy
+	public void encerrar() {
+		limpeza.shutdownNow();
+	}
+
+}
@@ -0,0 +1,102 @@
+package br.com.matheusramos.minhasfinancas.services;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import br.com.matheusramos.minhasfinancas.interfaces.BuscaDescricaoService;
+import br.com.matheusramos.minhasfinancas.repositories.LancamentoRepository;
+
+/**
+ * @author Matheus
+ * Mantém em memória um {@link IndiceDescricao} por usuário, montado na primeira busca do usuário e atualizado
+ * após o commit das gravações de lançamento. Somente os usuários usados mais recentemente ficam em memória
+ * */
+@Service
+public class BuscaDescricaoServiceImpl implements BuscaDescricaoService {
+
+	private static final int LIMITE_VERSOES = 100000;
+	
+	private final LancamentoRepository repository;
+	private final Map<Long, IndiceDescricao> indices;
+	
+	/**
+	 * Contador de alterações de cada usuário, usado para descartar um índice montado enquanto outra gravação do mesmo
+	 * usuário era confirmada. Ao atingir o limite os contadores são descartados, e as montagens em andamento, que
+	 * comparam também a instância do contador, descartam o índice
+	 * */
+	private final Map<Long, AtomicLong> versoes = new ConcurrentHashMap<>();
+	
+	public BuscaDescricaoServiceImpl(LancamentoRepository repository,
+			@Value("${minhasfinancas.busca.maximo-usuarios:1000}") int maximoUsuarios) {
+		this.repository = repository;
+		this.indices = Collections.synchronizedMap(new LinkedHashMap<Long, IndiceDescricao>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Long, IndiceDescricao> eldest) {
+				return size() > maximoUsuarios;
+			}
+		});
+	}
+	
+	@Override
+	@Transactional(readOnly = true)
+	public List<Long> buscar(Long idUsuario, String termo) {
+		IndiceDescricao indice = indices.get(idUsuario);
+		if (indice == null) {
+			AtomicLong contador = versao(idUsuario);
+			long versao = contador.get();
+			indice = new IndiceDescricao(repository.obterDescricoesPorUsuario(idUsuario));
+			if (inalterado(idUsuario, contador, versao) && indices.putIfAbsent(idUsuario, indice) == null
+					&& !inalterado(idUsuario, contador, versao)) {
+				// a gravação confirmada entre a comparação e a inclusão pode não ter encontrado o índice
+				indices.remove(idUsuario, indice);
+			}
+		}
+		return indice.buscar(termo);
+	}
+
+	@Override
+	public void registrar(Long idUsuario, Long idLancamento, String descricao) {
+		versao(idUsuario).incrementAndGet();
+		IndiceDescricao indice = indices.get(idUsuario);
+		if (indice != null) {
+			indice.registrar(idLancamento, descricao);
+		}
+	}
+
+	@Override
+	public void remover(Long idUsuario, Long idLancamento) {
+		versao(idUsuario).incrementAndGet();
+		IndiceDescricao indice = indices.get(idUsuario);
+		if (indice != null) {
+			indice.remover(idLancamento);
+		}
+	}
+
+	@Override
+	public void invalidar(Long idUsuario) {
+		versao(idUsuario).incrementAndGet();
+		indices.remove(idUsuario);
+	}
+	
+	private AtomicLong versao(Long idUsuario) {
+		if (versoes.size() >= LIMITE_VERSOES) {
+			versoes.clear();
+		}
+		return versoes.computeIfAbsent(idUsuario, id -> new AtomicLong());
+	}
+	
+	private boolean inalterado(Long idUsuario, AtomicLong contador, long versao) {
+		return versoes.get(idUsuario) == contador && contador.get() == versao;
+	}
+	
+}
@@ -0,0 +1,369 @@
+package br.com.matheusramos.minhasfinancas.services;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import br.com.matheusramos.minhasfinancas.dtos.EventoLivroDTO;
+import br.com.matheusramos.minhasfinancas.exceptions.ServicoOcupadoException;
+import br.com.matheusramos.minhasfinancas.interfaces.EventosLivroService;
+import br.com.matheusramos.minhasfinancas.interfaces.VersaoLivroService;
+import br.com.matheusramos.minhasfinancas.model.Dinheiro;
+import br.com.matheusramos.minhasfinancas.model.entity.SaldoUsuario;
+import br.com.matheusramos.minhasfinancas.repositories.SaldoUsuarioRepository;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * @author Matheus
+ * A publicação, feita após o commit na thread da requisição, só acumula os ids na pendência do usuário e agenda a
+ * montagem do evento, que lê o saldo uma vez para todas as conexões do usuário; gravações seguidas enquanto o evento
+ * não foi montado viram um único evento. Cada conexão tem uma fila limitada, escrita pela sua própria tarefa do pool:
+ * uma conexão lenta ocupa apenas a sua fila, descartando os eventos mais antigos e marcando o próximo com 'recarregar',
+ * sem atrasar as demais. Conexões sem eventos recebem um comentário periódico para não serem encerradas por proxies.
+ * Uma escrita parada há mais de 'tempo-escrita-ms' (cliente que não lê o que recebe) tira a conexão das assinaturas,
+ * e o pool ganha uma thread enquanto essa escrita não retorna; ao retornar, o emitter é encerrado e a thread devolvida
+ * */
+@Slf4j
+@Service
+public class EventosLivroServiceImpl implements EventosLivroService {
+
+	static final String EVENTO = "livro";
+
+	// acima desta quantidade de ids acumulados o evento pede que o cliente releia os lançamentos
+	private static final int LIMITE_IDS = 500;
+	private static final Object BATIMENTO = new Object();
+	// estado de 'envioDesde' de uma conexão sem escrita em andamento e de uma conexão com a escrita parada
+	private static final long SEM_ENVIO = 0;
+	private static final long TRAVADA = -1;
+
+	private final SaldoUsuarioRepository saldoRepository;
+	private final VersaoLivroService versaoLivroService;
+	private final TransactionTemplate transacao;
+	private final int maximoConexoes;
+	private final int tamanhoFila;
+	private final long tempoLimiteMs;
+	private final int threads;
+	private final long tempoEscritaNs;
+	private final long origem = System.nanoTime();
+
+	private final Map<Long, Set<Assinatura>> assinaturas = new ConcurrentHashMap<>();
+	private final Map<Long, Pendencia> pendencias = new ConcurrentHashMap<>();
+	private final AtomicInteger conexoes = new AtomicInteger();
+	// há no máximo uma tarefa agendada por usuário com pendência e por conexão, o que cabe na fila do pool
+	private final ThreadPoolExecutor executor;
+	private int travadas;
+	private final ScheduledExecutorService batimentos;
+
+	public EventosLivroServiceImpl(SaldoUsuarioRepository saldoRepository, VersaoLivroService versaoLivroService,
+			PlatformTransactionManager transactionManager,
+			@Value("${minhasfinancas.eventos.maximo-conexoes:1000}") int maximoConexoes,
+			@Value("${minhasfinancas.eventos.fila:16}") int tamanhoFila,
+			@Value("${minhasfinancas.eventos.threads:2}") int threads,
+			@Value("${minhasfinancas.eventos.batimento-ms:15000}") long batimentoMs,
+			@Value("${minhasfinancas.eventos.tempo-limite-ms:1800000}") long tempoLimiteMs,
+			@Value("${minhasfinancas.eventos.tempo-escrita-ms:10000}") long tempoEscritaMs) {
+		this.saldoRepository = saldoRepository;
+		this.versaoLivroService = versaoLivroService;
+		this.transacao = new TransactionTemplate(transactionManager);
+		this.maximoConexoes = maximoConexoes;
+		this.tamanhoFila = tamanhoFila;
+		this.tempoLimiteMs = tempoLimiteMs;
+		this.threads = threads;
+		this.tempoEscritaNs = TimeUnit.MILLISECONDS.toNanos(tempoEscritaMs);
+
+		AtomicInteger contador = new AtomicInteger();
+		this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(2 * maximoConexoes), tarefa -> {
+			Thread thread = new Thread(tarefa, "eventos-" + contador.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+		this.batimentos = Executors.newSingleThreadScheduledExecutor(tarefa -> {
+			Thread thread = new Thread(tarefa, "eventos-batimento");
+			thread.setDaemon(true);
+			return thread;
+		});
+		this.batimentos.scheduleWithFixedDelay(this::enviarBatimentos, batimentoMs, batimentoMs, TimeUnit.MILLISECONDS);
+		long verificacaoMs = Math.max(1, tempoEscritaMs / 2);
+		this.batimentos.scheduleWithFixedDelay(this::verificarEscritas, verificacaoMs, verificacaoMs, TimeUnit.MILLISECONDS);
+	}
+
+	@Override
+	public SseEmitter assinar(Long idUsuario) {
+		if (conexoes.incrementAndGet() > maximoConexoes) {
+			conexoes.decrementAndGet();
+			throw new ServicoOcupadoException("Muitas conexões de eventos abertas, tente novamente");
+		}
+
+		Assinatura assinatura = new Assinatura(idUsuario, new SseEmitter(tempoLimiteMs), tamanhoFila);
+		assinatura.emitter.onCompletion(() -> remover(assinatura));
+		assinatura.emitter.onTimeout(() -> remover(assinatura));
+		assinatura.emitter.onError(erro -> remover(assinatura));
+		assinaturas.compute(idUsuario, (id, doUsuario) -> {
+			Set<Assinatura> conjunto = doUsuario == null ? ConcurrentHashMap.newKeySet() : doUsuario;
+			conjunto.add(assinatura);
+			return conjunto;
+		});
+
+		// o estado atual também chega às outras conexões do usuário, sem lançamentos alterados
+		publicar(idUsuario, Collections.emptyList());
+		return assinatura.emitter;
+	}
+
+	@Override
+	public void publicar(Long idUsuario, Collection<Long> idsLancamentos) {
+		if (idUsuario == null || !assinaturas.containsKey(idUsuario)) {
+			return;
+		}
+
+		Pendencia nova = new Pendencia(idsLancamentos);
+		if (pendencias.merge(idUsuario, nova, Pendencia::juntar) == nova && !executar(() -> notificar(idUsuario))) {
+			pendencias.remove(idUsuario, nova);
+		}
+	}
+
+	@Override
+	public void publicarTodos() {
+		new ArrayList<>(assinaturas.keySet()).forEach(idUsuario -> publicar(idUsuario, null));
+	}
+
+	/**
+	 * Monta o evento com as gravações acumuladas até aqui; as que chegarem depois criam outra pendência e outra tarefa
+	 * */
+	private void notificar(Long idUsuario) {
+		Pendencia pendencia = pendencias.remove(idUsuario);
+		Set<Assinatura> doUsuario = assinaturas.get(idUsuario);
+		if (pendencia == null || doUsuario == null) {
+			return;
+		}
+
+		try {
+			// fora da requisição o roteamento para as réplicas não sabe que o usuário acabou de gravar; numa transação de
+			// escrita a versão e o saldo são lidos juntos do primário, a versão antes, como nas consultas
+			EventoLivroDTO evento = transacao.execute(status -> EventoLivroDTO.builder()
+					.versao(versaoLivroService.etag(idUsuario))
+					.saldo(saldoRepository.findById(idUsuario).map(SaldoUsuario::getSaldo).orElse(Dinheiro.ZERO))
+					.lancamentos(pendencia.recarregar ? null : new ArrayList<>(pendencia.ids))
+					.recarregar(pendencia.recarregar)
+					.build());
+			doUsuario.forEach(assinatura -> enfileirar(assinatura, evento));
+		} catch (RuntimeException e) {
+			log.warn("Falha ao montar o evento do livro do usuário {}", idUsuario, e);
+		}
+	}
+
+
+	private void enviarBatimentos() {
+		assinaturas.values().forEach(doUsuario -> doUsuario.forEach(assinatura -> {
+			if (assinatura.fila.isEmpty()) {
+				enfileirar(assinatura, BATIMENTO);
+			}
+		}));
+	}
+
+	private void enfileirar(Assinatura assinatura, Object mensagem) {
+		while (!assinatura.fila.offer(mensagem)) {
+			if (assinatura.fila.poll() instanceof EventoLivroDTO) {
+				assinatura.descartou.set(true);
+			}
+		}
+		agendar(assinatura);
+	}
+
+	private void agendar(Assinatura assinatura) {
+		if (assinatura.ativa.get() && assinatura.agendada.compareAndSet(false, true) && !executar(() -> drenar(assinatura))) {
+			assinatura.agendada.set(false);
+		}
+	}
+	
+	private boolean executar(Runnable tarefa) {
+		try {
+			executor.execute(tarefa);
+			return true;
+		} catch (RejectedExecutionException e) {
+			log.warn("Fila de eventos cheia, evento descartado: {}", e.getMessage());
+			return false;
+		}
+	}
+
+	/**
+	 * Escreve a fila da conexão; somente uma tarefa por conexão roda de cada vez
+	 * */
+	private void drenar(Assinatura assinatura) {
+		boolean travada = false;
+		try {
+			Object mensagem;
+			while (!travada && assinatura.ativa.get() && (mensagem = assinatura.fila.poll()) != null) {
+				long inicio = System.nanoTime() - origem + 1;
+				assinatura.envioDesde.set(inicio);
+				try {
+					enviar(assinatura, mensagem);
+				} finally {
+					travada = !assinatura.envioDesde.compareAndSet(inicio, SEM_ENVIO);
+				}
+			}
+		} catch (IOException | IllegalStateException e) {
+			// cliente desconectado ou conexão já encerrada pelo tempo limite
+			log.debug("Conexão de eventos do usuário {} encerrada: {}", assinatura.idUsuario, e.getMessage());
+			remover(assinatura);
+		} finally {
+			assinatura.agendada.set(false);
+		}
+
+		if (travada) {
+			ajustarThreads(-1);
+			completar(assinatura);
+		} else if (!assinatura.fila.isEmpty()) {
+			agendar(assinatura);
+		}
+	}
+
+	/**
+	 * Marca as conexões com uma escrita em andamento há mais de 'tempoEscritaNs'; a marcação e o fim da escrita
+	 * disputam o mesmo compareAndSet, então somente um dos dois lados trata a conexão como travada
+	 * */
+	private void verificarEscritas() {
+		long agora = System.nanoTime() - origem + 1;
+		assinaturas.values().forEach(doUsuario -> doUsuario.forEach(assinatura -> {
+			long desde = assinatura.envioDesde.get();
+			if (desde > SEM_ENVIO && agora - desde > tempoEscritaNs && assinatura.envioDesde.compareAndSet(desde, TRAVADA)) {
+				log.warn("Conexão de eventos do usuário {} sem ler há mais de {} ms, encerrada",
+						assinatura.idUsuario, TimeUnit.NANOSECONDS.toMillis(tempoEscritaNs));
+				remover(assinatura);
+				ajustarThreads(1);
+			}
+		}));
+	}
+
+	/**
+	 * Uma thread a mais para cada escrita travada, para que as demais conexões continuem sendo atendidas
+	 * */
+	private synchronized void ajustarThreads(int diferenca) {
+		travadas += diferenca;
+		int tamanho = threads + Math.max(0, travadas);
+		if (tamanho > executor.getMaximumPoolSize()) {
+			executor.setMaximumPoolSize(tamanho);
+			executor.setCorePoolSize(tamanho);
+		} else {
+			executor.setCorePoolSize(tamanho);
+			executor.setMaximumPoolSize(tamanho);
+		}
+	}
+
+	private void enviar(Assinatura assinatura, Object mensagem) throws IOException {
+		if (mensagem == BATIMENTO) {
+			assinatura.emitter.send(SseEmitter.event().comment(""));
+			return;
+		}
+
+		EventoLivroDTO evento = (EventoLivroDTO) mensagem;
+		if (assinatura.descartou.getAndSet(false)) {
+			evento = EventoLivroDTO.builder().versao(evento.getVersao()).saldo(evento.getSaldo()).recarregar(true).build();
+		}
+		assinatura.emitter.send(SseEmitter.event().id(evento.getVersao()).name(EVENTO).data(evento, MediaType.APPLICATION_JSON));
+	}
+
+	private void remover(Assinatura assinatura) {
+		if (!assinatura.ativa.compareAndSet(true, false)) {
+			return;
+		}
+
+		conexoes.decrementAndGet();
+		assinatura.fila.clear();
+		assinaturas.computeIfPresent(assinatura.idUsuario, (id, doUsuario) -> {
+			doUsuario.remove(assinatura);
+			return doUsuario.isEmpty() ? null : doUsuario;
+		});
+	}
+
+	@PreDestroy
+	public void encerrar() {
+		batimentos.shutdownNow();
+		executor.shutdownNow();
+		assinaturas.values().forEach(doUsuario -> doUsuario.forEach(this::completar));
+	}
+
+	private void completar(Assinatura assinatura) {
+		try {
+			assinatura.emitter.complete();
+		} catch (IllegalStateException e) {
+			log.debug("Conexão de eventos do usuário {} já encerrada: {}", assinatura.idUsuario, e.getMessage());
+		}
+	}
+
+	private static class Assinatura {
+
+		private final Long idUsuario;
+		private final SseEmitter emitter;
+		private final ArrayBlockingQueue<Object> fila;
+		private final AtomicBoolean agendada = new AtomicBoolean();
+		private final AtomicBoolean ativa = new AtomicBoolean(true);
+		// eventos descartados com a fila cheia desde o último envio
+		private final AtomicBoolean descartou = new AtomicBoolean();
+		// início da escrita em andamento, SEM_ENVIO ou TRAVADA
+		private final AtomicLong envioDesde = new AtomicLong(SEM_ENVIO);
+
+		Assinatura(Long idUsuario, SseEmitter emitter, int tamanhoFila) {
+			this.idUsuario = idUsuario;
+			this.emitter = emitter;
+			this.fila = new ArrayBlockingQueue<>(tamanhoFila);
+		}
+
+	}
+
+	/**
+	 * Ids alterados desde o último evento do usuário; alterada somente dentro do merge do mapa de pendências
+	 * */
+	private static class Pendencia {
+
+		private final Set<Long> ids = new LinkedHashSet<>();
+		private boolean recarregar;
+
+		Pendencia(Collection<Long> idsLancamentos) {
+			acumular(idsLancamentos);
+		}
+
+		private void acumular(Collection<Long> idsLancamentos) {
+			if (recarregar) {
+				return;
+			}
+
+			if (idsLancamentos == null || ids.size() + idsLancamentos.size() > LIMITE_IDS) {
+				recarregar = true;
+				ids.clear();
+			} else {
+				ids.addAll(idsLancamentos);
+			}
+		}
+
+		Pendencia juntar(Pendencia outra) {
+			acumular(outra.recarregar ? null : outra.ids);
+			return this;
+		}
+
+	}
+
+}
@@ -0,0 +1,133 @@
+package br.com.matheusramos.minhasfinancas.services;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import br.com.matheusramos.minhasfinancas.interfaces.ArmazenamentoIdempotencia;
+import br.com.matheusramos.minhasfinancas.interfaces.IdempotenciaService;
+import br.com.matheusramos.minhasfinancas.model.entity.RequisicaoIdempotente;
+
+/**
+ * @author Matheus
+ * Somente respostas de sucesso são guardadas; nos demais casos a reserva da chave é desfeita e a repetição executa
+ * a operação de novo, já que um erro de validação ou um conflito de versão pode não se repetir. A resposta guardada
+ * é o JSON do corpo, devolvido igual ao da primeira requisição e com o cabeçalho Idempotent-Replayed. A chave em andamento
+ * expira em pouco tempo e só a resposta concluída recebe a validade inteira
+ * */
+@Service
+public class IdempotenciaServiceImpl implements IdempotenciaService {
+
+	static final String REPETIDA = "Idempotent-Replayed";
+	
+	private static final int TAMANHO_MAXIMO_CHAVE = 255;
+	
+	private final ArmazenamentoIdempotencia armazenamento;
+	private final ObjectMapper objectMapper;
+	private final Duration validade;
+	private final Duration reserva;
+	
+	public IdempotenciaServiceImpl(ArmazenamentoIdempotencia armazenamento, ObjectMapper objectMapper,
+			@Value("${minhasfinancas.idempotencia.validade-minutos:1440}") long validadeMinutos,
+			@Value("${minhasfinancas.idempotencia.reserva-segundos:120}") long reservaSegundos) {
+		this.armazenamento = armazenamento;
+		this.objectMapper = objectMapper;
+		this.validade = Duration.ofMinutes(validadeMinutos);
+		this.reserva = Duration.ofSeconds(reservaSegundos);
+	}
+	
+	@Override
+	public ResponseEntity executar(Long idUsuario, String chave, String operacao, Object requisicao, Supplier<ResponseEntity> acao) {
+		if (chave == null) {
+			return acao.get();
+		}
+		
+		if (chave.trim().isEmpty() || chave.length() > TAMANHO_MAXIMO_CHAVE) {
+			return ResponseEntity.badRequest().body("Informe uma 'Idempotency-Key' de 1 a " + TAMANHO_MAXIMO_CHAVE + " caracteres");
+		}
+		
+		// sem usuário todas as requisições anônimas dividiriam as mesmas chaves e receberiam as respostas umas das outras
+		if (idUsuario == null) {
+			return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Envie o token do usuário para usar a 'Idempotency-Key'");
+		}
+		
+		String chaveUsuario = idUsuario + ":" + chave;
+		String impressao = impressao(operacao, requisicao);
+		Optional<RequisicaoIdempotente> existente = armazenamento.reservar(chaveUsuario, impressao, Instant.now().plus(reserva));
+		if (existente.isPresent()) {
+			return responderRepeticao(existente.get(), impressao);
+		}
+		
+		ResponseEntity resposta;
+		try {
+			resposta = acao.get();
+		} catch (RuntimeException e) {
+			armazenamento.liberar(chaveUsuario);
+			throw e;
+		}
+		
+		if (!resposta.getStatusCode().is2xxSuccessful()) {
+			armazenamento.liberar(chaveUsuario);
+			return resposta;
+		}
+		
+		try {
+			armazenamento.concluir(chaveUsuario, resposta.getStatusCodeValue(), objectMapper.writeValueAsString(resposta.getBody()),
+					Instant.now().plus(validade));
+		} catch (JsonProcessingException | RuntimeException e) {
+			// a operação já foi confirmada; sem a resposta guardada a chave é liberada e a repetição executa de novo
+			armazenamento.liberar(chaveUsuario);
+		}
+		return resposta;
+	}
+	
+	private ResponseEntity responderRepeticao(RequisicaoIdempotente existente, String impressao) {
+		if (!existente.getImpressao().equals(impressao)) {
+			return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY)
+					.body("A 'Idempotency-Key' já foi usada em outra requisição, envie uma nova chave");
+		}
+		
+		if (!existente.concluida()) {
+			return ResponseEntity.status(HttpStatus.CONFLICT).header(HttpHeaders.RETRY_AFTER, "1")
+					.body("A requisição com esta 'Idempotency-Key' ainda está em andamento, tente novamente");
+		}
+		
+		return ResponseEntity.status(existente.getStatus()).contentType(MediaType.APPLICATION_JSON).header(REPETIDA, "true")
+				.body(existente.getCorpo());
+	}
+	
+	/**
+	 * SHA-256 da operação e do JSON da requisição
+	 * */
+	private String impressao(String operacao, Object requisicao) {
+		try {
+			MessageDigest digest = MessageDigest.getInstance("SHA-256");
+			digest.update(operacao.getBytes(StandardCharsets.UTF_8));
+			digest.update((byte) '\n');
+			byte[] hash = digest.digest(objectMapper.writeValueAsBytes(requisicao));
+			
+			StringBuilder hexadecimal = new StringBuilder(hash.length * 2);
+			for (byte b : hash) {
+				hexadecimal.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+			}
+			return hexadecimal.toString();
+		} catch (NoSuchAlgorithmException | JsonProcessingException e) {
+			throw new IllegalStateException("Não foi possível calcular a impressão da requisição", e);
+		}
+	}
+
+}
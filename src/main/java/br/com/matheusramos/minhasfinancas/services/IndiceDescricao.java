@@ -0,0 +1,158 @@
+package br.com.matheusramos.minhasfinancas.services;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+import br.com.matheusramos.minhasfinancas.model.DescricaoLancamento;
+
+/**
+ * @author Matheus
+ * Índice invertido de trigramas das descrições dos lançamentos de um usuário. A busca intersecta as listas
+ * de ids dos trigramas do termo, começando pela menor, e confirma o trecho apenas nos candidatos, então o custo
+ * acompanha a quantidade de lançamentos que casam com o termo e não o total de lançamentos
+ * */
+class IndiceDescricao {
+
+	private static final Pattern ACENTOS = Pattern.compile("\\p{M}+");
+	private static final Pattern ESPACOS = Pattern.compile("\\s+");
+	
+	private final Map<Long, String> descricoes = new HashMap<>();
+	private final Map<Long, Set<Long>> trigramas = new HashMap<>();
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+	
+	IndiceDescricao(Collection<DescricaoLancamento> lancamentos) {
+		for (DescricaoLancamento lancamento : lancamentos) {
+			incluir(lancamento.getId(), lancamento.getDescricao());
+		}
+	}
+	
+	/**
+	 * Remove acentos, diferenças de maiúsculas e espaços repetidos
+	 * */
+	static String normalizar(String texto) {
+		if (texto == null) {
+			return "";
+		}
+		String semAcentos = ACENTOS.matcher(Normalizer.normalize(texto, Normalizer.Form.NFD)).replaceAll("");
+		return ESPACOS.matcher(semAcentos.toLowerCase()).replaceAll(" ").trim();
+	}
+	
+	private static Set<Long> trigramasDe(String texto) {
+		Set<Long> codigos = new LinkedHashSet<>();
+		for (int i = 0; i + 3 <= texto.length(); i++) {
+			codigos.add(((long) texto.charAt(i) << 32) | ((long) texto.charAt(i + 1) << 16) | texto.charAt(i + 2));
+		}
+		return codigos;
+	}
+	
+	List<Long> buscar(String termo) {
+		String normalizado = normalizar(termo);
+		
+		lock.readLock().lock();
+		try {
+			Collection<Long> candidatos = normalizado.length() < 3 ? descricoes.keySet() : intersectar(trigramasDe(normalizado));
+			
+			List<Long> encontrados = new ArrayList<>();
+			for (Long id : candidatos) {
+				if (descricoes.get(id).contains(normalizado)) {
+					encontrados.add(id);
+				}
+			}
+			
+			encontrados.sort(Comparator.<Long>comparingInt(id -> relevancia(descricoes.get(id), normalizado))
+					.thenComparingInt(id -> descricoes.get(id).length())
+					.thenComparing(Comparator.<Long>reverseOrder()));
+			return encontrados;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+	
+	private Collection<Long> intersectar(Set<Long> codigos) {
+		List<Set<Long>> listas = new ArrayList<>(codigos.size());
+		for (Long codigo : codigos) {
+			Set<Long> ids = trigramas.get(codigo);
+			if (ids == null) {
+				return new ArrayList<>();
+			}
+			listas.add(ids);
+		}
+		listas.sort(Comparator.comparingInt(Set::size));
+		
+		Set<Long> resultado = new HashSet<>(listas.get(0));
+		for (int i = 1; i < listas.size() && !resultado.isEmpty(); i++) {
+			resultado.retainAll(listas.get(i));
+		}
+		return resultado;
+	}
+	
+	/**
+	 * Descrição igual ao termo, depois começando pelo termo, depois com uma palavra começando pelo termo
+	 * e por último o termo no meio de uma palavra
+	 * */
+	private static int relevancia(String descricao, String termo) {
+		if (descricao.equals(termo)) {
+			return 0;
+		}
+		if (descricao.startsWith(termo)) {
+			return 1;
+		}
+		if (descricao.contains(" " + termo)) {
+			return 2;
+		}
+		return 3;
+	}
+	
+	void registrar(Long id, String descricao) {
+		lock.writeLock().lock();
+		try {
+			excluir(id);
+			incluir(id, descricao);
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+	
+	void remover(Long id) {
+		lock.writeLock().lock();
+		try {
+			excluir(id);
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+	
+	private void incluir(Long id, String descricao) {
+		String normalizada = normalizar(descricao);
+		descricoes.put(id, normalizada);
+		for (Long codigo : trigramasDe(normalizada)) {
+			trigramas.computeIfAbsent(codigo, c -> new HashSet<>()).add(id);
+		}
+	}
+	
+	private void excluir(Long id) {
+		String anterior = descricoes.remove(id);
+		if (anterior == null) {
+			return;
+		}
+		for (Long codigo : trigramasDe(anterior)) {
+			Set<Long> ids = trigramas.get(codigo);
+			ids.remove(id);
+			if (ids.isEmpty()) {
+				trigramas.remove(codigo);
+			}
+		}
+	}
+	
+}
@@ -1,9 +1,20 @@
 package br.com.matheusramos.minhasfinancas.services;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 
 import org.springframework.data.domain.Example;
 import org.springframework.data.domain.ExampleMatcher;
@@ -11,20 +22,58 @@ import org.springframework.data.domain.ExampleMatcher.StringMatcher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import br.com.matheusramos.minhasfinancas.dtos.ErroImportacaoDTO;
+import br.com.matheusramos.minhasfinancas.dtos.LancamentoDTO;
+import br.com.matheusramos.minhasfinancas.dtos.PaginaDTO;
+import br.com.matheusramos.minhasfinancas.dtos.ResultadoAtualizacaoStatusDTO;
+import br.com.matheusramos.minhasfinancas.dtos.ResultadoImportacaoDTO;
+import br.com.matheusramos.minhasfinancas.dtos.ResumoMensalDTO;
 import br.com.matheusramos.minhasfinancas.enums.EnumStatusLancamento;
 import br.com.matheusramos.minhasfinancas.enums.EnumTipoLancamento;
 import br.com.matheusramos.minhasfinancas.exceptions.RegraNegocioException;
+import br.com.matheusramos.minhasfinancas.interfaces.BuscaDescricaoService;
+import br.com.matheusramos.minhasfinancas.interfaces.EventosLivroService;
 import br.com.matheusramos.minhasfinancas.interfaces.LancamentoService;
+import br.com.matheusramos.minhasfinancas.interfaces.UsuarioService;
+import br.com.matheusramos.minhasfinancas.model.CursorLancamento;
+import br.com.matheusramos.minhasfinancas.model.Dinheiro;
+import br.com.matheusramos.minhasfinancas.model.SituacaoLancamento;
+import br.com.matheusramos.minhasfinancas.model.entity.ChaveResumoMensal;
 import br.com.matheusramos.minhasfinancas.model.entity.Lancamento;
+import br.com.matheusramos.minhasfinancas.model.entity.ResumoMensal;
+import br.com.matheusramos.minhasfinancas.model.entity.Usuario;
 import br.com.matheusramos.minhasfinancas.repositories.LancamentoRepository;
+import br.com.matheusramos.minhasfinancas.repositories.ResumoMensalRepository;
+import br.com.matheusramos.minhasfinancas.repositories.SaldoUsuarioRepository;
+import br.com.matheusramos.minhasfinancas.utils.Transacoes;
 
 @Service
 public class LancamentoServiceImpl implements LancamentoService {
 
+	private static final int LIMITE_MAXIMO_PAGINA = 500;
+	private static final int LIMITE_IMPORTACAO = 50000;
+	private static final int LIMITE_ATUALIZACAO_LOTE = 10000;
+	private static final int TAMANHO_PARTE_IN = 1000;
+	// maior valor da coluna numeric(16,2)
+	private static final BigDecimal VALOR_MAXIMO = new BigDecimal("99999999999999.99");
+	private static final int TAMANHO_MAXIMO_DESCRICAO = 100;
+	
 	private LancamentoRepository repository; 
+	private SaldoUsuarioRepository saldoRepository;
+	private ResumoMensalRepository resumoRepository;
+	private UsuarioService usuarioService;
+	private BuscaDescricaoService buscaDescricaoService;
+	private EventosLivroService eventosLivroService;
 
-	public LancamentoServiceImpl(LancamentoRepository repository) {
+	public LancamentoServiceImpl(LancamentoRepository repository, SaldoUsuarioRepository saldoRepository, ResumoMensalRepository resumoRepository,
+			UsuarioService usuarioService, BuscaDescricaoService buscaDescricaoService,
+			EventosLivroService eventosLivroService) {
 		this.repository = repository;
+		this.saldoRepository = saldoRepository;
+		this.resumoRepository = resumoRepository;
+		this.usuarioService = usuarioService;
+		this.buscaDescricaoService = buscaDescricaoService;
+		this.eventosLivroService = eventosLivroService;
 	}
 	
 	@Override
@@ -32,7 +81,11 @@ public class LancamentoServiceImpl implements LancamentoService {
 	public Lancamento salvar(Lancamento lancamento) {
 		validar(lancamento);
 		lancamento.setStatus(EnumStatusLancamento.PENDENTE);
-		return repository.save(lancamento);
+		Lancamento lancamentoSalvo = repository.save(lancamento);
+		SituacaoLancamento atual = SituacaoLancamento.de(lancamentoSalvo);
+		atualizarTotais(null, atual, lancamentoSalvo.getId());
+		atualizarIndiceDescricao(null, atual, lancamentoSalvo);
+		return lancamentoSalvo;
 	}
 
 	@Override
@@ -40,14 +93,96 @@ public class LancamentoServiceImpl implements LancamentoService {
 	public Lancamento atualizar(Lancamento lancamento) {
 		Objects.requireNonNull(lancamento.getId());
 		validar(lancamento);
-		return repository.save(lancamento);
+		SituacaoLancamento anterior = repository.obterSituacao(lancamento.getId()).orElse(null);
+		Lancamento lancamentoAtualizado = repository.save(lancamento);
+		SituacaoLancamento atual = SituacaoLancamento.de(lancamentoAtualizado);
+		atualizarTotais(anterior, atual, lancamentoAtualizado.getId());
+		atualizarIndiceDescricao(anterior, atual, lancamentoAtualizado);
+		return lancamentoAtualizado;
+	}
+
+	@Override
+	@Transactional
+	public ResultadoImportacaoDTO importar(List<LancamentoDTO> lancamentosDTO) {
+		if (lancamentosDTO.size() > LIMITE_IMPORTACAO) {
+			throw new RegraNegocioException("Envie no máximo " + LIMITE_IMPORTACAO + " lançamentos por importação");
+		}
+		
+		Map<Long, Boolean> usuariosExistentes = new HashMap<>();
+		List<Lancamento> lancamentos = new ArrayList<>(lancamentosDTO.size());
+		List<ErroImportacaoDTO> erros = new ArrayList<>();
+		Map<Long, Dinheiro> diferencas = new LinkedHashMap<>();
+		Map<ChaveResumoMensal, Dinheiro> resumos = new LinkedHashMap<>();
+		
+		for (int i = 0; i < lancamentosDTO.size(); i++) {
+			try {
+				Lancamento lancamento = converterImportacao(lancamentosDTO.get(i), usuariosExistentes);
+				validar(lancamento);
+				lancamentos.add(lancamento);
+				
+				SituacaoLancamento situacao = SituacaoLancamento.de(lancamento);
+				diferencas.merge(situacao.getIdUsuario(), situacao.getContribuicaoSaldo(), Dinheiro::somar);
+				acumularResumo(resumos, situacao, 1);
+			} catch (RegraNegocioException e) {
+				erros.add(new ErroImportacaoDTO(i + 1, e.getMessage()));
+			}
+		}
+		
+		repository.inserirEmLote(lancamentos);
+		aplicarDiferencas(diferencas, null);
+		aplicarResumos(resumos);
+		
+		// os ids gerados pelo insert em lote não são lidos de volta, então o índice do usuário é montado novamente na próxima busca
+		Set<Long> usuarios = new LinkedHashSet<>(diferencas.keySet());
+		Transacoes.aposCommit(() -> usuarios.forEach(buscaDescricaoService::invalidar));
+		
+		return ResultadoImportacaoDTO.builder().importados(lancamentos.size()).erros(erros).build();
+	}
+	
+	/**
+	 * Converte uma linha da importação; o usuário é consultado uma única vez por importação
+	 * e referenciado apenas pelo id
+	 * */
+	private Lancamento converterImportacao(LancamentoDTO dto, Map<Long, Boolean> usuariosExistentes) {
+		Lancamento lancamento = new Lancamento();
+		lancamento.setDescricao(dto.getDescricao());
+		lancamento.setMes(dto.getMes());
+		lancamento.setAno(dto.getAno());
+		lancamento.setValor(dto.getValor());
+		lancamento.setDataCadastro(LocalDate.now());
+		
+		if (dto.getUsuario() != null) {
+			if (!usuariosExistentes.computeIfAbsent(dto.getUsuario(), id -> usuarioService.existe(id))) {
+				throw new RegraNegocioException("Usuário não encontrado para o Id informado");
+			}
+			lancamento.setUsuario(Usuario.builder().id(dto.getUsuario()).build());
+		}
+		
+		try {
+			if (dto.getTipo() != null) {
+				lancamento.setTipo(EnumTipoLancamento.valueOf(dto.getTipo()));
+			}
+		} catch (IllegalArgumentException e) {
+			throw new RegraNegocioException("Informe um 'tipo de lançamento'");
+		}
+		
+		try {
+			lancamento.setStatus(dto.getStatus() == null ? EnumStatusLancamento.PENDENTE : EnumStatusLancamento.valueOf(dto.getStatus()));
+		} catch (IllegalArgumentException e) {
+			throw new RegraNegocioException("Informe um 'status' válido");
+		}
+		
+		return lancamento;
 	}
 
 	@Override
 	@Transactional
 	public void deletar(Lancamento lancamento) {
 		Objects.requireNonNull(lancamento.getId());
+		SituacaoLancamento anterior = repository.obterSituacao(lancamento.getId()).orElse(null);
 		repository.delete(lancamento);
+		atualizarTotais(anterior, null, lancamento.getId());
+		atualizarIndiceDescricao(anterior, null, lancamento);
 	}
 
 	@Override
@@ -62,11 +197,150 @@ public class LancamentoServiceImpl implements LancamentoService {
 		return repository.findAll(example);
 	}
 
+	@Override
+	@Transactional(readOnly = true)
+	public List<LancamentoDTO> listar(Lancamento lancamentoFiltro) {
+		String descricao = lancamentoFiltro.getDescricao();
+		if (descricao == null || descricao.trim().isEmpty()) {
+			return repository.listar(lancamentoFiltro);
+		}
+		
+		// os ids vêm do índice de descrição já ordenados por relevância; o banco só aplica os demais filtros pela chave primária
+		List<Long> ids = buscaDescricaoService.buscar(lancamentoFiltro.getUsuario().getId(), descricao);
+		Map<Long, Integer> posicoes = new HashMap<>(ids.size() * 2);
+		for (int i = 0; i < ids.size(); i++) {
+			posicoes.put(ids.get(i), i);
+		}
+		
+		List<LancamentoDTO> lancamentos = new ArrayList<>();
+		for (List<Long> parte : partes(ids)) {
+			lancamentos.addAll(repository.listarPorIds(lancamentoFiltro, parte));
+		}
+		lancamentos.sort(Comparator.comparing(l -> posicoes.get(l.getId())));
+		return lancamentos;
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public PaginaDTO<LancamentoDTO> buscarPagina(Lancamento lancamentoFiltro, String next, int limite, boolean decrescente) {
+		if (limite < 1 || limite > LIMITE_MAXIMO_PAGINA) {
+			throw new RegraNegocioException("Informe um 'limit' entre 1 e " + LIMITE_MAXIMO_PAGINA);
+		}
+		
+		CursorLancamento cursor = next == null || next.isEmpty() ? null : CursorLancamento.decodificar(next);
+		
+		// busca um registro a mais apenas para saber se existe próxima página, sem consulta de contagem
+		List<LancamentoDTO> lancamentos = repository.buscarPagina(lancamentoFiltro, cursor, limite + 1, decrescente);
+		String proximo = null;
+		if (lancamentos.size() > limite) {
+			lancamentos = lancamentos.subList(0, limite);
+			proximo = CursorLancamento.de(lancamentos.get(limite - 1)).codificar();
+		}
+		
+		return PaginaDTO.<LancamentoDTO>builder().itens(lancamentos).next(proximo).build();
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public void exportar(Long idUsuario, Consumer<LancamentoDTO> consumidor) {
+		repository.percorrerPorUsuario(idUsuario, consumidor);
+	}
+
 	@Override
 	@Transactional
-	public void atualizarStatus(Lancamento lancamento, EnumStatusLancamento status) {
+	public Lancamento atualizarStatus(Lancamento lancamento, EnumStatusLancamento status) {
 		lancamento.setStatus(status);
-		atualizar(lancamento);
+		return atualizar(lancamento);
+	}
+
+	@Override
+	@Transactional
+	public ResultadoAtualizacaoStatusDTO atualizarStatusEmLote(List<Long> ids, EnumStatusLancamento status) {
+		validarStatusLote(status);
+		if (ids == null || ids.isEmpty() || ids.size() > LIMITE_ATUALIZACAO_LOTE) {
+			throw new RegraNegocioException("Informe de 1 a " + LIMITE_ATUALIZACAO_LOTE + " 'ids' de lançamentos");
+		}
+		
+		Set<Long> ignorados = new LinkedHashSet<>(ids);
+		List<Long> elegiveis = new ArrayList<>();
+		for (List<Long> parte : partes(new ArrayList<>(ignorados))) {
+			elegiveis.addAll(repository.obterIdsPorStatus(parte, EnumStatusLancamento.PENDENTE));
+		}
+		ignorados.removeAll(elegiveis);
+		
+		return ResultadoAtualizacaoStatusDTO.builder()
+				.atualizados(transicionarPendentes(elegiveis, status))
+				.ignorados(new ArrayList<>(ignorados))
+				.build();
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public boolean pertencemAoUsuario(List<Long> ids, Long idUsuario) {
+		return partes(new ArrayList<>(new LinkedHashSet<>(ids))).stream()
+				.noneMatch(parte -> repository.existeDeOutroUsuario(parte, idUsuario));
+	}
+
+	@Override
+	@Transactional
+	public ResultadoAtualizacaoStatusDTO atualizarStatusPorMes(Long idUsuario, Integer ano, Integer mes, EnumStatusLancamento status) {
+		validarStatusLote(status);
+		if (idUsuario == null || ano == null || mes == null) {
+			throw new RegraNegocioException("Informe o 'usuario', o 'ano' e o 'mes' dos lançamentos");
+		}
+		
+		List<Long> elegiveis = repository.obterIdsPorUsuarioEMesEStatus(idUsuario, ano, mes, EnumStatusLancamento.PENDENTE);
+		
+		return ResultadoAtualizacaoStatusDTO.builder()
+				.atualizados(transicionarPendentes(elegiveis, status))
+				.ignorados(Collections.emptyList())
+				.build();
+	}
+	
+	private void validarStatusLote(EnumStatusLancamento status) {
+		if (status != EnumStatusLancamento.EFETIVADO && status != EnumStatusLancamento.CANCELADO) {
+			throw new RegraNegocioException("Informe o 'status' EFETIVADO ou CANCELADO");
+		}
+	}
+	
+	/**
+	 * Atualiza os lançamentos pendentes com um update condicional por parte de ids. O total é somado depois
+	 * do update, com as linhas já bloqueadas por esta transação, e a transação é desfeita se outra operação
+	 * alterou o status de algum lançamento depois da seleção dos ids
+	 * */
+	private int transicionarPendentes(List<Long> ids, EnumStatusLancamento novoStatus) {
+		Map<Long, Dinheiro> diferencas = new LinkedHashMap<>();
+		Map<ChaveResumoMensal, Dinheiro> resumos = new LinkedHashMap<>();
+		int atualizados = 0;
+		
+		for (List<Long> parte : partes(ids)) {
+			int quantidade = repository.atualizarStatus(parte, EnumStatusLancamento.PENDENTE, novoStatus);
+			if (quantidade != parte.size()) {
+				throw new RegraNegocioException("Lançamentos foram alterados por outra operação, envie os dados novamente");
+			}
+			atualizados += quantidade;
+			
+			for (SituacaoLancamento atual : repository.somarPorUsuarioEMesETipo(parte, novoStatus)) {
+				SituacaoLancamento anterior = new SituacaoLancamento(atual.getIdUsuario(), atual.getAno(), atual.getMes(), atual.getTipo(),
+						EnumStatusLancamento.PENDENTE, atual.getValor());
+				diferencas.merge(atual.getIdUsuario(), atual.getContribuicaoSaldo().subtrair(anterior.getContribuicaoSaldo()), Dinheiro::somar);
+				acumularResumo(resumos, anterior, -1);
+				acumularResumo(resumos, atual, 1);
+			}
+		}
+		
+		// os ids só são repassados aos eventos quando são todos do mesmo usuário
+		aplicarDiferencas(diferencas, diferencas.size() == 1 ? new ArrayList<>(ids) : null);
+		aplicarResumos(resumos);
+		return atualizados;
+	}
+	
+	private static List<List<Long>> partes(List<Long> ids) {
+		List<List<Long>> partes = new ArrayList<>();
+		for (int i = 0; i < ids.size(); i += TAMANHO_PARTE_IN) {
+			partes.add(ids.subList(i, Math.min(i + TAMANHO_PARTE_IN, ids.size())));
+		}
+		return partes;
 	}
 
 	@SuppressWarnings("unlikely-arg-type")
@@ -75,6 +349,10 @@ public class LancamentoServiceImpl implements LancamentoService {
 			throw new RegraNegocioException("Informe uma 'descrição' válida");
 		}
 		
+		if (l.getDescricao().length() > TAMANHO_MAXIMO_DESCRICAO) {
+			throw new RegraNegocioException("Informe uma 'descrição' com no máximo " + TAMANHO_MAXIMO_DESCRICAO + " caracteres");
+		}
+		
 		if (l.getMes() == null || l.getMes() < 1 || l.getMes() > 12) {
 			throw new RegraNegocioException("Informe um 'mês' válido");
 		}
@@ -87,10 +365,14 @@ public class LancamentoServiceImpl implements LancamentoService {
 			throw new RegraNegocioException("Informe um 'usuário'");
 		}
 		
-		if (l.getValor() == null || l.getValor().compareTo(BigDecimal.ZERO) < 1) {
+		if (l.getValor() == null || l.getValor().compareTo(BigDecimal.ZERO) < 1 || l.getValor().compareTo(VALOR_MAXIMO) > 0) {
 			throw new RegraNegocioException("Informe um 'valor' válido");
 		}
 		
+		if (l.getValor().stripTrailingZeros().scale() > 2) {
+			throw new RegraNegocioException("Informe um 'valor' com no máximo duas casas decimais");
+		}
+		
 		if (l.getTipo() == null || l.getTipo().equals("")) {
 			throw new RegraNegocioException("Informe um 'tipo de lançamento'");
 		}
@@ -102,19 +384,140 @@ public class LancamentoServiceImpl implements LancamentoService {
 	}
 
 	@Override
+	@Transactional(readOnly = true)
+	public Optional<LancamentoDTO> obterDTOPorId(Long id) {
+		return repository.obterDTOPorId(id);
+	}
+
+	@Override
+	@Transactional(readOnly = true)
 	public BigDecimal obterSaldoPorUsuario(Long idUsuario) {
-		BigDecimal receitas = repository.obterSaldoPorTipoLancamentoEUsuarioEStatus(idUsuario, EnumTipoLancamento.RECEITA, EnumStatusLancamento.EFETIVADO);
-		BigDecimal despesas = repository.obterSaldoPorTipoLancamentoEUsuarioEStatus(idUsuario, EnumTipoLancamento.DESPESA, EnumStatusLancamento.EFETIVADO);
+		return saldoRepository.findById(idUsuario).map(saldo -> saldo.getSaldo().toBigDecimal()).orElse(BigDecimal.ZERO);
+	}
+
+	/**
+	 * Os 12 meses do ano, lidos do resumo mensal em uma única consulta pela chave primária
+	 * */
+	@Override
+	@Transactional(readOnly = true)
+	public List<ResumoMensalDTO> obterResumoMensal(Long idUsuario, Integer ano) {
+		List<ResumoMensalDTO> meses = new ArrayList<>(12);
+		for (int mes = 1; mes <= 12; mes++) {
+			meses.add(ResumoMensalDTO.builder().mes(mes).receitas(Dinheiro.ZERO).despesas(Dinheiro.ZERO)
+					.receitasPendentes(Dinheiro.ZERO).despesasPendentes(Dinheiro.ZERO).build());
+		}
+		
+		for (ResumoMensal resumo : resumoRepository.obterPorUsuarioEAno(idUsuario, ano)) {
+			ChaveResumoMensal chave = resumo.getChave();
+			if (chave.getMes() < 1 || chave.getMes() > 12) {
+				continue;
+			}
+			
+			ResumoMensalDTO mes = meses.get(chave.getMes() - 1);
+			boolean receita = chave.getTipo() == EnumTipoLancamento.RECEITA;
+			if (chave.getStatus() == EnumStatusLancamento.EFETIVADO) {
+				if (receita) {
+					mes.setReceitas(mes.getReceitas().somar(resumo.getTotal()));
+				} else {
+					mes.setDespesas(mes.getDespesas().somar(resumo.getTotal()));
+				}
+			} else if (chave.getStatus() == EnumStatusLancamento.PENDENTE) {
+				if (receita) {
+					mes.setReceitasPendentes(mes.getReceitasPendentes().somar(resumo.getTotal()));
+				} else {
+					mes.setDespesasPendentes(mes.getDespesasPendentes().somar(resumo.getTotal()));
+				}
+			}
+		}
+		
+		meses.forEach(mes -> mes.setSaldo(mes.getReceitas().subtrair(mes.getDespesas())));
+		return meses;
+	}
+
+	@Override
+	@Transactional
+	public void recalcularSaldos() {
+		saldoRepository.apagarSaldos();
+		saldoRepository.recalcularSaldos();
+		resumoRepository.apagarResumos();
+		resumoRepository.recalcularResumos();
+		Transacoes.aposCommit(eventosLivroService::publicarTodos);
+	}
+	
+	/**
+	 * Aplica no saldo consolidado e no resumo mensal a diferença entre a situação anterior e a atual do lançamento,
+	 * considerando também a troca de usuário ou de mês do lançamento
+	 * */
+	private void atualizarTotais(SituacaoLancamento anterior, SituacaoLancamento atual, Long idLancamento) {
+		Map<Long, Dinheiro> diferencas = new LinkedHashMap<>();
+		Map<ChaveResumoMensal, Dinheiro> resumos = new LinkedHashMap<>();
 		
-		if (receitas == null) {
-			receitas = BigDecimal.ZERO;
+		if (anterior != null) {
+			diferencas.merge(anterior.getIdUsuario(), anterior.getContribuicaoSaldo().negar(), Dinheiro::somar);
+			acumularResumo(resumos, anterior, -1);
 		}
 		
-		if (despesas == null) {
-			despesas = BigDecimal.ZERO;
+		if (atual != null) {
+			diferencas.merge(atual.getIdUsuario(), atual.getContribuicaoSaldo(), Dinheiro::somar);
+			acumularResumo(resumos, atual, 1);
+		}
+		
+		aplicarDiferencas(diferencas, Collections.singletonList(idLancamento));
+		aplicarResumos(resumos);
+	}
+	
+	private static void acumularResumo(Map<ChaveResumoMensal, Dinheiro> resumos, SituacaoLancamento situacao, int sinal) {
+		if (situacao.getIdUsuario() == null || situacao.getValor() == null) {
+			return;
+		}
+		
+		resumos.merge(ChaveResumoMensal.de(situacao), sinal < 0 ? situacao.getTotal().negar() : situacao.getTotal(), Dinheiro::somar);
+	}
+	
+	/**
+	 * Soma as diferenças nos totais do resumo mensal, criando a linha do mês, tipo e status que ainda não existe
+	 * */
+	private void aplicarResumos(Map<ChaveResumoMensal, Dinheiro> resumos) {
+		resumos.forEach((chave, valor) -> {
+			if (valor.sinal() != 0) {
+				resumoRepository.somarTotal(chave, valor);
+			}
+		});
+	}
+	
+	/**
+	 * Soma as diferenças no saldo consolidado, mudando a versão do livro de cada usuário envolvido mesmo sem diferença
+	 * de saldo, e após o commit avisa as conexões de eventos do usuário com os lançamentos alterados (null quando não
+	 * são conhecidos)
+	 * */
+	private void aplicarDiferencas(Map<Long, Dinheiro> diferencas, Collection<Long> idsLancamentos) {
+		diferencas.forEach(this::somarSaldo);
+		Set<Long> usuarios = new LinkedHashSet<>(diferencas.keySet());
+		Transacoes.aposCommit(() -> usuarios.forEach(idUsuario -> eventosLivroService.publicar(idUsuario, idsLancamentos)));
+	}
+	
+	/**
+	 * Repassa ao índice de descrição, após o commit, a inclusão, alteração ou exclusão do lançamento
+	 * */
+	private void atualizarIndiceDescricao(SituacaoLancamento anterior, SituacaoLancamento atual, Lancamento lancamento) {
+		Long id = lancamento.getId();
+		String descricao = lancamento.getDescricao();
+		Transacoes.aposCommit(() -> {
+			if (anterior != null && (atual == null || !anterior.getIdUsuario().equals(atual.getIdUsuario()))) {
+				buscaDescricaoService.remover(anterior.getIdUsuario(), id);
+			}
+			if (atual != null) {
+				buscaDescricaoService.registrar(atual.getIdUsuario(), id, descricao);
+			}
+		});
+	}
+	
+	private void somarSaldo(Long idUsuario, Dinheiro valor) {
+		if (idUsuario == null) {
+			return;
 		}
 		
-		return receitas.subtract(despesas);
+		saldoRepository.somarSaldo(idUsuario, valor);
 	}
 	
 }
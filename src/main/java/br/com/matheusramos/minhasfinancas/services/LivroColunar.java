@@ -0,0 +1,168 @@
+package br.com.matheusramos.minhasfinancas.services;
+
+import java.util.Arrays;
+
+import br.com.matheusramos.minhasfinancas.enums.EnumStatusLancamento;
+import br.com.matheusramos.minhasfinancas.enums.EnumTipoLancamento;
+import br.com.matheusramos.minhasfinancas.exceptions.RegraNegocioException;
+
+/**
+ * @author Matheus
+ * Lançamentos de um usuário guardados em colunas de tipos primitivos e ordenados por período: valor em centavos (long),
+ * período ano * 12 + mes - 1 (int), tipo e status pelo ordinal (byte). São 14 bytes por lançamento, contra algumas
+ * centenas de uma entidade Lancamento com os seus BigDecimal, Integer, String e LocalDate, e as somas percorrem os
+ * arrays em sequência, sem criar objetos. Não é alterado depois de montado: uma gravação do usuário faz montar outro
+ * */
+class LivroColunar {
+
+	static final int TIPOS = EnumTipoLancamento.values().length;
+	static final int STATUS = EnumStatusLancamento.values().length;
+
+	/**
+	 * Células de cada grupo do resultado de {@link #somar}: uma por combinação de tipo e status
+	 * */
+	static final int CELULAS = TIPOS * STATUS;
+
+	private final long[] centavos;
+	private final int[] periodos;
+	private final byte[] tipos;
+	private final byte[] status;
+	private final int tamanho;
+
+	private LivroColunar(long[] centavos, int[] periodos, byte[] tipos, byte[] status, int tamanho) {
+		this.centavos = centavos;
+		this.periodos = periodos;
+		this.tipos = tipos;
+		this.status = status;
+		this.tamanho = tamanho;
+	}
+
+	static int periodo(int ano, int mes) {
+		return ano * 12 + mes - 1;
+	}
+
+	static int celula(EnumTipoLancamento tipo, EnumStatusLancamento status) {
+		return tipo.ordinal() * STATUS + status.ordinal();
+	}
+
+	int tamanho() {
+		return tamanho;
+	}
+
+	/**
+	 * Soma os centavos e conta os lançamentos com período entre 'periodoInicial' e 'periodoFinal' nas posições
+	 * (periodo - periodoInicial) / agrupamento * CELULAS + {@link #celula} de 'totais' e 'quantidades', que o chamador
+	 * cria zerados e com o tamanho dos grupos. Com agrupamento 1 cada mês é um grupo; com 12, e o período inicial
+	 * em janeiro, cada ano. Um total acima do maior long, possível com muitos lançamentos perto do valor máximo na mesma
+	 * célula, é recusado em vez de virar um total negativo
+	 * */
+	void somar(int periodoInicial, int periodoFinal, int agrupamento, long[] totais, int[] quantidades) {
+		// como os períodos estão em ordem, o grupo só avança, sem uma divisão por lançamento
+		int grupo = 0;
+		int fimGrupo = periodoInicial + agrupamento - 1;
+		for (int i = primeiro(periodoInicial); i < tamanho; i++) {
+			int periodo = periodos[i];
+			if (periodo > periodoFinal) {
+				break;
+			}
+			while (periodo > fimGrupo) {
+				grupo += CELULAS;
+				fimGrupo += agrupamento;
+			}
+			int posicao = grupo + tipos[i] * STATUS + status[i];
+			try {
+				totais[posicao] = Math.addExact(totais[posicao], centavos[i]);
+			} catch (ArithmeticException e) {
+				throw new RegraNegocioException("Os totais do período passam do valor máximo suportado, informe um período menor");
+			}
+			quantidades[posicao]++;
+		}
+	}
+
+	/**
+	 * Busca binária do primeiro lançamento com período maior ou igual ao informado
+	 * */
+	private int primeiro(int periodo) {
+		int inicio = 0;
+		int fim = tamanho;
+		while (inicio < fim) {
+			int meio = (inicio + fim) >>> 1;
+			if (periodos[meio] < periodo) {
+				inicio = meio + 1;
+			} else {
+				fim = meio;
+			}
+		}
+		return inicio;
+	}
+
+	/**
+	 * Acumula as colunas em arrays que dobram de tamanho; os lançamentos devem chegar ordenados por período
+	 * (como na consulta do repositório), caso contrário são ordenados ao montar
+	 * */
+	static class Montagem {
+
+		private long[] centavos = new long[64];
+		private int[] periodos = new int[64];
+		private byte[] tipos = new byte[64];
+		private byte[] status = new byte[64];
+		private int tamanho;
+		private boolean ordenado = true;
+
+		void adicionar(long valorCentavos, int ano, int mes, EnumTipoLancamento tipo, EnumStatusLancamento statusLancamento) {
+			if (tamanho == centavos.length) {
+				int capacidade = tamanho * 2;
+				centavos = Arrays.copyOf(centavos, capacidade);
+				periodos = Arrays.copyOf(periodos, capacidade);
+				tipos = Arrays.copyOf(tipos, capacidade);
+				status = Arrays.copyOf(status, capacidade);
+			}
+
+			int periodo = periodo(ano, mes);
+			ordenado &= tamanho == 0 || periodos[tamanho - 1] <= periodo;
+			centavos[tamanho] = valorCentavos;
+			periodos[tamanho] = periodo;
+			tipos[tamanho] = (byte) tipo.ordinal();
+			status[tamanho] = (byte) statusLancamento.ordinal();
+			tamanho++;
+		}
+
+		LivroColunar montar() {
+			if (!ordenado) {
+				ordenar();
+			}
+			return new LivroColunar(Arrays.copyOf(centavos, tamanho), Arrays.copyOf(periodos, tamanho),
+					Arrays.copyOf(tipos, tamanho), Arrays.copyOf(status, tamanho), tamanho);
+		}
+
+		/**
+		 * Ordena pelo período levando a posição original nos 32 bits baixos da chave
+		 * */
+		private void ordenar() {
+			long[] chaves = new long[tamanho];
+			for (int i = 0; i < tamanho; i++) {
+				chaves[i] = ((long) periodos[i] << 32) | i;
+			}
+			Arrays.sort(chaves);
+
+			long[] novosCentavos = new long[tamanho];
+			int[] novosPeriodos = new int[tamanho];
+			byte[] novosTipos = new byte[tamanho];
+			byte[] novosStatus = new byte[tamanho];
+			for (int i = 0; i < tamanho; i++) {
+				int origem = (int) chaves[i];
+				novosCentavos[i] = centavos[origem];
+				novosPeriodos[i] = periodos[origem];
+				novosTipos[i] = tipos[origem];
+				novosStatus[i] = status[origem];
+			}
+			centavos = novosCentavos;
+			periodos = novosPeriodos;
+			tipos = novosTipos;
+			status = novosStatus;
+			ordenado = true;
+		}
+
+	}
+
+}
@@ -0,0 +1,143 @@
+package br.com.matheusramos.minhasfinancas.services;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import br.com.matheusramos.minhasfinancas.exceptions.ServicoOcupadoException;
+import br.com.matheusramos.minhasfinancas.interfaces.SenhaService;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * @author Matheus
+ * BCrypt leva dezenas de milissegundos por senha; roda em um pool limitado e separado das threads do Tomcat,
+ * para que um pico de logins enfileire aqui em vez de ocupar todas as threads de requisição.
+ * Tarefas que esperaram na fila mais que o tempo limite são descartadas sem calcular o hash
+ * */
+@Slf4j
+@Service
+public class SenhaServiceImpl implements SenhaService {
+
+	static final int CUSTO_MINIMO = 4;
+	static final int CUSTO_MAXIMO = 16;
+	
+	private static final Pattern BCRYPT = Pattern.compile("\\$2[aby]?\\$(\\d\\d)\\$[./0-9A-Za-z]{53}");
+	
+	private final BCryptPasswordEncoder encoder;
+	private final ThreadPoolExecutor executor;
+	private final long tempoLimiteNanos;
+	
+	public SenhaServiceImpl(
+			@Value("${minhasfinancas.senha.custo:10}") int custo,
+			@Value("${minhasfinancas.senha.tempo-alvo-ms:0}") long tempoAlvoMs,
+			@Value("${minhasfinancas.senha.threads:0}") int threads,
+			@Value("${minhasfinancas.senha.fila:64}") int fila,
+			@Value("${minhasfinancas.senha.tempo-limite-ms:2000}") long tempoLimiteMs) {
+		if (tempoAlvoMs > 0) {
+			custo = calibrarCusto(tempoAlvoMs);
+			log.info("Custo do BCrypt calibrado para {} (alvo de {} ms por hash)", custo, tempoAlvoMs);
+		}
+		
+		int tamanho = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+		AtomicInteger contador = new AtomicInteger();
+		
+		this.encoder = new BCryptPasswordEncoder(custo);
+		this.executor = new ThreadPoolExecutor(tamanho, tamanho, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(fila), tarefa -> {
+			Thread thread = new Thread(tarefa, "senha-" + contador.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+		this.tempoLimiteNanos = TimeUnit.MILLISECONDS.toNanos(tempoLimiteMs);
+	}
+	
+	@Override
+	public CompletableFuture<String> codificar(String senha) {
+		return executar(() -> encoder.encode(senha));
+	}
+	
+	@Override
+	public CompletableFuture<Boolean> confere(String senha, String senhaArmazenada) {
+		if (senha == null || senhaArmazenada == null) {
+			return CompletableFuture.completedFuture(false);
+		}
+		
+		if (!codificada(senhaArmazenada)) {
+			// senha anterior ao hash, comparada em tempo constante
+			return CompletableFuture.completedFuture(MessageDigest.isEqual(
+					senha.getBytes(StandardCharsets.UTF_8), senhaArmazenada.getBytes(StandardCharsets.UTF_8)));
+		}
+		
+		return executar(() -> encoder.matches(senha, senhaArmazenada));
+	}
+	
+	@Override
+	public boolean precisaAtualizar(String senhaArmazenada) {
+		return senhaArmazenada != null && (!codificada(senhaArmazenada) || encoder.upgradeEncoding(senhaArmazenada));
+	}
+	
+	static boolean codificada(String senhaArmazenada) {
+		return BCRYPT.matcher(senhaArmazenada).matches();
+	}
+	
+	/**
+	 * Maior custo cujo hash, medido nesta máquina, fica dentro do tempo alvo
+	 * */
+	static int calibrarCusto(long tempoAlvoMs) {
+		new BCryptPasswordEncoder(CUSTO_MINIMO).encode("aquecimento");
+		
+		int custo = CUSTO_MINIMO;
+		while (custo < CUSTO_MAXIMO) {
+			BCryptPasswordEncoder candidato = new BCryptPasswordEncoder(custo + 1);
+			long inicio = System.nanoTime();
+			candidato.encode("calibracao");
+			if (TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio) > tempoAlvoMs) {
+				break;
+			}
+			custo++;
+		}
+		return custo;
+	}
+	
+	private <T> CompletableFuture<T> executar(Supplier<T> hash) {
+		CompletableFuture<T> resultado = new CompletableFuture<>();
+		long enfileirado = System.nanoTime();
+		
+		try {
+			executor.execute(() -> {
+				if (System.nanoTime() - enfileirado > tempoLimiteNanos) {
+					resultado.completeExceptionally(new ServicoOcupadoException("Tempo limite de autenticação excedido, tente novamente"));
+					return;
+				}
+				
+				try {
+					resultado.complete(hash.get());
+				} catch (RuntimeException e) {
+					resultado.completeExceptionally(e);
+				}
+			});
+		} catch (RejectedExecutionException e) {
+			resultado.completeExceptionally(new ServicoOcupadoException("Muitas autenticações simultâneas, tente novamente"));
+		}
+		
+		return resultado;
+	}
+	
+	@PreDestroy
+	public void encerrar() {
+		executor.shutdown();
+	}
+	
+}
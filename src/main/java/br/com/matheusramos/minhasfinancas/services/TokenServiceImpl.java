@@ -0,0 +1,217 @@
+package br.com.matheusramos.minhasfinancas.services;
+
+import java.nio.ByteBuffer;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import br.com.matheusramos.minhasfinancas.interfaces.TokenService;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * @author Matheus
+ * Token: base64url(chave | id do usuário | expiração | identificador) + "." + base64url(HMAC-SHA256).
+ * A primeira chave de 'minhasfinancas.token.chaves' assina e todas verificam, o que permite a rotação:
+ * adiciona-se a nova chave no início e remove-se a antiga depois da validade dos tokens.
+ * O logout revoga o identificador do token até a sua expiração
+ * */
+@Slf4j
+@Service
+public class TokenServiceImpl implements TokenService {
+
+	private static final String ALGORITMO = "HmacSHA256";
+	private static final int TAMANHO_CONTEUDO = 1 + Long.BYTES * 3;
+	private static final int TAMANHO_MINIMO_CHAVE = 32;
+	private static final int LIMPEZA_REVOGADOS = 10000;
+	
+	private final List<Chave> chaves;
+	private final long validadeSegundos;
+	private final Clock relogio;
+	private final SecureRandom aleatorio = new SecureRandom();
+	
+	/**
+	 * Identificador do token revogado -> expiração (segundos), mantido somente até o token expirar
+	 * */
+	private final Map<Long, Long> revogados = new ConcurrentHashMap<>();
+	
+	@Autowired
+	public TokenServiceImpl(
+			@Value("${minhasfinancas.token.chaves:}") String chaves,
+			@Value("${minhasfinancas.token.validade-minutos:60}") long validadeMinutos) {
+		this(chaves, validadeMinutos, Clock.systemUTC());
+	}
+	
+	TokenServiceImpl(String chaves, long validadeMinutos, Clock relogio) {
+		this.chaves = lerChaves(chaves);
+		this.validadeSegundos = TimeUnit.MINUTES.toSeconds(validadeMinutos);
+		this.relogio = relogio;
+	}
+	
+	@Override
+	public String emitir(Long idUsuario) {
+		Chave chave = chaves.get(0);
+		byte[] conteudo = ByteBuffer.allocate(TAMANHO_CONTEUDO)
+				.put(chave.id)
+				.putLong(idUsuario)
+				.putLong(agora() + validadeSegundos)
+				.putLong(aleatorio.nextLong())
+				.array();
+		
+		Base64.Encoder base64 = Base64.getUrlEncoder().withoutPadding();
+		return base64.encodeToString(conteudo) + "." + base64.encodeToString(chave.assinar(conteudo));
+	}
+	
+	@Override
+	public Optional<Long> verificar(String token) {
+		return ler(token).filter(lido -> !revogados.containsKey(lido.identificador)).map(lido -> lido.idUsuario);
+	}
+	
+	@Override
+	public void revogar(String token) {
+		ler(token).ifPresent(lido -> {
+			if (revogados.size() >= LIMPEZA_REVOGADOS) {
+				long agora = agora();
+				revogados.values().removeIf(expiracao -> expiracao <= agora);
+			}
+			revogados.put(lido.identificador, lido.expiracao);
+		});
+	}
+	
+	private Optional<TokenLido> ler(String token) {
+		if (token == null) {
+			return Optional.empty();
+		}
+		
+		int separador = token.indexOf('.');
+		if (separador < 0) {
+			return Optional.empty();
+		}
+		
+		byte[] conteudo;
+		byte[] assinatura;
+		try {
+			conteudo = Base64.getUrlDecoder().decode(token.substring(0, separador));
+			assinatura = Base64.getUrlDecoder().decode(token.substring(separador + 1));
+		} catch (IllegalArgumentException e) {
+			return Optional.empty();
+		}
+		
+		if (conteudo.length != TAMANHO_CONTEUDO) {
+			return Optional.empty();
+		}
+		
+		Chave chave = chave(conteudo[0]);
+		if (chave == null || !MessageDigest.isEqual(chave.assinar(conteudo), assinatura)) {
+			return Optional.empty();
+		}
+		
+		ByteBuffer buffer = ByteBuffer.wrap(conteudo, 1, TAMANHO_CONTEUDO - 1);
+		TokenLido lido = new TokenLido(buffer.getLong(), buffer.getLong(), buffer.getLong());
+		return lido.expiracao > agora() ? Optional.of(lido) : Optional.empty();
+	}
+	
+	private Chave chave(byte id) {
+		for (Chave chave : chaves) {
+			if (chave.id == id) {
+				return chave;
+			}
+		}
+		return null;
+	}
+	
+	private long agora() {
+		return TimeUnit.MILLISECONDS.toSeconds(relogio.millis());
+	}
+	
+	private List<Chave> lerChaves(String chaves) {
+		List<Chave> lidas = new ArrayList<>();
+		for (String chave : StringUtils.commaDelimitedListToStringArray(chaves)) {
+			if (chave.trim().isEmpty()) {
+				continue;
+			}
+			
+			Chave lida = new Chave(Base64.getDecoder().decode(chave.trim()));
+			if (lidas.stream().anyMatch(outra -> outra.id == lida.id)) {
+				throw new IllegalStateException("Duas chaves de token com o mesmo identificador; gere outra chave");
+			}
+			lidas.add(lida);
+		}
+		
+		if (lidas.isEmpty()) {
+			log.warn("'minhasfinancas.token.chaves' não configurada; usando uma chave aleatória, os tokens não valem após reiniciar");
+			byte[] segredo = new byte[TAMANHO_MINIMO_CHAVE];
+			aleatorio.nextBytes(segredo);
+			lidas.add(new Chave(segredo));
+		}
+		return Collections.unmodifiableList(lidas);
+	}
+	
+	private static class TokenLido {
+		
+		private final long idUsuario;
+		private final long expiracao;
+		private final long identificador;
+		
+		TokenLido(long idUsuario, long expiracao, long identificador) {
+			this.idUsuario = idUsuario;
+			this.expiracao = expiracao;
+			this.identificador = identificador;
+		}
+		
+	}
+	
+	private static class Chave {
+		
+		private final byte id;
+		private final ThreadLocal<Mac> mac;
+		
+		Chave(byte[] segredo) {
+			if (segredo.length < TAMANHO_MINIMO_CHAVE) {
+				throw new IllegalStateException("As chaves de token devem ter ao menos " + TAMANHO_MINIMO_CHAVE + " bytes");
+			}
+			
+			SecretKeySpec especificacao = new SecretKeySpec(segredo, ALGORITMO);
+			this.id = resumo(segredo);
+			this.mac = ThreadLocal.withInitial(() -> {
+				try {
+					Mac instancia = Mac.getInstance(ALGORITMO);
+					instancia.init(especificacao);
+					return instancia;
+				} catch (GeneralSecurityException e) {
+					throw new IllegalStateException(e);
+				}
+			});
+		}
+		
+		byte[] assinar(byte[] conteudo) {
+			return mac.get().doFinal(conteudo);
+		}
+		
+		private static byte resumo(byte[] segredo) {
+			try {
+				return MessageDigest.getInstance("SHA-256").digest(segredo)[0];
+			} catch (GeneralSecurityException e) {
+				throw new IllegalStateException(e);
+			}
+		}
+		
+	}
+	
+}
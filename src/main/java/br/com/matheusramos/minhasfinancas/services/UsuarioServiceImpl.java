@@ -1,56 +1,110 @@
 package br.com.matheusramos.minhasfinancas.services;
 
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
 
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import br.com.matheusramos.minhasfinancas.exceptions.ErroAuthException;
 import br.com.matheusramos.minhasfinancas.exceptions.RegraNegocioException;
+import br.com.matheusramos.minhasfinancas.interfaces.SenhaService;
 import br.com.matheusramos.minhasfinancas.interfaces.UsuarioService;
 import br.com.matheusramos.minhasfinancas.model.entity.Usuario;
 import br.com.matheusramos.minhasfinancas.repositories.UsuarioRepository;
+import lombok.extern.slf4j.Slf4j;
 
 /**
  * @author Matheus
  * */
+@Slf4j
 @Service
 public class UsuarioServiceImpl implements UsuarioService {
 	
+	private static final int LIMITE_USUARIOS_CONHECIDOS = 100000;
+	private static final String EMAIL_JA_CADASTRADO = "Já existe um usuário cadastrado com este email";
+	
 	private UsuarioRepository usuarioRepository;
+	private SenhaService senhaService;
+	
+	/**
+	 * Ids de usuários já confirmados na base; usuários não são excluídos, então a confirmação não expira
+	 * */
+	private final Set<Long> usuariosConhecidos = ConcurrentHashMap.newKeySet();
 	
-	public UsuarioServiceImpl(UsuarioRepository usuarioRepository) {
+	public UsuarioServiceImpl(UsuarioRepository usuarioRepository, SenhaService senhaService) {
 		super();
 		this.usuarioRepository = usuarioRepository;
+		this.senhaService = senhaService;
 	}
 
 	@Override
 	public Usuario autenticar(String email, String senha) {
+		return aguardar(autenticarAssincrono(email, senha));
+	}
+	
+	@Override
+	public CompletableFuture<Usuario> autenticarAssincrono(String email, String senha) {
 		Optional<Usuario> usuario = usuarioRepository.findByEmail(email);
 		
 		if (!usuario.isPresent()) {
-			throw new ErroAuthException("Usuário não encontrado para o email informado");
-		}
-		
-		if (!usuario.get().getSenha().equals(senha)) {
-			throw new ErroAuthException("Senha de usuário inválida");
+			CompletableFuture<Usuario> erro = new CompletableFuture<>();
+			erro.completeExceptionally(new ErroAuthException("Usuário não encontrado para o email informado"));
+			return erro;
 		}
 		
-		return usuario.get();
+		String senhaArmazenada = usuario.get().getSenha();
+		return senhaService.confere(senha, senhaArmazenada).thenApply(confere -> {
+			if (!confere) {
+				throw new ErroAuthException("Senha de usuário inválida");
+			}
+			
+			if (senhaService.precisaAtualizar(senhaArmazenada)) {
+				atualizarSenha(usuario.get().getId(), senhaArmazenada, senha);
+			}
+			return usuario.get();
+		});
+	}
+	
+	/**
+	 * Migração transparente: senhas em texto puro (ou com outro custo) recebem o hash atual no primeiro login válido,
+	 * sem atrasar a resposta do login
+	 * */
+	private void atualizarSenha(Long id, String senhaArmazenada, String senha) {
+		senhaService.codificar(senha)
+				.thenAccept(hash -> usuarioRepository.atualizarSenha(id, senhaArmazenada, hash))
+				.exceptionally(e -> {
+					log.warn("Não foi possível atualizar o hash da senha do usuário {}: {}", id, e.getMessage());
+					return null;
+				});
 	}
 
+	/**
+	 * Sem transação própria: o hash da senha é calculado entre a validação do email e o insert, cada um na sua
+	 * transação, sem prender uma conexão enquanto espera o pool do SenhaService. Dois cadastros simultâneos com o mesmo
+	 * email passam os dois pela validação; o segundo esbarra no índice único do email e recebe o mesmo erro da validação
+	 * */
 	@Override
-	@Transactional
 	public Usuario salvarUsuario(Usuario usuario) {
 		validarEmail(usuario.getEmail());
-		return usuarioRepository.save(usuario);
+		if (usuario.getSenha() != null) {
+			usuario.setSenha(aguardar(senhaService.codificar(usuario.getSenha())));
+		}
+		try {
+			return usuarioRepository.save(usuario);
+		} catch (DataIntegrityViolationException e) {
+			throw new RegraNegocioException(EMAIL_JA_CADASTRADO);
+		}
 	}
 
 	@Override
 	public void validarEmail(String email) {
 		boolean existe = usuarioRepository.existsByEmail(email);
 		if (existe) {
-			throw new RegraNegocioException("Já existe um usuário cadastrado com este email");
+			throw new RegraNegocioException(EMAIL_JA_CADASTRADO);
 		}
 	}
 
@@ -58,5 +112,45 @@ public class UsuarioServiceImpl implements UsuarioService {
 	public Optional<Usuario> obterPorId(Long id) {
 		return usuarioRepository.findById(id);
 	}
-	
+
+	@Override
+	public boolean existe(Long id) {
+		if (id == null) {
+			return false;
+		}
+		
+		if (usuariosConhecidos.contains(id)) {
+			return true;
+		}
+		
+		boolean existe = usuarioRepository.existsById(id);
+		if (existe) {
+			if (usuariosConhecidos.size() >= LIMITE_USUARIOS_CONHECIDOS) {
+				usuariosConhecidos.clear();
+			}
+			usuariosConhecidos.add(id);
+		}
+		
+		return existe;
+	}
+
+	/**
+	 * Referência (proxy) ao usuário, para associar a outras entidades sem consultar a tabela de usuários
+	 * */
+	@Override
+	public Usuario obterReferencia(Long id) {
+		return usuarioRepository.getOne(id);
+	}
+
+	private static <T> T aguardar(CompletableFuture<T> future) {
+		try {
+			return future.join();
+		} catch (CompletionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw e;
+		}
+	}
+
 }
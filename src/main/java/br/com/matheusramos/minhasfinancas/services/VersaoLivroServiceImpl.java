@@ -0,0 +1,35 @@
+package br.com.matheusramos.minhasfinancas.services;
+
+import java.util.function.Function;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import br.com.matheusramos.minhasfinancas.interfaces.VersaoLivroService;
+import br.com.matheusramos.minhasfinancas.repositories.SaldoUsuarioRepository;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * @author Matheus
+ * As versões vêm da sequência versao_livro, então as de um usuário só crescem, inclusive depois do recálculo dos
+ * saldos. Usuários sem linha de saldo ainda não gravaram nada e têm a versão 0
+ * */
+@Service
+@RequiredArgsConstructor
+public class VersaoLivroServiceImpl implements VersaoLivroService {
+
+	private final SaldoUsuarioRepository saldoRepository;
+	
+	@Override
+	@Transactional(readOnly = true)
+	public String etag(Long idUsuario) {
+		return "\"" + Long.toString(saldoRepository.obterVersao(idUsuario).orElse(0L), 36) + "\"";
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public <T> T consultar(Long idUsuario, Function<String, T> consulta) {
+		return consulta.apply(etag(idUsuario));
+	}
+
+}
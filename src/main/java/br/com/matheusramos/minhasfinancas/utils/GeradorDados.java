@@ -0,0 +1,111 @@
+package br.com.matheusramos.minhasfinancas.utils;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import br.com.matheusramos.minhasfinancas.enums.EnumStatusLancamento;
+import br.com.matheusramos.minhasfinancas.enums.EnumTipoLancamento;
+import br.com.matheusramos.minhasfinancas.model.entity.Lancamento;
+import br.com.matheusramos.minhasfinancas.model.entity.Usuario;
+
+/**
+ * @author Matheus
+ * Gera usuários e lançamentos sintéticos a partir de uma semente fixa: a mesma semente e as mesmas quantidades
+ * produzem sempre os mesmos dados. A quantidade de lançamentos por usuário é desigual (poucos usuários concentram
+ * muitos lançamentos), os anos recentes têm mais lançamentos, há mais despesas que receitas e os meses
+ * antigos estão quase todos efetivados, enquanto os do último ano ainda têm pendências
+ * */
+public class GeradorDados {
+
+	public static final String SENHA = "123456";
+	
+	private static final String[][] RECEITAS = { { "Salário", "4500" }, { "Freelance", "1200" }, { "Rendimentos", "150" }, { "Reembolso", "80" } };
+	private static final String[][] DESPESAS = { { "Aluguel", "1500" }, { "Supermercado", "350" }, { "Conta de luz", "140" }, { "Conta de água", "70" },
+			{ "Internet", "100" }, { "Combustível", "200" }, { "Farmácia", "60" }, { "Restaurante", "80" }, { "Academia", "90" }, { "Cartão de crédito", "900" } };
+	
+	private final Random random;
+	private final int anoAtual;
+	
+	public GeradorDados(long semente, int anoAtual) {
+		this.random = new Random(semente);
+		this.anoAtual = anoAtual;
+	}
+	
+	public static String email(int indice) {
+		return "usuario" + indice + "@carga.minhasfinancas";
+	}
+	
+	public Usuario usuario(int indice) {
+		return Usuario.builder().nome("Usuário " + indice).email(email(indice)).senha(SENHA).build();
+	}
+	
+	/**
+	 * Distribui o total de lançamentos entre os usuários com pesos exponenciais, somando exatamente o total
+	 * */
+	public int[] distribuir(int usuarios, int lancamentos) {
+		double[] pesos = new double[usuarios];
+		double soma = 0;
+		for (int i = 0; i < usuarios; i++) {
+			pesos[i] = -Math.log(1 - random.nextDouble());
+			soma += pesos[i];
+		}
+		
+		int[] quantidades = new int[usuarios];
+		int distribuidos = 0;
+		for (int i = 0; i < usuarios; i++) {
+			quantidades[i] = (int) (lancamentos * pesos[i] / soma);
+			distribuidos += quantidades[i];
+		}
+		for (int i = 0; distribuidos < lancamentos; i = (i + 1) % usuarios, distribuidos++) {
+			quantidades[i]++;
+		}
+		return quantidades;
+	}
+	
+	public List<Lancamento> lancamentos(Usuario usuario, int quantidade) {
+		List<Lancamento> lancamentos = new ArrayList<>(quantidade);
+		for (int i = 0; i < quantidade; i++) {
+			lancamentos.add(lancamento(usuario));
+		}
+		return lancamentos;
+	}
+	
+	private Lancamento lancamento(Usuario usuario) {
+		// anos: 50% o atual, 30% o anterior, 20% dois anos atrás
+		double sorteioAno = random.nextDouble();
+		int ano = sorteioAno < 0.5 ? anoAtual : sorteioAno < 0.8 ? anoAtual - 1 : anoAtual - 2;
+		int mes = random.nextInt(12) + 1;
+		
+		EnumTipoLancamento tipo = random.nextDouble() < 0.2 ? EnumTipoLancamento.RECEITA : EnumTipoLancamento.DESPESA;
+		String[] modelo = (tipo == EnumTipoLancamento.RECEITA ? RECEITAS : DESPESAS)[random.nextInt(tipo == EnumTipoLancamento.RECEITA ? RECEITAS.length : DESPESAS.length)];
+		
+		// valor em torno do típico da descrição, com cauda longa (log-normal)
+		BigDecimal valor = new BigDecimal(modelo[1]).multiply(BigDecimal.valueOf(Math.exp(random.nextGaussian() * 0.4)))
+				.setScale(2, RoundingMode.HALF_UP).max(new BigDecimal("0.01"));
+		
+		return Lancamento.builder()
+				.descricao(modelo[0])
+				.ano(ano)
+				.mes(mes)
+				.valor(valor)
+				.tipo(tipo)
+				.status(status(ano))
+				.usuario(usuario)
+				.dataCadastro(LocalDate.of(ano, mes, 1))
+				.build();
+	}
+	
+	private EnumStatusLancamento status(int ano) {
+		double sorteio = random.nextDouble();
+		double pendentes = ano == anoAtual ? 0.35 : 0.03;
+		if (sorteio < pendentes) {
+			return EnumStatusLancamento.PENDENTE;
+		}
+		return sorteio < pendentes + 0.05 ? EnumStatusLancamento.CANCELADO : EnumStatusLancamento.EFETIVADO;
+	}
+	
+}
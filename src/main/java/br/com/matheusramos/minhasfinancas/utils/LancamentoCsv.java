@@ -0,0 +1,167 @@
+package br.com.matheusramos.minhasfinancas.utils;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import br.com.matheusramos.minhasfinancas.dtos.LancamentoDTO;
+
+/**
+ * @author Matheus
+ * Formato CSV (RFC 4180) dos lançamentos
+ * */
+public final class LancamentoCsv {
+
+	public static final String CABECALHO = "id,descricao,mes,ano,valor,tipo,status,usuario";
+	
+	private LancamentoCsv() {
+	}
+	
+	public static String linha(LancamentoDTO dto) {
+		return new StringBuilder()
+				.append(valor(dto.getId())).append(',')
+				.append(texto(dto.getDescricao())).append(',')
+				.append(valor(dto.getMes())).append(',')
+				.append(valor(dto.getAno())).append(',')
+				.append(dto.getValor() == null ? "" : dto.getValor().toPlainString()).append(',')
+				.append(texto(dto.getTipo())).append(',')
+				.append(texto(dto.getStatus())).append(',')
+				.append(valor(dto.getUsuario()))
+				.toString();
+	}
+	
+	/**
+	 * Lê os lançamentos de um CSV com cabeçalho. As colunas são localizadas pelo nome e valores
+	 * que não puderem ser convertidos ficam nulos, para serem apontados na validação do lançamento
+	 * */
+	public static List<LancamentoDTO> ler(Reader entrada) throws IOException {
+		BufferedReader reader = new BufferedReader(entrada);
+		List<LancamentoDTO> lancamentos = new ArrayList<>();
+		
+		List<String> cabecalho = registro(reader);
+		if (cabecalho == null) {
+			return lancamentos;
+		}
+		
+		Map<String, Integer> colunas = new HashMap<>();
+		for (int i = 0; i < cabecalho.size(); i++) {
+			colunas.put(cabecalho.get(i).replace("\uFEFF", "").trim().toLowerCase(), i);
+		}
+		
+		List<String> campos;
+		while ((campos = registro(reader)) != null) {
+			if (campos.size() == 1 && campos.get(0).trim().isEmpty()) {
+				continue;
+			}
+			
+			lancamentos.add(LancamentoDTO.builder()
+					.descricao(campo(campos, colunas, "descricao"))
+					.mes(inteiro(campo(campos, colunas, "mes")))
+					.ano(inteiro(campo(campos, colunas, "ano")))
+					.valor(decimal(campo(campos, colunas, "valor")))
+					.tipo(campo(campos, colunas, "tipo"))
+					.status(campo(campos, colunas, "status"))
+					.usuario(longo(campo(campos, colunas, "usuario")))
+					.build());
+		}
+		
+		return lancamentos;
+	}
+	
+	/**
+	 * Lê um registro, respeitando campos entre aspas com vírgulas, aspas duplicadas e quebras de linha
+	 * */
+	private static List<String> registro(Reader reader) throws IOException {
+		int c = reader.read();
+		if (c == -1) {
+			return null;
+		}
+		
+		List<String> campos = new ArrayList<>();
+		StringBuilder campo = new StringBuilder();
+		boolean entreAspas = false;
+		
+		while (c != -1) {
+			if (entreAspas) {
+				if (c == '"') {
+					int proximo = reader.read();
+					if (proximo != '"') {
+						entreAspas = false;
+						c = proximo;
+						continue;
+					}
+				}
+				campo.append((char) c);
+			} else if (c == '"') {
+				entreAspas = true;
+			} else if (c == ',') {
+				campos.add(campo.toString());
+				campo.setLength(0);
+			} else if (c == '\n') {
+				break;
+			} else if (c != '\r') {
+				campo.append((char) c);
+			}
+			
+			c = reader.read();
+		}
+		
+		campos.add(campo.toString());
+		return campos;
+	}
+	
+	private static String campo(List<String> campos, Map<String, Integer> colunas, String nome) {
+		Integer indice = colunas.get(nome);
+		if (indice == null || indice >= campos.size() || campos.get(indice).trim().isEmpty()) {
+			return null;
+		}
+		
+		return campos.get(indice).trim();
+	}
+	
+	private static Integer inteiro(String valor) {
+		try {
+			return valor == null ? null : Integer.valueOf(valor);
+		} catch (NumberFormatException e) {
+			return null;
+		}
+	}
+	
+	private static Long longo(String valor) {
+		try {
+			return valor == null ? null : Long.valueOf(valor);
+		} catch (NumberFormatException e) {
+			return null;
+		}
+	}
+	
+	private static BigDecimal decimal(String valor) {
+		try {
+			return valor == null ? null : new BigDecimal(valor);
+		} catch (NumberFormatException e) {
+			return null;
+		}
+	}
+	
+	private static String valor(Object valor) {
+		return valor == null ? "" : valor.toString();
+	}
+	
+	private static String texto(String texto) {
+		if (texto == null) {
+			return "";
+		}
+		
+		if (texto.indexOf(',') < 0 && texto.indexOf('"') < 0 && texto.indexOf('\n') < 0 && texto.indexOf('\r') < 0) {
+			return texto;
+		}
+		
+		return '"' + texto.replace("\"", "\"\"") + '"';
+	}
+	
+}
@@ -0,0 +1,31 @@
+package br.com.matheusramos.minhasfinancas.utils;
+
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * @author Matheus
+ * */
+public final class Transacoes {
+
+	private Transacoes() {
+	}
+	
+	/**
+	 * Executa a ação somente após o commit da transação atual, ou imediatamente quando não há transação
+	 * */
+	public static void aposCommit(Runnable acao) {
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			acao.run();
+			return;
+		}
+		
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+			@Override
+			public void afterCommit() {
+				acao.run();
+			}
+		});
+	}
+	
+}
@@ -0,0 +1,8 @@
+-- Listagem, paginação e exportação: filtro por usuário, ordenação por (ano, mes)
+CREATE INDEX idx_lancamento_usuario_ano_mes ON financas.lancamento (id_usuario, ano, mes);
+
+-- Saldo por tipo e status do usuário
+CREATE INDEX idx_lancamento_usuario_tipo_status ON financas.lancamento (id_usuario, tipo, status);
+
+-- Autenticação e validação de e-mail
+CREATE UNIQUE INDEX idx_usuario_email ON financas.usuario (email);
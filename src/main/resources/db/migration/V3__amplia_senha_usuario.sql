@@ -0,0 +1,2 @@
+-- Hash BCrypt (60 caracteres); senhas em texto puro recebem o hash no próximo login
+ALTER TABLE financas.usuario ALTER COLUMN senha SET DATA TYPE character varying(100);
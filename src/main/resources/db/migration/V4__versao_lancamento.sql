@@ -0,0 +1,2 @@
+-- Controle de concorrência otimista: incrementada a cada alteração do lançamento
+ALTER TABLE financas.lancamento ADD COLUMN versao bigint DEFAULT 0 NOT NULL;
@@ -0,0 +1,14 @@
+-- Totais dos lançamentos por usuário, mês, tipo e status, mantidos na mesma transação das escritas de lançamento
+CREATE TABLE financas.resumo_mensal
+(
+  id_usuario bigint NOT NULL REFERENCES financas.usuario (id),
+  ano integer NOT NULL,
+  mes integer NOT NULL,
+  tipo character varying(20) NOT NULL,
+  status character varying(20) NOT NULL,
+  total numeric(16,2) NOT NULL default 0,
+  PRIMARY KEY (id_usuario, ano, mes, tipo, status)
+);
+
+INSERT INTO financas.resumo_mensal (id_usuario, ano, mes, tipo, status, total)
+SELECT id_usuario, ano, mes, tipo, status, coalesce(sum(valor), 0) FROM financas.lancamento GROUP BY id_usuario, ano, mes, tipo, status;
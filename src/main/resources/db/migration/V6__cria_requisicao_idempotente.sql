@@ -0,0 +1,11 @@
+-- Primeira resposta das requisições com Idempotency-Key, para instalações com mais de um nó; status nulo enquanto a requisição está em andamento
+CREATE TABLE financas.requisicao_idempotente
+(
+  chave character varying(300) NOT NULL PRIMARY KEY,
+  impressao character varying(64) NOT NULL,
+  status integer,
+  corpo text,
+  expira_em timestamp NOT NULL
+);
+
+CREATE INDEX idx_requisicao_idempotente_expira_em ON financas.requisicao_idempotente (expira_em);
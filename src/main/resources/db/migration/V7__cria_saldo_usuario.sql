@@ -0,0 +1,13 @@
+-- Saldo efetivado por usuário, mantido na mesma transação das escritas de lançamento. Bases criadas pelo antigo script sqls/
+-- (baseline na versão 1) já podem ter a tabela, então ela e o saldo de cada usuário só são criados quando faltam
+CREATE TABLE IF NOT EXISTS financas.saldo_usuario
+(
+  id_usuario bigint NOT NULL PRIMARY KEY REFERENCES financas.usuario (id),
+  saldo numeric(16,2) NOT NULL default 0
+);
+
+INSERT INTO financas.saldo_usuario (id_usuario, saldo)
+SELECT u.id, coalesce(sum(case when l.tipo = 'RECEITA' then l.valor else -l.valor end), 0)
+FROM financas.usuario u LEFT JOIN financas.lancamento l ON l.id_usuario = u.id AND l.status = 'EFETIVADO'
+WHERE NOT EXISTS (SELECT 1 FROM financas.saldo_usuario s WHERE s.id_usuario = u.id)
+GROUP BY u.id;
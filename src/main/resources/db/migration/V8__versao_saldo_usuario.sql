@@ -0,0 +1,5 @@
+-- Versão do livro de cada usuário (ETag das consultas), alterada na mesma transação das escritas de lançamento.
+-- Vem de uma sequência única, então continua crescendo mesmo quando o recálculo apaga e recria as linhas de saldo
+CREATE SEQUENCE financas.versao_livro;
+
+ALTER TABLE financas.saldo_usuario ADD COLUMN versao bigint DEFAULT 0 NOT NULL;
@@ -0,0 +1,64 @@
+package br.com.matheusramos.minhasfinancas;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+import br.com.matheusramos.minhasfinancas.model.entity.Usuario;
+import br.com.matheusramos.minhasfinancas.repositories.UsuarioRepository;
+import br.com.matheusramos.minhasfinancas.repositories.UsuariosRepositoryTest;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@SpringBootTest
+@AutoConfigureMockMvc
+public class MetricasTest {
+
+	@Autowired
+	MockMvc mvc;
+	
+	@Autowired
+	UsuarioRepository usuarioRepository;
+	
+	@Test
+	public void expoeMetricasNoFormatoPrometheus() throws Exception {
+		Usuario novoUsuario = UsuariosRepositoryTest.criaUsuario();
+		novoUsuario.setEmail(System.nanoTime() + "@live.com");
+		Usuario usuario = usuarioRepository.save(novoUsuario);
+		
+		mvc.perform(MockMvcRequestBuilders.get("/api/usuarios/" + usuario.getId() + "/saldo"))
+				.andExpect(MockMvcResultMatchers.status().isOk());
+		
+		// a consulta reativa roda em outra thread e não entra na contagem de comandos SQL
+		MvcResult reativa = mvc.perform(MockMvcRequestBuilders.get("/api/reativo/usuarios/" + usuario.getId() + "/saldo")).andReturn();
+		reativa.getAsyncResult();
+		mvc.perform(MockMvcRequestBuilders.asyncDispatch(reativa)).andExpect(MockMvcResultMatchers.status().isOk());
+		
+		String metricas = mvc.perform(MockMvcRequestBuilders.get("/actuator/prometheus"))
+				.andExpect(MockMvcResultMatchers.status().isOk())
+				.andReturn().getResponse().getContentAsString();
+		
+		Assertions.assertThat(metricas)
+				.contains("http_server_requests_seconds_bucket{exception=\"None\",method=\"GET\",outcome=\"SUCCESS\",status=\"200\",uri=\"/api/usuarios/{id}/saldo\"")
+				.contains("minhasfinancas_servico_seconds_bucket{excecao=\"none\",metodo=\"obterSaldoPorUsuario\",servico=\"LancamentoServiceImpl\"")
+				.contains("minhasfinancas_servico_seconds_count{excecao=\"none\",metodo=\"existe\",servico=\"UsuarioServiceImpl\"")
+				.contains("minhasfinancas_sql_comandos_count{method=\"GET\",uri=\"/api/usuarios/{id}/saldo\"")
+				.doesNotContain("minhasfinancas_sql_comandos_count{method=\"GET\",uri=\"/api/reativo/usuarios/{id}/saldo\"")
+				.contains("hibernate_statements_total")
+				.contains("hibernate_entities_loads_total")
+				.contains("hibernate_flushes_total")
+				.contains("hikaricp_connections_acquire_seconds_bucket")
+				.contains("hikaricp_connections_usage_seconds_bucket")
+				.contains("hikaricp_connections_pending");
+	}
+	
+}
@@ -0,0 +1,21 @@
+package br.com.matheusramos.minhasfinancas;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import org.junit.jupiter.api.extension.ExtendWith;
+
+/*
+ * Número máximo de comandos SQL que o teste pode executar na própria thread (requisições do MockMvc incluídas).
+ * Depende do DataSource envolvido pelo MonitoramentoSqlPostProcessor, portanto somente em testes com o contexto completo
+ * */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@ExtendWith(OrcamentoSqlExtension.class)
+public @interface OrcamentoSql {
+
+	int value();
+	
+}
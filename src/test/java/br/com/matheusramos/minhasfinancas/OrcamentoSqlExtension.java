@@ -0,0 +1,39 @@
+package br.com.matheusramos.minhasfinancas;
+
+import org.junit.jupiter.api.extension.AfterTestExecutionCallback;
+import org.junit.jupiter.api.extension.BeforeTestExecutionCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.jupiter.api.extension.ExtensionContext.Namespace;
+
+import net.ttddyy.dsproxy.QueryCountHolder;
+
+/*
+ * Falha o teste anotado com @OrcamentoSql quando ele executa mais comandos SQL que o declarado.
+ * Para ver os comandos: logging.level.minhasfinancas.sql=DEBUG
+ * */
+public class OrcamentoSqlExtension implements BeforeTestExecutionCallback, AfterTestExecutionCallback {
+
+	private static final Namespace NAMESPACE = Namespace.create(OrcamentoSqlExtension.class);
+	private static final String INICIO = "inicio";
+	
+	@Override
+	public void beforeTestExecution(ExtensionContext context) {
+		context.getStore(NAMESPACE).put(INICIO, comandosExecutados());
+	}
+	
+	@Override
+	public void afterTestExecution(ExtensionContext context) {
+		long comandos = comandosExecutados() - context.getStore(NAMESPACE).remove(INICIO, Long.class);
+		int orcamento = context.getRequiredTestMethod().getAnnotation(OrcamentoSql.class).value();
+		
+		if (comandos > orcamento) {
+			throw new AssertionError(String.format("%s executou %d comandos SQL, acima do orçamento de %d",
+					context.getDisplayName(), comandos, orcamento));
+		}
+	}
+	
+	private static long comandosExecutados() {
+		return QueryCountHolder.getGrandTotal().getTotal();
+	}
+	
+}
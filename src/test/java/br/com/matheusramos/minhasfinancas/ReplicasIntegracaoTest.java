@@ -0,0 +1,99 @@
+package br.com.matheusramos.minhasfinancas;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import javax.sql.DataSource;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import br.com.matheusramos.minhasfinancas.dtos.LancamentoDTO;
+import br.com.matheusramos.minhasfinancas.model.entity.Usuario;
+import br.com.matheusramos.minhasfinancas.repositories.UsuarioRepository;
+import br.com.matheusramos.minhasfinancas.repositories.UsuariosRepositoryTest;
+
+/*
+ * Aplicação completa com uma réplica H2 migrada na inicialização; a replicação é simulada copiando o usuário para a réplica
+ * */
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@SpringBootTest(properties = {
+		"minhasfinancas.datasource.replicas.urls=" + ReplicasIntegracaoTest.REPLICA,
+		"minhasfinancas.datasource.replicas.migrar=true",
+		"minhasfinancas.datasource.replicas.consulta-lag=select 0",
+		"minhasfinancas.datasource.replicas.lag-maximo-ms=60000" })
+@AutoConfigureMockMvc
+public class ReplicasIntegracaoTest {
+
+	static final String PRIMARIO = "jdbc:h2:mem:db";
+	static final String REPLICA = "jdbc:h2:mem:replica-integracao;DB_CLOSE_DELAY=-1;INIT=CREATE SCHEMA IF NOT EXISTS financas";
+
+	@Autowired
+	MockMvc mvc;
+	
+	@Autowired
+	UsuarioRepository usuarioRepository;
+	
+	@Autowired
+	DataSource dataSource;
+	
+	@Test
+	public void escritaAposLeituraNaReplicaVaiParaOPrimario() throws Exception {
+		Usuario novoUsuario = UsuariosRepositoryTest.criaUsuario();
+		novoUsuario.setEmail(System.nanoTime() + "@live.com");
+		Usuario usuario = usuarioRepository.save(novoUsuario);
+		try (Connection replica = DriverManager.getConnection(REPLICA, "postgres", "postgres");
+				PreparedStatement comando = replica.prepareStatement("insert into financas.usuario (id, nome, email) values (?, ?, ?)")) {
+			comando.setLong(1, usuario.getId());
+			comando.setString(2, usuario.getNome());
+			comando.setString(3, usuario.getEmail());
+			comando.executeUpdate();
+		}
+		// coloca a réplica no rodízio sem esperar a primeira verificação agendada
+		dataSource.unwrap(RoteamentoDataSource.class).verificarLag();
+		
+		// a existência do usuário é lida na réplica e o insert vem em seguida, na mesma requisição; o endereço é outro que o
+		// da thread do teste, cujo save acima mantém as leituras desse endereço no primário
+		LancamentoDTO dto = LancamentoDTO.builder().descricao("Salario").mes(1).ano(2020)
+				.valor(BigDecimal.valueOf(100)).tipo("RECEITA").usuario(usuario.getId()).build();
+		mvc.perform(MockMvcRequestBuilders.post("/api/lancamentos").contentType(MediaType.APPLICATION_JSON)
+				.content(new ObjectMapper().writeValueAsString(dto))
+				.with(request -> {
+					request.setRemoteAddr("10.0.0.1");
+					return request;
+				}))
+				.andExpect(MockMvcResultMatchers.status().isCreated());
+		
+		Assertions.assertThat(contarLancamentos(PRIMARIO, usuario.getId())).isEqualTo(1);
+		Assertions.assertThat(contarLancamentos(REPLICA, usuario.getId())).isZero();
+	}
+	
+	private static long contarLancamentos(String url, Long idUsuario) throws SQLException {
+		try (Connection conexao = DriverManager.getConnection(url, "postgres", "postgres");
+				PreparedStatement comando = conexao.prepareStatement("select count(*) from financas.lancamento where id_usuario = ?")) {
+			comando.setLong(1, idUsuario);
+			try (ResultSet resultado = comando.executeQuery()) {
+				resultado.next();
+				return resultado.getLong(1);
+			}
+		}
+	}
+
+}
@@ -0,0 +1,152 @@
+package br.com.matheusramos.minhasfinancas;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.assertj.core.api.Assertions;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+/*
+ * Primário e réplicas são bancos H2 em memória distintos; o nome do banco identifica para onde a conexão foi roteada
+ * */
+public class RoteamentoDataSourceTest {
+
+	static final String CONSULTA_LAG = "select ms from atraso";
+
+	RoteamentoDataSource roteamento;
+
+	@AfterEach
+	public void tearDown() {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+		TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+		RequestContextHolder.resetRequestAttributes();
+		roteamento.close();
+	}
+
+	@Test
+	public void escritasNoPrimarioELeiturasEmRodizio() throws Exception {
+		roteamento = criar(RoteamentoDataSource.Selecao.RODIZIO, 1000);
+
+		Assertions.assertThat(banco(roteamento.getConnection())).isEqualTo("PRIMARIO");
+
+		somenteLeitura();
+		Assertions.assertThat(banco(roteamento.getConnection())).isEqualTo("REPLICA1");
+		Assertions.assertThat(banco(roteamento.getConnection())).isEqualTo("REPLICA2");
+		Assertions.assertThat(banco(roteamento.getConnection())).isEqualTo("REPLICA1");
+	}
+
+	@Test
+	public void leituraNaReplicaComMenosConexoesPendentes() throws Exception {
+		roteamento = criar(RoteamentoDataSource.Selecao.MENOS_PENDENTES, 1000);
+		somenteLeitura();
+
+		Connection primeira = roteamento.getConnection();
+		Assertions.assertThat(banco(primeira)).isEqualTo("REPLICA1");
+		Connection segunda = roteamento.getConnection();
+		Assertions.assertThat(banco(segunda)).isEqualTo("REPLICA2");
+
+		primeira.close();
+		primeira.close();
+		Assertions.assertThat(banco(roteamento.getConnection())).isEqualTo("REPLICA1");
+		Assertions.assertThat(roteamento.getReplicas().get(0).getPendentes().get()).isEqualTo(1);
+	}
+
+	@Test
+	public void replicaAtrasadaSaiDoRodizio() throws Exception {
+		roteamento = criar(RoteamentoDataSource.Selecao.RODIZIO, 1000);
+		somenteLeitura();
+
+		atrasar("replica1", 5000);
+		roteamento.verificarLag();
+		for (int i = 0; i < 3; i++) {
+			Assertions.assertThat(banco(roteamento.getConnection())).isEqualTo("REPLICA2");
+		}
+
+		// sem tabela a consulta de atraso falha e a réplica também sai do rodízio
+		executar("replica2", "drop table atraso");
+		roteamento.verificarLag();
+		Assertions.assertThat(banco(roteamento.getConnection())).isEqualTo("PRIMARIO");
+
+		atrasar("replica1", 0);
+		roteamento.verificarLag();
+		Assertions.assertThat(banco(roteamento.getConnection())).isEqualTo("REPLICA1");
+	}
+
+	@Test
+	public void mesmoUsuarioLeDoPrimarioAposEscrever() throws Exception {
+		roteamento = criar(RoteamentoDataSource.Selecao.RODIZIO, 60_000);
+		requisicao(1L);
+
+		// escrita: a janela só começa no commit
+		TransactionSynchronizationManager.initSynchronization();
+		Assertions.assertThat(banco(roteamento.getConnection())).isEqualTo("PRIMARIO");
+		somenteLeitura();
+		Assertions.assertThat(banco(roteamento.getConnection())).isEqualTo("REPLICA1");
+		TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+		TransactionSynchronizationManager.clearSynchronization();
+
+		Assertions.assertThat(banco(roteamento.getConnection())).isEqualTo("PRIMARIO");
+
+		requisicao(2L);
+		Assertions.assertThat(banco(roteamento.getConnection())).isEqualTo("REPLICA2");
+	}
+
+	private RoteamentoDataSource criar(RoteamentoDataSource.Selecao selecao, long lagMaximoMs) throws SQLException {
+		Map<String, DataSource> replicas = new LinkedHashMap<>();
+		for (String nome : new String[] { "replica1", "replica2" }) {
+			executar(nome, "create table if not exists atraso (ms bigint)");
+			executar(nome, "delete from atraso");
+			executar(nome, "insert into atraso values (0)");
+			replicas.put(nome, h2(nome));
+		}
+
+		RoteamentoDataSource novo = new RoteamentoDataSource(h2("primario"), replicas, selecao, lagMaximoMs, 60_000, CONSULTA_LAG);
+		novo.verificarLag();
+		return novo;
+	}
+
+	private static void somenteLeitura() {
+		TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+	}
+
+	private static void requisicao(Long idUsuario) {
+		MockHttpServletRequest request = new MockHttpServletRequest();
+		request.setAttribute(AutenticacaoTokenFilter.ID_USUARIO, idUsuario);
+		RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+	}
+
+	private static void atrasar(String replica, long ms) throws SQLException {
+		executar(replica, "update atraso set ms = " + ms);
+	}
+
+	private static void executar(String banco, String sql) throws SQLException {
+		try (Connection conexao = h2(banco).getConnection(); Statement comando = conexao.createStatement()) {
+			comando.execute(sql);
+		}
+	}
+
+	private static String banco(Connection conexao) throws SQLException {
+		return conexao.getCatalog();
+	}
+
+	private static DataSource h2(String nome) {
+		JdbcDataSource dataSource = new JdbcDataSource();
+		dataSource.setURL("jdbc:h2:mem:" + nome + ";DB_CLOSE_DELAY=-1");
+		return dataSource;
+	}
+
+}
@@ -0,0 +1,117 @@
+package br.com.matheusramos.minhasfinancas.controllers;
+
+import java.math.BigDecimal;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import br.com.matheusramos.minhasfinancas.dtos.LancamentoDTO;
+import br.com.matheusramos.minhasfinancas.model.entity.Usuario;
+import br.com.matheusramos.minhasfinancas.repositories.UsuarioRepository;
+import br.com.matheusramos.minhasfinancas.repositories.UsuariosRepositoryTest;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@SpringBootTest
+@AutoConfigureMockMvc
+public class AnaliseControllerTest {
+
+	static final String API = "/api/lancamentos";
+	static final MediaType JSON = MediaType.APPLICATION_JSON;
+
+	@Autowired
+	MockMvc mvc;
+	
+	@Autowired
+	UsuarioRepository usuarioRepository;
+	
+	Usuario usuario;
+	String analise;
+	
+	@BeforeEach
+	public void setUp() {
+		Usuario novoUsuario = UsuariosRepositoryTest.criaUsuario();
+		novoUsuario.setEmail(System.nanoTime() + "@live.com");
+		usuario = usuarioRepository.save(novoUsuario);
+		analise = "/api/usuarios/" + usuario.getId() + "/analise";
+	}
+	
+	@Test
+	public void analisesSomamOHistoricoEAcompanhamAsGravacoes() throws Exception {
+		Long salario = criarLancamento("RECEITA", 2019, 12, new BigDecimal("1000.50"));
+		atualizarStatus(salario, "EFETIVADO");
+		criarLancamento("DESPESA", 2020, 1, new BigDecimal("100"));
+		Long cancelado = criarLancamento("DESPESA", 2020, 1, new BigDecimal("30.25"));
+		atualizarStatus(cancelado, "CANCELADO");
+		criarLancamento("DESPESA", 2021, 1, new BigDecimal("999"));
+		
+		mvc.perform(MockMvcRequestBuilders.get(analise + "/tendencia").param("inicio", "2019-12").param("fim", "2020-02"))
+				.andExpect(MockMvcResultMatchers.status().isOk())
+				.andExpect(MockMvcResultMatchers.jsonPath("$.length()").value(3))
+				.andExpect(MockMvcResultMatchers.jsonPath("$[0].ano").value(2019))
+				.andExpect(MockMvcResultMatchers.jsonPath("$[0].mes").value(12))
+				.andExpect(MockMvcResultMatchers.jsonPath("$[0].receitas").value(1000.5))
+				.andExpect(MockMvcResultMatchers.jsonPath("$[0].saldo").value(1000.5))
+				.andExpect(MockMvcResultMatchers.jsonPath("$[1].despesasPendentes").value(100))
+				.andExpect(MockMvcResultMatchers.jsonPath("$[1].despesas").value(0))
+				.andExpect(MockMvcResultMatchers.jsonPath("$[2].despesasPendentes").value(0));
+		
+		mvc.perform(MockMvcRequestBuilders.get(analise + "/composicao").param("inicio", "2019-01").param("fim", "2020-12"))
+				.andExpect(MockMvcResultMatchers.status().isOk())
+				.andExpect(MockMvcResultMatchers.jsonPath("$[?(@.tipo == 'DESPESA' && @.status == 'CANCELADO')].total").value(30.25))
+				.andExpect(MockMvcResultMatchers.jsonPath("$[?(@.tipo == 'DESPESA' && @.status == 'PENDENTE')].quantidade").value(1))
+				.andExpect(MockMvcResultMatchers.jsonPath("$[?(@.tipo == 'RECEITA' && @.status == 'EFETIVADO')].quantidade").value(1));
+		
+		mvc.perform(MockMvcRequestBuilders.get(analise + "/anos").param("inicio", "2019").param("fim", "2021"))
+				.andExpect(MockMvcResultMatchers.status().isOk())
+				.andExpect(MockMvcResultMatchers.jsonPath("$.length()").value(3))
+				.andExpect(MockMvcResultMatchers.jsonPath("$[0].mes").doesNotExist())
+				.andExpect(MockMvcResultMatchers.jsonPath("$[0].receitas").value(1000.5))
+				.andExpect(MockMvcResultMatchers.jsonPath("$[1].despesasPendentes").value(100))
+				.andExpect(MockMvcResultMatchers.jsonPath("$[2].despesasPendentes").value(999));
+		
+		// a gravação altera a versão do livro e a próxima análise monta as colunas de novo
+		criarLancamento("DESPESA", 2020, 2, new BigDecimal("10"));
+		mvc.perform(MockMvcRequestBuilders.get(analise + "/tendencia").param("inicio", "2020-02").param("fim", "2020-02"))
+				.andExpect(MockMvcResultMatchers.jsonPath("$[0].despesasPendentes").value(10));
+	}
+	
+	@Test
+	public void periodoInvalido() throws Exception {
+		mvc.perform(MockMvcRequestBuilders.get(analise + "/tendencia").param("inicio", "2020-13").param("fim", "2020-12"))
+				.andExpect(MockMvcResultMatchers.status().isBadRequest());
+		
+		mvc.perform(MockMvcRequestBuilders.get(analise + "/composicao").param("inicio", "2020-05").param("fim", "2020-01"))
+				.andExpect(MockMvcResultMatchers.status().isBadRequest());
+		
+		mvc.perform(MockMvcRequestBuilders.get(analise + "/anos").param("inicio", "1900").param("fim", "2020"))
+				.andExpect(MockMvcResultMatchers.status().isBadRequest());
+	}
+	
+	private Long criarLancamento(String tipo, int ano, int mes, BigDecimal valor) throws Exception {
+		LancamentoDTO dto = LancamentoDTO.builder().descricao(tipo).mes(mes).ano(ano)
+				.valor(valor).tipo(tipo).usuario(usuario.getId()).build();
+		String resposta = mvc.perform(MockMvcRequestBuilders.post(API).contentType(JSON).content(new ObjectMapper().writeValueAsString(dto)))
+				.andExpect(MockMvcResultMatchers.status().isCreated())
+				.andReturn().getResponse().getContentAsString();
+		return new ObjectMapper().readTree(resposta).get("id").asLong();
+	}
+	
+	private void atualizarStatus(Long id, String status) throws Exception {
+		mvc.perform(MockMvcRequestBuilders.put(API + "/" + id + "/atualiza-status").contentType(JSON).content("{\"status\":\"" + status + "\"}"))
+				.andExpect(MockMvcResultMatchers.status().isOk());
+	}
+
+}
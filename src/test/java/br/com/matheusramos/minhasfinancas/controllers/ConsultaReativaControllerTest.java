@@ -0,0 +1,153 @@
+package br.com.matheusramos.minhasfinancas.controllers;
+
+import java.math.BigDecimal;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import br.com.matheusramos.minhasfinancas.dtos.LancamentoDTO;
+import br.com.matheusramos.minhasfinancas.interfaces.TokenService;
+import br.com.matheusramos.minhasfinancas.model.entity.Usuario;
+import br.com.matheusramos.minhasfinancas.repositories.UsuarioRepository;
+import br.com.matheusramos.minhasfinancas.repositories.UsuariosRepositoryTest;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@SpringBootTest
+@AutoConfigureMockMvc
+public class ConsultaReativaControllerTest {
+
+	static final String API = "/api/reativo";
+	static final MediaType JSON = MediaType.APPLICATION_JSON;
+
+	@Autowired
+	MockMvc mvc;
+
+	@Autowired
+	UsuarioRepository usuarioRepository;
+
+	@Autowired
+	TokenService tokenService;
+
+	Usuario usuario;
+
+	@BeforeEach
+	public void setUp() {
+		Usuario novoUsuario = UsuariosRepositoryTest.criaUsuario();
+		novoUsuario.setEmail(System.nanoTime() + "@live.com");
+		usuario = usuarioRepository.save(novoUsuario);
+	}
+
+	@Test
+	public void obterSaldoIgualAoDaApiServlet() throws Exception {
+		executar(MockMvcRequestBuilders.get(API + "/usuarios/" + usuario.getId() + "/saldo"))
+				.andExpect(MockMvcResultMatchers.status().isOk())
+				.andExpect(MockMvcResultMatchers.content().string("0"));
+
+		criarLancamento("Salario", 1, "RECEITA", "EFETIVADO");
+		criarLancamento("Mercado", 1, "DESPESA", "EFETIVADO");
+
+		String servlet = mvc.perform(MockMvcRequestBuilders.get("/api/usuarios/" + usuario.getId() + "/saldo"))
+				.andReturn().getResponse().getContentAsString();
+		executar(MockMvcRequestBuilders.get(API + "/usuarios/" + usuario.getId() + "/saldo"))
+				.andExpect(MockMvcResultMatchers.status().isOk())
+				.andExpect(MockMvcResultMatchers.content().string(servlet));
+
+		executar(MockMvcRequestBuilders.get(API + "/usuarios/0/saldo")).andExpect(MockMvcResultMatchers.status().isNotFound());
+	}
+
+	@Test
+	public void obterLancamentoPorId() throws Exception {
+		Long id = criarLancamento("Aluguel", 3, "DESPESA", "PENDENTE");
+
+		executar(MockMvcRequestBuilders.get(API + "/lancamentos/" + id))
+				.andExpect(MockMvcResultMatchers.status().isOk())
+				.andExpect(MockMvcResultMatchers.jsonPath("descricao").value("Aluguel"))
+				.andExpect(MockMvcResultMatchers.jsonPath("mes").value(3))
+				.andExpect(MockMvcResultMatchers.jsonPath("valor").value(100))
+				.andExpect(MockMvcResultMatchers.jsonPath("usuario").value(usuario.getId()))
+				.andExpect(MockMvcResultMatchers.jsonPath("status").value("PENDENTE"));
+
+		executar(MockMvcRequestBuilders.get(API + "/lancamentos/0")).andExpect(MockMvcResultMatchers.status().isNotFound());
+	}
+
+	@Test
+	public void listarComoJsonOuUmLancamentoPorLinha() throws Exception {
+		criarLancamento("Luz", 2, "DESPESA", "PENDENTE");
+		criarLancamento("Agua", 1, "DESPESA", "PENDENTE");
+		criarLancamento("Salario", 1, "RECEITA", "PENDENTE");
+
+		String servlet = mvc.perform(MockMvcRequestBuilders.get("/api/lancamentos").param("usuario", usuario.getId().toString()))
+				.andReturn().getResponse().getContentAsString();
+		executar(MockMvcRequestBuilders.get(API + "/lancamentos").param("usuario", usuario.getId().toString()).accept(JSON))
+				.andExpect(MockMvcResultMatchers.status().isOk())
+				.andExpect(MockMvcResultMatchers.content().json(servlet, true));
+
+		String linhas = executar(MockMvcRequestBuilders.get(API + "/lancamentos").param("usuario", usuario.getId().toString())
+				.param("mes", "1").accept(MediaType.APPLICATION_STREAM_JSON))
+				.andExpect(MockMvcResultMatchers.status().isOk())
+				.andReturn().getResponse().getContentAsString();
+		Assertions.assertThat(linhas.split("\n")).hasSize(2);
+		Assertions.assertThat(new ObjectMapper().readValue(linhas.split("\n")[1], LancamentoDTO.class).getDescricao()).isEqualTo("Salario");
+
+		executar(MockMvcRequestBuilders.get(API + "/lancamentos").param("usuario", "0"))
+				.andExpect(MockMvcResultMatchers.status().isBadRequest());
+
+		// a busca por descrição fica somente em /api/lancamentos
+		executar(MockMvcRequestBuilders.get(API + "/lancamentos").param("usuario", usuario.getId().toString()).param("descricao", "luz"))
+				.andExpect(MockMvcResultMatchers.status().isBadRequest());
+	}
+
+	@Test
+	public void recusarLancamentosDeOutroUsuarioComToken() throws Exception {
+		Long id = criarLancamento("Aluguel", 1, "DESPESA", "PENDENTE");
+		Usuario outroUsuario = UsuariosRepositoryTest.criaUsuario();
+		outroUsuario.setEmail(System.nanoTime() + "@live.com");
+		String token = "Bearer " + tokenService.emitir(usuarioRepository.save(outroUsuario).getId());
+
+		executar(MockMvcRequestBuilders.get(API + "/lancamentos/" + id).header("Authorization", token))
+				.andExpect(MockMvcResultMatchers.status().isForbidden());
+		executar(MockMvcRequestBuilders.get(API + "/lancamentos").param("usuario", usuario.getId().toString()).header("Authorization", token))
+				.andExpect(MockMvcResultMatchers.status().isForbidden());
+	}
+
+	/**
+	 * Respostas reativas passam por um ou mais despachos assíncronos até a resposta final
+	 * */
+	private ResultActions executar(MockHttpServletRequestBuilder request) throws Exception {
+		ResultActions acoes = mvc.perform(request);
+		MvcResult resultado = acoes.andReturn();
+		while (resultado.getRequest().isAsyncStarted()) {
+			resultado.getAsyncResult();
+			acoes = mvc.perform(MockMvcRequestBuilders.asyncDispatch(resultado));
+			resultado = acoes.andReturn();
+		}
+		return acoes;
+	}
+
+	private Long criarLancamento(String descricao, int mes, String tipo, String status) throws Exception {
+		LancamentoDTO dto = LancamentoDTO.builder().descricao(descricao).mes(mes).ano(2020)
+				.valor(BigDecimal.valueOf(100)).tipo(tipo).status(status).usuario(usuario.getId()).build();
+		String resposta = mvc.perform(MockMvcRequestBuilders.post("/api/lancamentos").contentType(JSON).content(new ObjectMapper().writeValueAsString(dto)))
+				.andExpect(MockMvcResultMatchers.status().isCreated())
+				.andReturn().getResponse().getContentAsString();
+		return new ObjectMapper().readTree(resposta).get("id").asLong();
+	}
+
+}
@@ -0,0 +1,93 @@
+package br.com.matheusramos.minhasfinancas.controllers;
+
+import java.math.BigDecimal;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import br.com.matheusramos.minhasfinancas.dtos.LancamentoDTO;
+import br.com.matheusramos.minhasfinancas.model.entity.Usuario;
+import br.com.matheusramos.minhasfinancas.repositories.UsuarioRepository;
+import br.com.matheusramos.minhasfinancas.repositories.UsuariosRepositoryTest;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@SpringBootTest
+@AutoConfigureMockMvc
+public class EventosControllerTest {
+
+	static final String API = "/api/lancamentos";
+	static final MediaType JSON = MediaType.APPLICATION_JSON;
+
+	@Autowired
+	MockMvc mvc;
+	
+	@Autowired
+	UsuarioRepository usuarioRepository;
+	
+	Usuario usuario;
+	
+	@BeforeEach
+	public void setUp() {
+		Usuario novoUsuario = UsuariosRepositoryTest.criaUsuario();
+		novoUsuario.setEmail(System.nanoTime() + "@live.com");
+		usuario = usuarioRepository.save(novoUsuario);
+	}
+	
+	@Test
+	public void eventosAposOCommitDasGravacoes() throws Exception {
+		MockHttpServletResponse eventos = mvc.perform(MockMvcRequestBuilders.get("/api/usuarios/" + usuario.getId() + "/eventos"))
+				.andExpect(MockMvcResultMatchers.request().asyncStarted())
+				.andReturn().getResponse();
+		
+		// estado atual ao conectar
+		aguardar(eventos, "\"saldo\":0.00,\"lancamentos\":[]");
+		
+		LancamentoDTO dto = LancamentoDTO.builder().descricao("Salário").mes(1).ano(2020)
+				.valor(new BigDecimal("150.5")).tipo("RECEITA").usuario(usuario.getId()).build();
+		String resposta = mvc.perform(MockMvcRequestBuilders.post(API).contentType(JSON).content(new ObjectMapper().writeValueAsString(dto)))
+				.andExpect(MockMvcResultMatchers.status().isCreated())
+				.andReturn().getResponse().getContentAsString();
+		Long id = new ObjectMapper().readTree(resposta).get("id").asLong();
+		aguardar(eventos, "\"lancamentos\":[" + id + "]");
+		
+		mvc.perform(MockMvcRequestBuilders.put(API + "/" + id + "/atualiza-status").contentType(JSON).content("{\"status\":\"EFETIVADO\"}"))
+				.andExpect(MockMvcResultMatchers.status().isOk());
+		aguardar(eventos, "\"saldo\":150.50,\"lancamentos\":[" + id + "]");
+		
+		Assertions.assertThat(eventos.getContentType()).startsWith(MediaType.TEXT_EVENT_STREAM_VALUE);
+		Assertions.assertThat(eventos.getContentAsString()).contains("event:livro");
+	}
+	
+	@Test
+	public void usuarioInexistente() throws Exception {
+		mvc.perform(MockMvcRequestBuilders.get("/api/usuarios/" + Long.MAX_VALUE + "/eventos"))
+				.andExpect(MockMvcResultMatchers.status().isNotFound());
+	}
+	
+	/**
+	 * Os eventos são escritos por outra thread depois do commit
+	 * */
+	private static void aguardar(MockHttpServletResponse eventos, String trecho) throws Exception {
+		long limite = System.currentTimeMillis() + 5000;
+		while (!eventos.getContentAsString().contains(trecho) && System.currentTimeMillis() < limite) {
+			Thread.sleep(20);
+		}
+		Assertions.assertThat(eventos.getContentAsString()).contains(trecho);
+	}
+
+}
@@ -0,0 +1,361 @@
+package br.com.matheusramos.minhasfinancas.controllers;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collections;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.assertj.core.api.Assertions;
+import org.hamcrest.Matchers;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import br.com.matheusramos.minhasfinancas.OrcamentoSql;
+import br.com.matheusramos.minhasfinancas.dtos.LancamentoDTO;
+import br.com.matheusramos.minhasfinancas.interfaces.TokenService;
+import br.com.matheusramos.minhasfinancas.model.entity.Usuario;
+import br.com.matheusramos.minhasfinancas.repositories.UsuarioRepository;
+import br.com.matheusramos.minhasfinancas.repositories.UsuariosRepositoryTest;
+
+/*
+ * Conta os comandos SQL de cada requisição através das estatísticas do Hibernate (perfil de teste)
+ * */
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@SpringBootTest
+@AutoConfigureMockMvc
+public class LancamentoControllerTest {
+
+	static final String API = "/api/lancamentos";
+	static final MediaType JSON = MediaType.APPLICATION_JSON;
+
+	@Autowired
+	MockMvc mvc;
+	
+	@Autowired
+	UsuarioRepository usuarioRepository;
+	
+	@Autowired
+	EntityManagerFactory entityManagerFactory;
+	
+	@Autowired
+	TokenService tokenService;
+	
+	Statistics estatisticas;
+	Usuario usuario;
+	
+	@BeforeEach
+	public void setUp() {
+		Usuario novoUsuario = UsuariosRepositoryTest.criaUsuario();
+		novoUsuario.setEmail(System.nanoTime() + "@live.com");
+		usuario = usuarioRepository.save(novoUsuario);
+		
+		estatisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		estatisticas.clear();
+	}
+
+	@Test
+	public void salvarLancamentoSemConsultarUsuario() throws Exception {
+		LancamentoDTO dto = LancamentoDTO.builder().descricao("Salario").mes(1).ano(2020)
+				.valor(BigDecimal.valueOf(100)).tipo("RECEITA").usuario(usuario.getId()).build();
+		String json = new ObjectMapper().writeValueAsString(dto);
+		
+		MockHttpServletRequestBuilder request = MockMvcRequestBuilders.post(API).accept(JSON).contentType(JSON).content(json);
+		
+		// primeira requisição: verificação de existência do usuário, insert, upsert da versão do livro no saldo
+		// e upsert da linha do mês no resumo mensal
+		mvc.perform(request).andExpect(MockMvcResultMatchers.status().isCreated())
+				.andExpect(MockMvcResultMatchers.jsonPath("usuario").value(usuario.getId()));
+		Assertions.assertThat(estatisticas.getPrepareStatementCount()).isEqualTo(4);
+		
+		// com o usuário já conhecido, somente o insert e os upserts do saldo e do resumo mensal
+		estatisticas.clear();
+		mvc.perform(request).andExpect(MockMvcResultMatchers.status().isCreated());
+		Assertions.assertThat(estatisticas.getPrepareStatementCount()).isEqualTo(3);
+		Assertions.assertThat(estatisticas.getEntityLoadCount()).isZero();
+	}
+	
+	@Test
+	public void buscarLancamentosSemCarregarUsuario() throws Exception {
+		LancamentoDTO dto = LancamentoDTO.builder().descricao("Salario").mes(1).ano(2020)
+				.valor(BigDecimal.valueOf(100)).tipo("RECEITA").usuario(usuario.getId()).build();
+		mvc.perform(MockMvcRequestBuilders.post(API).contentType(JSON).content(new ObjectMapper().writeValueAsString(dto)))
+				.andExpect(MockMvcResultMatchers.status().isCreated());
+		
+		estatisticas.clear();
+		mvc.perform(MockMvcRequestBuilders.get(API).param("usuario", usuario.getId().toString()))
+				.andExpect(MockMvcResultMatchers.status().isOk())
+				.andExpect(MockMvcResultMatchers.jsonPath("$[0].usuario").value(usuario.getId()));
+		
+		// a versão do livro e os lançamentos
+		Assertions.assertThat(estatisticas.getPrepareStatementCount()).isEqualTo(2);
+		Assertions.assertThat(estatisticas.getEntityLoadCount()).isZero();
+	}
+	
+	@Test
+	public void buscarPorDescricaoSemAcentosOrdenadoPorRelevancia() throws Exception {
+		criarLancamento("Pão e café");
+		criarLancamento("Cafeteira nova");
+		criarLancamento("Café da manhã");
+		Long conta = criarLancamento("Conta de luz");
+		
+		mvc.perform(MockMvcRequestBuilders.get(API).param("usuario", usuario.getId().toString()).param("descricao", "CAFE"))
+				.andExpect(MockMvcResultMatchers.status().isOk())
+				.andExpect(MockMvcResultMatchers.jsonPath("$.length()").value(3))
+				.andExpect(MockMvcResultMatchers.jsonPath("$[0].descricao").value("Café da manhã"))
+				.andExpect(MockMvcResultMatchers.jsonPath("$[1].descricao").value("Cafeteira nova"))
+				.andExpect(MockMvcResultMatchers.jsonPath("$[2].descricao").value("Pão e café"));
+		
+		// alteração e exclusão refletem no índice já montado
+		LancamentoDTO dto = LancamentoDTO.builder().descricao("Café").mes(1).ano(2020)
+				.valor(BigDecimal.valueOf(100)).tipo("DESPESA").status("PENDENTE").usuario(usuario.getId()).build();
+		mvc.perform(MockMvcRequestBuilders.put(API + "/" + conta).contentType(JSON).content(new ObjectMapper().writeValueAsString(dto)))
+				.andExpect(MockMvcResultMatchers.status().isOk());
+		
+		mvc.perform(MockMvcRequestBuilders.get(API).param("usuario", usuario.getId().toString()).param("descricao", "café"))
+				.andExpect(MockMvcResultMatchers.jsonPath("$.length()").value(4))
+				.andExpect(MockMvcResultMatchers.jsonPath("$[0].id").value(conta));
+		
+		mvc.perform(MockMvcRequestBuilders.delete(API + "/" + conta)).andExpect(MockMvcResultMatchers.status().isNoContent());
+		
+		mvc.perform(MockMvcRequestBuilders.get(API).param("usuario", usuario.getId().toString()).param("descricao", "cafe"))
+				.andExpect(MockMvcResultMatchers.jsonPath("$.length()").value(3));
+	}
+	
+	/*
+	 * 4 comandos do cadastro; na alteração: consulta do lançamento, consulta da situação anterior, leitura do lançamento
+	 * pelo merge (a consulta foi em outra transação), update, upsert da versão do livro no saldo e upsert do resumo mensal
+	 * */
+	@Test
+	@OrcamentoSql(10)
+	public void atualizarDentroDoOrcamentoSql() throws Exception {
+		Long id = criarLancamento("Aluguel");
+		
+		LancamentoDTO dto = LancamentoDTO.builder().descricao("Aluguel reajustado").mes(1).ano(2020)
+				.valor(BigDecimal.valueOf(120)).tipo("DESPESA").status("PENDENTE").usuario(usuario.getId()).build();
+		mvc.perform(MockMvcRequestBuilders.put(API + "/" + id).contentType(JSON).content(new ObjectMapper().writeValueAsString(dto)))
+				.andExpect(MockMvcResultMatchers.status().isOk())
+				.andExpect(MockMvcResultMatchers.jsonPath("valor").value(120));
+	}
+	
+	/*
+	 * 4 comandos do cadastro; na efetivação: consulta do lançamento, consulta da situação anterior, leitura do lançamento
+	 * pelo merge, update do lançamento, upsert do saldo e upserts dos totais pendente e efetivado do resumo mensal
+	 * */
+	@Test
+	@OrcamentoSql(11)
+	public void atualizarStatusDentroDoOrcamentoSql() throws Exception {
+		Long id = criarLancamento("Aluguel");
+		
+		mvc.perform(MockMvcRequestBuilders.put(API + "/" + id + "/atualiza-status").contentType(JSON).content("{\"status\":\"EFETIVADO\"}"))
+				.andExpect(MockMvcResultMatchers.status().isOk())
+				.andExpect(MockMvcResultMatchers.jsonPath("status").value("EFETIVADO"));
+	}
+	
+	@Test
+	public void recusarAlteracaoComVersaoDesatualizada() throws Exception {
+		Long id = criarLancamento("Aluguel");
+		LancamentoDTO dto = LancamentoDTO.builder().descricao("Aluguel reajustado").mes(1).ano(2020)
+				.valor(BigDecimal.valueOf(120)).tipo("DESPESA").status("PENDENTE").usuario(usuario.getId()).versao(0L).build();
+
+		mvc.perform(MockMvcRequestBuilders.put(API + "/" + id).contentType(JSON).content(new ObjectMapper().writeValueAsString(dto)))
+				.andExpect(MockMvcResultMatchers.status().isOk())
+				.andExpect(MockMvcResultMatchers.jsonPath("versao").value(1));
+
+		// outro cliente, que leu a versão 0, recebe o estado atual
+		dto.setDescricao("Aluguel com desconto");
+		mvc.perform(MockMvcRequestBuilders.put(API + "/" + id).contentType(JSON).content(new ObjectMapper().writeValueAsString(dto)))
+				.andExpect(MockMvcResultMatchers.status().isConflict())
+				.andExpect(MockMvcResultMatchers.jsonPath("descricao").value("Aluguel reajustado"))
+				.andExpect(MockMvcResultMatchers.jsonPath("versao").value(1));
+
+		mvc.perform(MockMvcRequestBuilders.put(API + "/" + id + "/atualiza-status").contentType(JSON).content("{\"status\":\"EFETIVADO\",\"versao\":0}"))
+				.andExpect(MockMvcResultMatchers.status().isConflict())
+				.andExpect(MockMvcResultMatchers.jsonPath("status").value("PENDENTE"));
+
+		mvc.perform(MockMvcRequestBuilders.put(API + "/" + id + "/atualiza-status").contentType(JSON).content("{\"status\":\"EFETIVADO\"}"))
+				.andExpect(MockMvcResultMatchers.status().isOk())
+				.andExpect(MockMvcResultMatchers.jsonPath("versao").value(2));
+	}
+
+	@Test
+	public void atualizacaoDeStatusEmLoteIncrementaVersao() throws Exception {
+		Long id = criarLancamento("Aluguel");
+
+		mvc.perform(MockMvcRequestBuilders.put(API + "/atualiza-status").contentType(JSON).content("{\"ids\":[" + id + "],\"status\":\"EFETIVADO\"}"))
+				.andExpect(MockMvcResultMatchers.status().isOk());
+
+		mvc.perform(MockMvcRequestBuilders.get(API + "/" + id))
+				.andExpect(MockMvcResultMatchers.jsonPath("status").value("EFETIVADO"))
+				.andExpect(MockMvcResultMatchers.jsonPath("versao").value(1));
+	}
+
+	@Test
+	public void responderNaoModificadoAteAlgumaGravacaoDoUsuario() throws Exception {
+		Long id = criarLancamento("Aluguel");
+		String etag = mvc.perform(MockMvcRequestBuilders.get(API).param("usuario", usuario.getId().toString()))
+				.andExpect(MockMvcResultMatchers.status().isOk())
+				.andReturn().getResponse().getHeader("ETag");
+		
+		estatisticas.clear();
+		mvc.perform(MockMvcRequestBuilders.get(API).param("usuario", usuario.getId().toString()).header("If-None-Match", etag))
+				.andExpect(MockMvcResultMatchers.status().isNotModified());
+		// somente a leitura da versão do livro
+		Assertions.assertThat(estatisticas.getPrepareStatementCount()).isEqualTo(1);
+		
+		// a troca de status não altera o saldo de um lançamento cancelado, mas muda a versão do livro
+		mvc.perform(MockMvcRequestBuilders.put(API + "/" + id + "/atualiza-status").contentType(JSON).content("{\"status\":\"CANCELADO\"}"))
+				.andExpect(MockMvcResultMatchers.status().isOk());
+		mvc.perform(MockMvcRequestBuilders.get(API).param("usuario", usuario.getId().toString()).header("If-None-Match", etag))
+				.andExpect(MockMvcResultMatchers.status().isOk())
+				.andExpect(MockMvcResultMatchers.jsonPath("$[0].status").value("CANCELADO"))
+				.andExpect(MockMvcResultMatchers.header().string("ETag", Matchers.not(etag)));
+	}
+
+	@Test
+	public void resumoMensalEmUmaConsulta() throws Exception {
+		Long aluguel = criarLancamento("Aluguel");
+		criarLancamento("Mercado");
+		LancamentoDTO salario = LancamentoDTO.builder().descricao("Salario").mes(3).ano(2020)
+				.valor(BigDecimal.valueOf(1000)).tipo("RECEITA").usuario(usuario.getId()).build();
+		mvc.perform(MockMvcRequestBuilders.post(API).contentType(JSON).content(new ObjectMapper().writeValueAsString(salario)))
+				.andExpect(MockMvcResultMatchers.status().isCreated());
+		mvc.perform(MockMvcRequestBuilders.put(API + "/" + aluguel + "/atualiza-status").contentType(JSON).content("{\"status\":\"EFETIVADO\"}"))
+				.andExpect(MockMvcResultMatchers.status().isOk());
+		
+		estatisticas.clear();
+		mvc.perform(MockMvcRequestBuilders.get("/api/usuarios/" + usuario.getId() + "/resumo").param("ano", "2020"))
+				.andExpect(MockMvcResultMatchers.status().isOk())
+				.andExpect(MockMvcResultMatchers.jsonPath("$.length()").value(12))
+				.andExpect(MockMvcResultMatchers.jsonPath("$[0].despesas").value(100))
+				.andExpect(MockMvcResultMatchers.jsonPath("$[0].despesasPendentes").value(100))
+				.andExpect(MockMvcResultMatchers.jsonPath("$[0].saldo").value(-100))
+				.andExpect(MockMvcResultMatchers.jsonPath("$[2].receitasPendentes").value(1000))
+				.andExpect(MockMvcResultMatchers.jsonPath("$[2].saldo").value(0));
+		// a versão do livro e o resumo do ano
+		Assertions.assertThat(estatisticas.getPrepareStatementCount()).isEqualTo(2);
+	}
+	
+	@Test
+	public void repeticaoComIdempotencyKeyRecebeAPrimeiraResposta() throws Exception {
+		LancamentoDTO dto = LancamentoDTO.builder().descricao("Aluguel").mes(1).ano(2020)
+				.valor(BigDecimal.valueOf(100)).tipo("DESPESA").usuario(usuario.getId()).build();
+		MockHttpServletRequestBuilder salvar = MockMvcRequestBuilders.post(API).contentType(JSON)
+				.content(new ObjectMapper().writeValueAsString(dto)).header("Idempotency-Key", "salvar-aluguel");
+		
+		String primeira = mvc.perform(salvar).andExpect(MockMvcResultMatchers.status().isCreated())
+				.andReturn().getResponse().getContentAsString();
+		
+		// a repetição não valida nem grava o lançamento
+		estatisticas.clear();
+		mvc.perform(salvar).andExpect(MockMvcResultMatchers.status().isCreated())
+				.andExpect(MockMvcResultMatchers.header().string("Idempotent-Replayed", "true"))
+				.andExpect(MockMvcResultMatchers.content().json(primeira, true));
+		Assertions.assertThat(estatisticas.getPrepareStatementCount()).isZero();
+		
+		mvc.perform(MockMvcRequestBuilders.get(API).param("usuario", usuario.getId().toString()))
+				.andExpect(MockMvcResultMatchers.jsonPath("$.length()").value(1));
+		
+		// a mesma chave com outro corpo é recusada
+		dto.setValor(BigDecimal.valueOf(200));
+		mvc.perform(MockMvcRequestBuilders.post(API).contentType(JSON).content(new ObjectMapper().writeValueAsString(dto))
+				.header("Idempotency-Key", "salvar-aluguel"))
+				.andExpect(MockMvcResultMatchers.status().isUnprocessableEntity());
+		
+		Long id = new ObjectMapper().readTree(primeira).get("id").asLong();
+		MockHttpServletRequestBuilder efetivar = MockMvcRequestBuilders.put(API + "/" + id + "/atualiza-status").contentType(JSON)
+				.content("{\"status\":\"EFETIVADO\",\"versao\":0}").header("Idempotency-Key", "efetivar-aluguel");
+		
+		// sem token a troca de status não tem usuário para a chave
+		mvc.perform(efetivar).andExpect(MockMvcResultMatchers.status().isUnauthorized());
+		
+		efetivar.header("Authorization", "Bearer " + tokenService.emitir(usuario.getId()));
+		mvc.perform(efetivar).andExpect(MockMvcResultMatchers.status().isOk())
+				.andExpect(MockMvcResultMatchers.jsonPath("versao").value(1));
+		
+		// sem a chave a versão 0 já estaria desatualizada
+		mvc.perform(efetivar).andExpect(MockMvcResultMatchers.status().isOk())
+				.andExpect(MockMvcResultMatchers.jsonPath("status").value("EFETIVADO"))
+				.andExpect(MockMvcResultMatchers.jsonPath("versao").value(1));
+	}
+	
+	@Test
+	public void recusarLancamentosDeOutroUsuarioComToken() throws Exception {
+		Long id = criarLancamento("Aluguel");
+		Usuario outroUsuario = UsuariosRepositoryTest.criaUsuario();
+		outroUsuario.setEmail(System.nanoTime() + "@live.com");
+		String token = "Bearer " + tokenService.emitir(usuarioRepository.save(outroUsuario).getId());
+		String idUsuario = usuario.getId().toString();
+		String lancamento = new ObjectMapper().writeValueAsString(LancamentoDTO.builder().descricao("Aluguel").mes(1).ano(2020)
+				.valor(BigDecimal.valueOf(100)).tipo("DESPESA").usuario(usuario.getId()).build());
+		
+		MockHttpServletRequestBuilder[] requisicoes = {
+				MockMvcRequestBuilders.get(API + "/" + id),
+				MockMvcRequestBuilders.post(API).contentType(JSON).content(lancamento),
+				MockMvcRequestBuilders.post(API + "/lote").contentType(JSON).content("[" + lancamento + "]"),
+				MockMvcRequestBuilders.post(API + "/lote").contentType("text/csv")
+						.content("descricao,mes,ano,valor,tipo,status,usuario\nAluguel,1,2020,100,DESPESA,PENDENTE," + idUsuario + "\n"),
+				MockMvcRequestBuilders.put(API + "/" + id).contentType(JSON).content(lancamento),
+				MockMvcRequestBuilders.delete(API + "/" + id),
+				MockMvcRequestBuilders.put(API + "/" + id + "/atualiza-status").contentType(JSON).content("{\"status\":\"EFETIVADO\"}"),
+				MockMvcRequestBuilders.put(API + "/atualiza-status").contentType(JSON).content("{\"status\":\"EFETIVADO\",\"ids\":[" + id + "]}"),
+				MockMvcRequestBuilders.put(API + "/atualiza-status").contentType(JSON)
+						.content("{\"status\":\"EFETIVADO\",\"usuario\":" + idUsuario + ",\"ano\":2020,\"mes\":1}"),
+				MockMvcRequestBuilders.get(API).param("usuario", idUsuario),
+				MockMvcRequestBuilders.get(API + "/pagina").param("usuario", idUsuario),
+				MockMvcRequestBuilders.get(API + "/export").param("usuario", idUsuario) };
+		
+		for (MockHttpServletRequestBuilder requisicao : requisicoes) {
+			mvc.perform(requisicao.header("Authorization", token)).andExpect(MockMvcResultMatchers.status().isForbidden());
+		}
+		
+		// nada foi alterado
+		mvc.perform(MockMvcRequestBuilders.get(API + "/" + id))
+				.andExpect(MockMvcResultMatchers.status().isOk())
+				.andExpect(MockMvcResultMatchers.jsonPath("status").value("PENDENTE"))
+				.andExpect(MockMvcResultMatchers.jsonPath("versao").value(0));
+		mvc.perform(MockMvcRequestBuilders.get(API).param("usuario", idUsuario))
+				.andExpect(MockMvcResultMatchers.jsonPath("$.length()").value(1));
+	}
+	
+	@Test
+	public void importarComDescricaoLongaInformandoALinha() throws Exception {
+		LancamentoDTO valido = LancamentoDTO.builder().descricao("Aluguel").mes(1).ano(2020)
+				.valor(BigDecimal.valueOf(100)).tipo("DESPESA").usuario(usuario.getId()).build();
+		LancamentoDTO descricaoLonga = LancamentoDTO.builder().descricao(String.join("", Collections.nCopies(101, "a"))).mes(1).ano(2020)
+				.valor(BigDecimal.valueOf(100)).tipo("DESPESA").usuario(usuario.getId()).build();
+		
+		// sem a validação o insert em lote estouraria a coluna varchar(100) e nenhuma linha seria importada
+		mvc.perform(MockMvcRequestBuilders.post(API + "/lote").contentType(JSON)
+				.content(new ObjectMapper().writeValueAsString(Arrays.asList(valido, descricaoLonga))))
+				.andExpect(MockMvcResultMatchers.status().isOk())
+				.andExpect(MockMvcResultMatchers.jsonPath("importados").value(1))
+				.andExpect(MockMvcResultMatchers.jsonPath("erros[0].linha").value(2));
+	}
+	
+	private Long criarLancamento(String descricao) throws Exception {
+		LancamentoDTO dto = LancamentoDTO.builder().descricao(descricao).mes(1).ano(2020)
+				.valor(BigDecimal.valueOf(100)).tipo("DESPESA").usuario(usuario.getId()).build();
+		String resposta = mvc.perform(MockMvcRequestBuilders.post(API).contentType(JSON).content(new ObjectMapper().writeValueAsString(dto)))
+				.andExpect(MockMvcResultMatchers.status().isCreated())
+				.andReturn().getResponse().getContentAsString();
+		return new ObjectMapper().readTree(resposta).get("id").asLong();
+	}
+
+}
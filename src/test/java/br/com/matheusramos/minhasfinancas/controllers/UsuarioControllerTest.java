@@ -1,5 +1,11 @@
 package br.com.matheusramos.minhasfinancas.controllers;
 
+import java.math.BigDecimal;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mockito;
@@ -11,6 +17,7 @@ import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
@@ -20,8 +27,11 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import br.com.matheusramos.minhasfinancas.dtos.UsuarioDTO;
 import br.com.matheusramos.minhasfinancas.exceptions.ErroAuthException;
 import br.com.matheusramos.minhasfinancas.exceptions.RegraNegocioException;
+import br.com.matheusramos.minhasfinancas.exceptions.ServicoOcupadoException;
 import br.com.matheusramos.minhasfinancas.interfaces.LancamentoService;
+import br.com.matheusramos.minhasfinancas.interfaces.TokenService;
 import br.com.matheusramos.minhasfinancas.interfaces.UsuarioService;
+import br.com.matheusramos.minhasfinancas.interfaces.VersaoLivroService;
 import br.com.matheusramos.minhasfinancas.model.entity.Usuario;
 
 @ExtendWith(SpringExtension.class)
@@ -40,6 +50,17 @@ public class UsuarioControllerTest {
 	UsuarioService usuarioService;
 	@MockBean
 	LancamentoService lancamentoService;
+	@MockBean
+	TokenService tokenService;
+	@MockBean
+	VersaoLivroService versaoLivroService;
+	
+	@BeforeEach
+	public void setUp() {
+		// a consulta é executada com uma versão fixa do livro
+		Mockito.when(versaoLivroService.consultar(Mockito.anyLong(), Mockito.any()))
+				.thenAnswer(invocacao -> invocacao.<Function<String, Object>>getArgument(1).apply("\"a-1\""));
+	}
 
 	@Test
 	public void autenticarUsuario() throws Exception {
@@ -53,7 +74,8 @@ public class UsuarioControllerTest {
 		Usuario usuario = Usuario.builder().id(1L).email(email).senha(senha).build(); // usuário cadastrado na base de
 																						// dados
 
-		Mockito.when(usuarioService.autenticar(email, senha)).thenReturn(usuario);
+		Mockito.when(usuarioService.autenticarAssincrono(email, senha)).thenReturn(CompletableFuture.completedFuture(usuario));
+		Mockito.when(tokenService.emitir(1L)).thenReturn("token-assinado");
 		String json = new ObjectMapper().writeValueAsString(dto);
 
 		// execução e verificação
@@ -62,11 +84,16 @@ public class UsuarioControllerTest {
 		MockHttpServletRequestBuilder request = MockMvcRequestBuilders.post(API.concat("/autenticar")).accept(JSON)
 				.contentType(JSON).content(json);
 
+		// resposta assíncrona (CompletableFuture), despachada depois da conferência da senha
+		MvcResult resultado = mvc.perform(request).andExpect(MockMvcResultMatchers.request().asyncStarted()).andReturn();
+
 		// aqui fica o response retornado da API - no caso 200 - SUCCESS
-		mvc.perform(request).andExpect(MockMvcResultMatchers.status().isOk())
+		mvc.perform(MockMvcRequestBuilders.asyncDispatch(resultado)).andExpect(MockMvcResultMatchers.status().isOk())
 				.andExpect(MockMvcResultMatchers.jsonPath("id").value(usuario.getId()))
 				.andExpect(MockMvcResultMatchers.jsonPath("nome").value(usuario.getNome()))
-				.andExpect(MockMvcResultMatchers.jsonPath("email").value(usuario.getEmail()));
+				.andExpect(MockMvcResultMatchers.jsonPath("email").value(usuario.getEmail()))
+				.andExpect(MockMvcResultMatchers.jsonPath("token").value("token-assinado"))
+				.andExpect(MockMvcResultMatchers.jsonPath("senha").doesNotExist());
 
 	}
 
@@ -77,7 +104,9 @@ public class UsuarioControllerTest {
 		String senha = "123";
 
 		UsuarioDTO dto = UsuarioDTO.builder().email(email).senha(senha).build();																						
-		Mockito.when(usuarioService.autenticar(email, senha)).thenThrow(ErroAuthException.class);
+		CompletableFuture<Usuario> erro = new CompletableFuture<>();
+		erro.completeExceptionally(new ErroAuthException("Senha de usuário inválida"));
+		Mockito.when(usuarioService.autenticarAssincrono(email, senha)).thenReturn(erro);
 		
 		String json = new ObjectMapper().writeValueAsString(dto);
 
@@ -87,10 +116,72 @@ public class UsuarioControllerTest {
 		MockHttpServletRequestBuilder request = MockMvcRequestBuilders.post(API.concat("/autenticar")).accept(JSON)
 				.contentType(JSON).content(json);
 
+		MvcResult resultado = mvc.perform(request).andExpect(MockMvcResultMatchers.request().asyncStarted()).andReturn();
+
 		// aqui fica o response retornado da API - no caso 400 - BAD REQUEST
-		mvc.perform(request).andExpect(MockMvcResultMatchers.status().isBadRequest());
+		mvc.perform(MockMvcRequestBuilders.asyncDispatch(resultado)).andExpect(MockMvcResultMatchers.status().isBadRequest());
 	}
 	
+	@Test
+	public void autenticarComPoolDeSenhasOcupado() throws Exception {
+		String email = "usuario@live.com";
+		String senha = "123";
+
+		UsuarioDTO dto = UsuarioDTO.builder().email(email).senha(senha).build();
+		CompletableFuture<Usuario> erro = new CompletableFuture<>();
+		erro.completeExceptionally(new ServicoOcupadoException("Muitas autenticações simultâneas, tente novamente"));
+		Mockito.when(usuarioService.autenticarAssincrono(email, senha)).thenReturn(erro);
+
+		MockHttpServletRequestBuilder request = MockMvcRequestBuilders.post(API.concat("/autenticar")).accept(JSON)
+				.contentType(JSON).content(new ObjectMapper().writeValueAsString(dto));
+		MvcResult resultado = mvc.perform(request).andExpect(MockMvcResultMatchers.request().asyncStarted()).andReturn();
+
+		// 503 com Retry-After, para o cliente tentar de novo em vez de tratar como senha inválida
+		mvc.perform(MockMvcRequestBuilders.asyncDispatch(resultado)).andExpect(MockMvcResultMatchers.status().isServiceUnavailable())
+				.andExpect(MockMvcResultMatchers.header().string("Retry-After", "1"));
+	}
+	
+	@Test
+	public void obterSaldoComTokenSemConsultarUsuario() throws Exception {
+		Mockito.when(tokenService.verificar("token-assinado")).thenReturn(Optional.of(1L));
+		Mockito.when(lancamentoService.obterSaldoPorUsuario(1L)).thenReturn(BigDecimal.TEN);
+
+		mvc.perform(MockMvcRequestBuilders.get(API.concat("/1/saldo")).header("Authorization", "Bearer token-assinado"))
+				.andExpect(MockMvcResultMatchers.status().isOk());
+		Mockito.verify(usuarioService, Mockito.never()).existe(Mockito.anyLong());
+
+		// token de outro usuário
+		mvc.perform(MockMvcRequestBuilders.get(API.concat("/2/saldo")).header("Authorization", "Bearer token-assinado"))
+				.andExpect(MockMvcResultMatchers.status().isForbidden());
+	}
+
+	@Test
+	public void obterSaldoNaoModificadoSemConsultarSaldo() throws Exception {
+		Mockito.when(tokenService.verificar("token-assinado")).thenReturn(Optional.of(1L));
+		Mockito.when(lancamentoService.obterSaldoPorUsuario(1L)).thenReturn(BigDecimal.TEN);
+
+		mvc.perform(MockMvcRequestBuilders.get(API.concat("/1/saldo")).header("Authorization", "Bearer token-assinado"))
+				.andExpect(MockMvcResultMatchers.status().isOk())
+				.andExpect(MockMvcResultMatchers.header().string("ETag", "\"a-1\""));
+
+		mvc.perform(MockMvcRequestBuilders.get(API.concat("/1/saldo")).header("Authorization", "Bearer token-assinado")
+				.header("If-None-Match", "\"a-1\""))
+				.andExpect(MockMvcResultMatchers.status().isNotModified());
+		Mockito.verify(lancamentoService, Mockito.times(1)).obterSaldoPorUsuario(1L);
+	}
+
+	@Test
+	public void recusarTokenInvalidoERevogarNoLogout() throws Exception {
+		Mockito.when(tokenService.verificar(Mockito.anyString())).thenReturn(Optional.empty());
+		mvc.perform(MockMvcRequestBuilders.get(API.concat("/1/saldo")).header("Authorization", "Bearer adulterado"))
+				.andExpect(MockMvcResultMatchers.status().isUnauthorized());
+
+		Mockito.when(tokenService.verificar("token-assinado")).thenReturn(Optional.of(1L));
+		mvc.perform(MockMvcRequestBuilders.post(API.concat("/sair")).header("Authorization", "Bearer token-assinado"))
+				.andExpect(MockMvcResultMatchers.status().isNoContent());
+		Mockito.verify(tokenService).revogar("token-assinado");
+	}
+
 	@Test
 	public void salvarUsuario() throws Exception {
 
@@ -115,7 +206,8 @@ public class UsuarioControllerTest {
 		mvc.perform(request).andExpect(MockMvcResultMatchers.status().isCreated())
 				.andExpect(MockMvcResultMatchers.jsonPath("id").value(usuario.getId()))
 				.andExpect(MockMvcResultMatchers.jsonPath("nome").value(usuario.getNome()))
-				.andExpect(MockMvcResultMatchers.jsonPath("email").value(usuario.getEmail()));
+				.andExpect(MockMvcResultMatchers.jsonPath("email").value(usuario.getEmail()))
+				.andExpect(MockMvcResultMatchers.jsonPath("senha").doesNotExist());
 
 	}
 	
@@ -0,0 +1,35 @@
+package br.com.matheusramos.minhasfinancas.model;
+
+import java.math.BigDecimal;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class DinheiroTest {
+
+	@Test
+	public void somarEmCentavosComVerificacaoDeLimite() {
+		Dinheiro valor = Dinheiro.de(new BigDecimal("10.1"));
+
+		Assertions.assertThat(valor.getCentavos()).isEqualTo(1010);
+		Assertions.assertThat(valor.somar(Dinheiro.de(BigDecimal.valueOf(5))).subtrair(Dinheiro.deCentavos(10)))
+				.isEqualTo(Dinheiro.de(new BigDecimal("15.00")));
+		Assertions.assertThat(valor.negar().toBigDecimal()).isEqualByComparingTo("-10.10");
+
+		Assertions.assertThatThrownBy(() -> Dinheiro.de(new BigDecimal("0.001"))).isInstanceOf(ArithmeticException.class);
+		Assertions.assertThatThrownBy(() -> Dinheiro.deCentavos(Long.MAX_VALUE).somar(Dinheiro.deCentavos(1)))
+				.isInstanceOf(ArithmeticException.class);
+	}
+
+	@Test
+	public void jsonIgualAoDoBigDecimal() throws Exception {
+		ObjectMapper mapper = new ObjectMapper();
+
+		Assertions.assertThat(mapper.writeValueAsString(Dinheiro.de(new BigDecimal("1234.5"))))
+				.isEqualTo(mapper.writeValueAsString(new BigDecimal("1234.50")));
+		Assertions.assertThat(mapper.readValue("-7.25", Dinheiro.class)).isEqualTo(Dinheiro.deCentavos(-725));
+	}
+
+}
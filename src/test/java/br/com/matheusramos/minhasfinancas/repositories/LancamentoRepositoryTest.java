@@ -4,6 +4,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.List;
 import java.util.Optional;
 
 import org.junit.jupiter.api.Test;
@@ -16,9 +17,12 @@ import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
+import br.com.matheusramos.minhasfinancas.dtos.LancamentoDTO;
 import br.com.matheusramos.minhasfinancas.enums.EnumStatusLancamento;
 import br.com.matheusramos.minhasfinancas.enums.EnumTipoLancamento;
+import br.com.matheusramos.minhasfinancas.model.CursorLancamento;
 import br.com.matheusramos.minhasfinancas.model.entity.Lancamento;
+import br.com.matheusramos.minhasfinancas.model.entity.Usuario;
 
 @ExtendWith(SpringExtension.class) // Extensão dada para uso do JUnit 5 em vez de @RunWith
 @DataJpaTest
@@ -36,6 +40,7 @@ public class LancamentoRepositoryTest {
 	public void salvarLancamento() {
 		
 		Lancamento lancamento = criarLancamento();
+		lancamento.setUsuario(em.persist(UsuariosRepositoryTest.criaUsuario()));
 		
 		lancamento = repository.save(lancamento);
 		
@@ -82,11 +87,38 @@ public class LancamentoRepositoryTest {
 		assertThat(lancamentoEncontrado.isPresent()).isTrue();
 	}
 	
-	private Lancamento criarEPersistirUmLancamento() {
+	@Test
+	public void buscarPaginaAPartirDoCursor() {
+		Usuario usuario = em.persist(UsuariosRepositoryTest.criaUsuario());
+		Lancamento janeiro = criarEPersistirUmLancamento(usuario, 2020, 1);
+		Lancamento fevereiro = criarEPersistirUmLancamento(usuario, 2020, 2);
+		Lancamento dezembroAnterior = criarEPersistirUmLancamento(usuario, 2019, 12);
+		
+		Lancamento filtro = Lancamento.builder().usuario(usuario).build();
+		
+		List<LancamentoDTO> primeiraPagina = repository.buscarPagina(filtro, null, 2, false);
+		assertThat(primeiraPagina).extracting("id").containsExactly(dezembroAnterior.getId(), janeiro.getId());
+		
+		List<LancamentoDTO> segundaPagina = repository.buscarPagina(filtro, CursorLancamento.de(primeiraPagina.get(1)), 2, false);
+		assertThat(segundaPagina).extracting("id").containsExactly(fevereiro.getId());
+		
+		List<LancamentoDTO> decrescente = repository.buscarPagina(filtro, CursorLancamento.de(segundaPagina.get(0)), 2, true);
+		assertThat(decrescente).extracting("id").containsExactly(janeiro.getId(), dezembroAnterior.getId());
+		assertThat(decrescente.get(0).getUsuario()).isEqualTo(usuario.getId());
+	}
+	
+	private Lancamento criarEPersistirUmLancamento(Usuario usuario, int ano, int mes) {
 		Lancamento lancamento = criarLancamento();
+		lancamento.setUsuario(usuario);
+		lancamento.setAno(ano);
+		lancamento.setMes(mes);
 		em.persist(lancamento);
 		return lancamento;
 	}
+	
+	private Lancamento criarEPersistirUmLancamento() {
+		return criarEPersistirUmLancamento(em.persist(UsuariosRepositoryTest.criaUsuario()), 2020, 2);
+	}
 
 	public static Lancamento criarLancamento() {
 		return Lancamento.builder()
@@ -0,0 +1,152 @@
+package br.com.matheusramos.minhasfinancas.repositories;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase.Replace;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import br.com.matheusramos.minhasfinancas.enums.EnumStatusLancamento;
+import br.com.matheusramos.minhasfinancas.enums.EnumTipoLancamento;
+import br.com.matheusramos.minhasfinancas.model.entity.Lancamento;
+import br.com.matheusramos.minhasfinancas.model.entity.Usuario;
+
+/*
+ * Executa as consultas principais, captura o SQL gerado pelo Hibernate e verifica no plano do H2 (EXPLAIN)
+ * que nenhuma delas percorre a tabela inteira. Falha o build se uma consulta ou um índice das migrações mudar
+ * */
+@ExtendWith(SpringExtension.class)
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+		+ "br.com.matheusramos.minhasfinancas.repositories.PlanoConsultasTest$ConsultasCapturadas")
+@AutoConfigureTestDatabase(replace = Replace.NONE)
+@ActiveProfiles("test")
+public class PlanoConsultasTest {
+
+	static final String INDICE_USUARIO_ANO_MES = "IDX_LANCAMENTO_USUARIO_ANO_MES";
+	static final String INDICE_USUARIO_TIPO_STATUS = "IDX_LANCAMENTO_USUARIO_TIPO_STATUS";
+	static final String INDICE_EMAIL = "IDX_USUARIO_EMAIL";
+	
+	@Autowired
+	LancamentoRepository lancamentoRepository;
+	
+	@Autowired
+	UsuarioRepository usuarioRepository;
+	
+	@Autowired
+	ResumoMensalRepository resumoRepository;
+	
+	@Autowired
+	JdbcTemplate jdbcTemplate;
+	
+	Lancamento filtro;
+	
+	@BeforeEach
+	public void setUp() {
+		filtro = Lancamento.builder().usuario(Usuario.builder().id(1L).build()).ano(2020).mes(1).build();
+		ConsultasCapturadas.SQLS.clear();
+	}
+	
+	@Test
+	public void saldoUsaIndiceDeTipoEStatus() {
+		lancamentoRepository.obterSaldoPorTipoLancamentoEUsuarioEStatus(1L, EnumTipoLancamento.RECEITA, EnumStatusLancamento.EFETIVADO);
+		assertThat(plano()).contains(INDICE_USUARIO_TIPO_STATUS);
+	}
+	
+	@Test
+	public void listagemUsaIndiceDePeriodo() {
+		lancamentoRepository.listar(filtro);
+		assertThat(plano()).contains(INDICE_USUARIO_ANO_MES);
+	}
+	
+	@Test
+	public void paginaUsaIndiceDePeriodo() {
+		lancamentoRepository.buscarPagina(filtro, null, 10, false);
+		assertThat(plano()).contains(INDICE_USUARIO_ANO_MES);
+	}
+	
+	@Test
+	public void lancamentosDoMesUsamIndice() {
+		lancamentoRepository.obterIdsPorUsuarioEMesEStatus(1L, 2020, 1, EnumStatusLancamento.PENDENTE);
+		assertThat(plano()).containsPattern(INDICE_USUARIO_ANO_MES + "|" + INDICE_USUARIO_TIPO_STATUS);
+	}
+	
+	@Test
+	public void lancamentosDoUsuarioUsamIndice() {
+		// somente o id do usuário: no H2 pode ser usado o índice da chave estrangeira, no PostgreSQL o prefixo dos índices compostos
+		lancamentoRepository.obterDescricoesPorUsuario(1L);
+		plano();
+		
+		ConsultasCapturadas.SQLS.clear();
+		lancamentoRepository.percorrerPorUsuario(1L, lancamento -> { });
+		plano();
+	}
+	
+	@Test
+	public void consultasPorIdUsamChavePrimaria() {
+		lancamentoRepository.obterDTOPorId(1L);
+		assertThat(plano()).contains("PRIMARY_KEY");
+		
+		ConsultasCapturadas.SQLS.clear();
+		lancamentoRepository.somarPorUsuarioEMesETipo(Arrays.asList(1L, 2L), EnumStatusLancamento.EFETIVADO);
+		assertThat(plano()).contains("PRIMARY_KEY");
+	}
+	
+	@Test
+	public void resumoMensalUsaIndice() {
+		// no H2 pode ser usado o índice da chave estrangeira, no PostgreSQL o prefixo (id_usuario, ano) da chave primária
+		resumoRepository.obterPorUsuarioEAno(1L, 2020);
+		plano();
+	}
+	
+	@Test
+	public void emailUsaIndiceUnico() {
+		usuarioRepository.existsByEmail("usuario@email.com");
+		assertThat(plano()).contains(INDICE_EMAIL);
+		
+		ConsultasCapturadas.SQLS.clear();
+		usuarioRepository.findByEmail("usuario@email.com");
+		assertThat(plano()).contains(INDICE_EMAIL);
+	}
+	
+	/**
+	 * Plano da última consulta capturada, com todos os parâmetros preenchidos
+	 * */
+	private String plano() {
+		assertThat(ConsultasCapturadas.SQLS).isNotEmpty();
+		String sql = ConsultasCapturadas.SQLS.get(ConsultasCapturadas.SQLS.size() - 1);
+		
+		Object[] parametros = new Object[sql.length() - sql.replace("?", "").length()];
+		Arrays.fill(parametros, 1);
+		
+		String plano = jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class, parametros);
+		assertThat(plano).as(plano).doesNotContain("tableScan");
+		return plano;
+	}
+	
+	public static class ConsultasCapturadas implements StatementInspector {
+		
+		private static final long serialVersionUID = 1L;
+		
+		static final List<String> SQLS = new CopyOnWriteArrayList<>();
+
+		@Override
+		public String inspect(String sql) {
+			SQLS.add(sql);
+			return sql;
+		}
+		
+	}
+	
+}
@@ -0,0 +1,51 @@
+package br.com.matheusramos.minhasfinancas.repositories;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase.Replace;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import br.com.matheusramos.minhasfinancas.enums.EnumStatusLancamento;
+import br.com.matheusramos.minhasfinancas.enums.EnumTipoLancamento;
+import br.com.matheusramos.minhasfinancas.model.Dinheiro;
+import br.com.matheusramos.minhasfinancas.model.entity.ChaveResumoMensal;
+import br.com.matheusramos.minhasfinancas.model.entity.ResumoMensal;
+import br.com.matheusramos.minhasfinancas.model.entity.Usuario;
+
+@ExtendWith(SpringExtension.class)
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = Replace.NONE)
+@ActiveProfiles("test")
+public class ResumoMensalRepositoryTest {
+
+	@Autowired
+	ResumoMensalRepository repository;
+	
+	@Autowired
+	TestEntityManager em;
+	
+	@Test
+	public void somarTotalCriandoALinhaDoMes() {
+		Usuario usuario = em.persist(UsuariosRepositoryTest.criaUsuario());
+		ChaveResumoMensal janeiro = new ChaveResumoMensal(usuario.getId(), 2020, 1, EnumTipoLancamento.DESPESA, EnumStatusLancamento.PENDENTE);
+		ChaveResumoMensal fevereiro = new ChaveResumoMensal(usuario.getId(), 2020, 2, EnumTipoLancamento.DESPESA, EnumStatusLancamento.PENDENTE);
+		
+		repository.somarTotal(janeiro, Dinheiro.de(BigDecimal.valueOf(100)));
+		repository.somarTotal(janeiro, Dinheiro.de(new BigDecimal("20.25")));
+		repository.somarTotal(fevereiro, Dinheiro.de(BigDecimal.TEN));
+		
+		em.clear();
+		assertThat(repository.findById(janeiro)).map(ResumoMensal::getTotal).contains(Dinheiro.de(new BigDecimal("120.25")));
+		assertThat(repository.findById(fevereiro)).map(ResumoMensal::getTotal).contains(Dinheiro.de(BigDecimal.TEN));
+	}
+	
+}
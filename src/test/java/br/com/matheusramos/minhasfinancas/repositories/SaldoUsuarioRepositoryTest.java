@@ -0,0 +1,64 @@
+package br.com.matheusramos.minhasfinancas.repositories;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase.Replace;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import br.com.matheusramos.minhasfinancas.model.Dinheiro;
+import br.com.matheusramos.minhasfinancas.model.entity.SaldoUsuario;
+import br.com.matheusramos.minhasfinancas.model.entity.Usuario;
+
+@ExtendWith(SpringExtension.class)
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = Replace.NONE)
+@ActiveProfiles("test")
+public class SaldoUsuarioRepositoryTest {
+
+	@Autowired
+	SaldoUsuarioRepository repository;
+	
+	@Autowired
+	TestEntityManager em;
+	
+	@Test
+	public void somarSaldoCriandoALinhaDoUsuario() {
+		Usuario usuario = em.persist(UsuariosRepositoryTest.criaUsuario());
+		
+		repository.somarSaldo(usuario.getId(), Dinheiro.de(BigDecimal.valueOf(100)));
+		repository.somarSaldo(usuario.getId(), Dinheiro.de(new BigDecimal("-30.50")));
+		
+		em.clear();
+		assertThat(repository.findById(usuario.getId())).map(SaldoUsuario::getSaldo)
+				.contains(Dinheiro.de(new BigDecimal("69.50")));
+	}
+	
+	@Test
+	public void versaoDoLivroSempreCresce() {
+		Usuario usuario = em.persist(UsuariosRepositoryTest.criaUsuario());
+		assertThat(repository.obterVersao(usuario.getId())).isEmpty();
+		
+		repository.somarSaldo(usuario.getId(), Dinheiro.de(BigDecimal.TEN));
+		long criada = repository.obterVersao(usuario.getId()).get();
+		
+		// sem diferença de saldo, como numa alteração de lançamento pendente
+		repository.somarSaldo(usuario.getId(), Dinheiro.ZERO);
+		long alterada = repository.obterVersao(usuario.getId()).get();
+		assertThat(alterada).isGreaterThan(criada);
+		
+		// o recálculo recria as linhas sem repetir versões anteriores
+		repository.apagarSaldos();
+		repository.recalcularSaldos();
+		assertThat(repository.obterVersao(usuario.getId()).get()).isGreaterThan(alterada);
+	}
+	
+}
@@ -0,0 +1,76 @@
+package br.com.matheusramos.minhasfinancas.services;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import br.com.matheusramos.minhasfinancas.interfaces.ArmazenamentoIdempotencia;
+import br.com.matheusramos.minhasfinancas.model.entity.RequisicaoIdempotente;
+import br.com.matheusramos.minhasfinancas.repositories.RequisicaoIdempotenteRepository;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@SpringBootTest
+public class ArmazenamentoIdempotenciaTest {
+
+	@Autowired
+	RequisicaoIdempotenteRepository repository;
+	
+	@Autowired
+	PlatformTransactionManager transactionManager;
+	
+	@Test
+	public void reservarConcluirELiberarEmMemoriaENaTabela() {
+		verificar(new ArmazenamentoIdempotenciaMemoria(100));
+		verificar(new ArmazenamentoIdempotenciaTabela(repository, transactionManager));
+	}
+	
+	@Test
+	public void memoriaDescartaAsChavesMaisAntigas() {
+		ArmazenamentoIdempotencia armazenamento = new ArmazenamentoIdempotenciaMemoria(2);
+		Instant validade = Instant.now().plus(1, ChronoUnit.HOURS);
+		armazenamento.reservar("1:a", "x", validade);
+		armazenamento.reservar("1:b", "x", validade);
+		armazenamento.reservar("1:c", "x", validade);
+		
+		Assertions.assertThat(armazenamento.reservar("1:c", "x", validade)).isPresent();
+		Assertions.assertThat(armazenamento.reservar("1:a", "x", validade)).isEmpty();
+	}
+	
+	private void verificar(ArmazenamentoIdempotencia armazenamento) {
+		String chave = System.nanoTime() + ":chave";
+		Instant validade = Instant.now().plus(1, ChronoUnit.HOURS);
+		
+		Assertions.assertThat(armazenamento.reservar(chave, "impressao", validade)).isEmpty();
+		RequisicaoIdempotente emAndamento = armazenamento.reservar(chave, "impressao", validade).get();
+		Assertions.assertThat(emAndamento.concluida()).isFalse();
+		
+		armazenamento.concluir(chave, 201, "{\"id\":1}", validade);
+		RequisicaoIdempotente concluida = armazenamento.reservar(chave, "outra", validade).get();
+		Assertions.assertThat(concluida.getImpressao()).isEqualTo("impressao");
+		Assertions.assertThat(concluida.getStatus()).isEqualTo(201);
+		Assertions.assertThat(concluida.getCorpo()).isEqualTo("{\"id\":1}");
+		
+		armazenamento.liberar(chave);
+		Assertions.assertThat(armazenamento.reservar(chave, "impressao", Instant.now().minusSeconds(1))).isEmpty();
+		// a reserva anterior já expirou
+		Assertions.assertThat(armazenamento.reservar(chave, "impressao", validade)).isEmpty();
+		armazenamento.liberar(chave);
+		
+		// a reserva que expirou em andamento pode ser retomada, e a conclusão recebe a validade inteira
+		Instant reservaExpirada = Instant.now().minusSeconds(1);
+		Assertions.assertThat(armazenamento.reservar(chave, "impressao", reservaExpirada)).isEmpty();
+		Assertions.assertThat(armazenamento.reservar(chave, "impressao", reservaExpirada)).isEmpty();
+		armazenamento.concluir(chave, 200, "{}", validade);
+		Assertions.assertThat(armazenamento.reservar(chave, "impressao", reservaExpirada).get().getStatus()).isEqualTo(200);
+	}
+
+}
@@ -0,0 +1,55 @@
+package br.com.matheusramos.minhasfinancas.services;
+
+import java.util.Collections;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import br.com.matheusramos.minhasfinancas.model.DescricaoLancamento;
+import br.com.matheusramos.minhasfinancas.repositories.LancamentoRepository;
+
+public class BuscaDescricaoServiceTest {
+
+	LancamentoRepository repository = Mockito.mock(LancamentoRepository.class);
+	BuscaDescricaoServiceImpl service = new BuscaDescricaoServiceImpl(repository, 10);
+
+	@Test
+	public void manterIndiceMontadoDuranteGravacaoDeOutroUsuario() {
+		Mockito.when(repository.obterDescricoesPorUsuario(1L)).thenAnswer(invocacao -> {
+			service.registrar(2L, 20L, "Mercado");
+			return Collections.singletonList(descricao(10L, "Aluguel"));
+		});
+		
+		Assertions.assertThat(service.buscar(1L, "aluguel")).containsExactly(10L);
+		Assertions.assertThat(service.buscar(1L, "aluguel")).containsExactly(10L);
+		Mockito.verify(repository, Mockito.times(1)).obterDescricoesPorUsuario(1L);
+	}
+	
+	@Test
+	public void descartarIndiceMontadoDuranteGravacaoDoMesmoUsuario() {
+		Mockito.when(repository.obterDescricoesPorUsuario(1L)).thenAnswer(invocacao -> {
+			service.registrar(1L, 11L, "Aluguel atrasado");
+			return Collections.singletonList(descricao(10L, "Aluguel"));
+		});
+		
+		service.buscar(1L, "aluguel");
+		service.buscar(1L, "aluguel");
+		Mockito.verify(repository, Mockito.times(2)).obterDescricoesPorUsuario(1L);
+	}
+	
+	private static DescricaoLancamento descricao(Long id, String descricao) {
+		return new DescricaoLancamento() {
+			@Override
+			public Long getId() {
+				return id;
+			}
+			
+			@Override
+			public String getDescricao() {
+				return descricao;
+			}
+		};
+	}
+	
+}
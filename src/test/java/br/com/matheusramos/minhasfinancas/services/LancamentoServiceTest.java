@@ -2,6 +2,7 @@ package br.com.matheusramos.minhasfinancas.services;
 
 import java.math.BigDecimal;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 
@@ -15,12 +16,25 @@ import org.springframework.data.domain.Example;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
+import br.com.matheusramos.minhasfinancas.dtos.LancamentoDTO;
+import br.com.matheusramos.minhasfinancas.dtos.ResultadoAtualizacaoStatusDTO;
+import br.com.matheusramos.minhasfinancas.dtos.ResultadoImportacaoDTO;
 import br.com.matheusramos.minhasfinancas.enums.EnumStatusLancamento;
+import br.com.matheusramos.minhasfinancas.enums.EnumTipoLancamento;
 import br.com.matheusramos.minhasfinancas.exceptions.RegraNegocioException;
+import br.com.matheusramos.minhasfinancas.interfaces.BuscaDescricaoService;
+import br.com.matheusramos.minhasfinancas.interfaces.EventosLivroService;
+import br.com.matheusramos.minhasfinancas.interfaces.UsuarioService;
+import br.com.matheusramos.minhasfinancas.model.Dinheiro;
+import br.com.matheusramos.minhasfinancas.model.SituacaoLancamento;
+import br.com.matheusramos.minhasfinancas.model.entity.ChaveResumoMensal;
 import br.com.matheusramos.minhasfinancas.model.entity.Lancamento;
+import br.com.matheusramos.minhasfinancas.model.entity.SaldoUsuario;
 import br.com.matheusramos.minhasfinancas.model.entity.Usuario;
 import br.com.matheusramos.minhasfinancas.repositories.LancamentoRepository;
 import br.com.matheusramos.minhasfinancas.repositories.LancamentoRepositoryTest;
+import br.com.matheusramos.minhasfinancas.repositories.ResumoMensalRepository;
+import br.com.matheusramos.minhasfinancas.repositories.SaldoUsuarioRepository;
 
 @ExtendWith(SpringExtension.class)
 @ActiveProfiles("test")
@@ -30,6 +44,16 @@ public class LancamentoServiceTest {
 	LancamentoServiceImpl service;
 	@MockBean
 	LancamentoRepository repository;
+	@MockBean
+	SaldoUsuarioRepository saldoRepository;
+	@MockBean
+	ResumoMensalRepository resumoRepository;
+	@MockBean
+	UsuarioService usuarioService;
+	@MockBean
+	BuscaDescricaoService buscaDescricaoService;
+	@MockBean
+	EventosLivroService eventosLivroService;
 
 	@Test
 	public void salvarLancamento() {
@@ -144,10 +168,11 @@ public class LancamentoServiceTest {
 		Mockito.doReturn(lancamento).when(service).atualizar(lancamento);
 
 		// execução
-		service.atualizarStatus(lancamento, novoStatus);
+		Lancamento atualizado = service.atualizarStatus(lancamento, novoStatus);
 
 		// verificações
 		Assertions.assertThat(lancamento.getStatus()).isEqualTo(novoStatus);
+		Assertions.assertThat(atualizado).isSameAs(lancamento);
 		Mockito.verify(service).atualizar(lancamento);
 
 	}
@@ -254,10 +279,150 @@ public class LancamentoServiceTest {
 		erro = Assertions.catchThrowable(() -> service.validar(lancamento));
 		Assertions.assertThat(erro).isInstanceOf(RegraNegocioException.class).hasMessage("Informe um 'valor' válido");
 		
+		lancamento.setValor(new BigDecimal("100000000000000"));
+		
+		erro = Assertions.catchThrowable(() -> service.validar(lancamento));
+		Assertions.assertThat(erro).isInstanceOf(RegraNegocioException.class).hasMessage("Informe um 'valor' válido");
+		
+		lancamento.setValor(new BigDecimal("20.001"));
+		
+		erro = Assertions.catchThrowable(() -> service.validar(lancamento));
+		Assertions.assertThat(erro).isInstanceOf(RegraNegocioException.class).hasMessage("Informe um 'valor' com no máximo duas casas decimais");
+		
 		lancamento.setValor(BigDecimal.valueOf(20));
 		
 		erro = Assertions.catchThrowable(() -> service.validar(lancamento));
 		Assertions.assertThat(erro).isInstanceOf(RegraNegocioException.class).hasMessage("Informe um 'tipo de lançamento'");
 	}
 
+	@Test
+	public void atualizarSaldoAoEfetivarLancamento() {
+		// cenário
+		Lancamento lancamento = LancamentoRepositoryTest.criarLancamento();
+		lancamento.setId(1L);
+		lancamento.setUsuario(Usuario.builder().id(1L).build());
+		lancamento.setStatus(EnumStatusLancamento.EFETIVADO);
+		
+		Mockito.doNothing().when(service).validar(lancamento);
+		Mockito.when(repository.obterSituacao(1L)).thenReturn(Optional.of(
+				new SituacaoLancamento(1L, 2020, 1, EnumTipoLancamento.RECEITA, EnumStatusLancamento.PENDENTE, BigDecimal.valueOf(10))));
+		Mockito.when(repository.save(lancamento)).thenReturn(lancamento);
+		
+		// execução
+		service.atualizar(lancamento);
+		
+		// verificação
+		Mockito.verify(saldoRepository).somarSaldo(1L, Dinheiro.de(BigDecimal.valueOf(10)));
+	}
+	
+	@Test
+	public void moverTotalDoResumoMensalAoTrocarMes() {
+		// cenário: o lançamento pendente passa do mês 1 para o mês 2
+		Lancamento lancamento = LancamentoRepositoryTest.criarLancamento();
+		lancamento.setId(1L);
+		lancamento.setUsuario(Usuario.builder().id(1L).build());
+		ChaveResumoMensal mesAnterior = new ChaveResumoMensal(1L, 2020, 1, EnumTipoLancamento.RECEITA, EnumStatusLancamento.PENDENTE);
+		ChaveResumoMensal mesAtual = new ChaveResumoMensal(1L, 2020, 2, EnumTipoLancamento.RECEITA, EnumStatusLancamento.PENDENTE);
+		
+		Mockito.doNothing().when(service).validar(lancamento);
+		Mockito.when(repository.obterSituacao(1L)).thenReturn(Optional.of(
+				new SituacaoLancamento(1L, 2020, 1, EnumTipoLancamento.RECEITA, EnumStatusLancamento.PENDENTE, BigDecimal.valueOf(10))));
+		Mockito.when(repository.save(lancamento)).thenReturn(lancamento);
+		
+		// execução
+		service.atualizar(lancamento);
+		
+		// verificação
+		Mockito.verify(resumoRepository).somarTotal(mesAnterior, Dinheiro.de(BigDecimal.valueOf(-10)));
+		Mockito.verify(resumoRepository).somarTotal(mesAtual, Dinheiro.de(BigDecimal.valueOf(10)));
+		// sem diferença de saldo, somente a versão do livro muda
+		Mockito.verify(saldoRepository).somarSaldo(Mockito.eq(1L), Mockito.argThat(valor -> valor.sinal() == 0));
+	}
+	
+	@Test
+	public void estornarSaldoAoDeletarLancamentoEfetivado() {
+		// cenário
+		Lancamento lancamento = LancamentoRepositoryTest.criarLancamento();
+		lancamento.setId(1L);
+		
+		Mockito.when(repository.obterSituacao(1L)).thenReturn(Optional.of(
+				new SituacaoLancamento(1L, 2020, 1, EnumTipoLancamento.DESPESA, EnumStatusLancamento.EFETIVADO, BigDecimal.valueOf(10))));
+		
+		// execução
+		service.deletar(lancamento);
+		
+		// verificação
+		Mockito.verify(saldoRepository).somarSaldo(1L, Dinheiro.de(BigDecimal.valueOf(10)));
+	}
+	
+	@Test
+	public void obterSaldoPorUsuario() {
+		// cenário
+		Mockito.when(saldoRepository.findById(1L)).thenReturn(Optional.of(SaldoUsuario.builder().idUsuario(1L).saldo(Dinheiro.de(BigDecimal.valueOf(30))).build()));
+		
+		// execução e verificação
+		Assertions.assertThat(service.obterSaldoPorUsuario(1L)).isEqualByComparingTo("30");
+		Assertions.assertThat(service.obterSaldoPorUsuario(2L)).isEqualByComparingTo("0");
+	}
+
+	@Test
+	public void importarLancamentosInformandoErrosPorLinha() {
+		// cenário
+		LancamentoDTO valido = LancamentoDTO.builder().descricao("Salario").mes(1).ano(2020)
+				.valor(BigDecimal.valueOf(100)).tipo("RECEITA").status("EFETIVADO").usuario(1L).build();
+		LancamentoDTO semValor = LancamentoDTO.builder().descricao("Aluguel").mes(1).ano(2020)
+				.tipo("DESPESA").usuario(1L).build();
+		LancamentoDTO usuarioInexistente = LancamentoDTO.builder().descricao("Mercado").mes(1).ano(2020)
+				.valor(BigDecimal.TEN).tipo("DESPESA").usuario(2L).build();
+		// maior que a coluna descricao, varchar(100)
+		LancamentoDTO descricaoLonga = LancamentoDTO.builder().descricao(String.join("", Collections.nCopies(101, "a"))).mes(1).ano(2020)
+				.valor(BigDecimal.TEN).tipo("DESPESA").usuario(1L).build();
+		
+		Mockito.when(usuarioService.existe(1L)).thenReturn(true);
+		Mockito.when(usuarioService.existe(2L)).thenReturn(false);
+		
+		// execução
+		ResultadoImportacaoDTO resultado = service.importar(Arrays.asList(valido, semValor, usuarioInexistente, descricaoLonga));
+		
+		// verificações
+		Assertions.assertThat(resultado.getImportados()).isEqualTo(1);
+		Assertions.assertThat(resultado.getErros()).extracting("linha").containsExactly(2, 3, 4);
+		Assertions.assertThat(resultado.getErros().get(2).getMensagem()).isEqualTo("Informe uma 'descrição' com no máximo 100 caracteres");
+		Mockito.verify(usuarioService, Mockito.times(1)).existe(1L);
+		Mockito.verify(repository).inserirEmLote(Mockito.argThat(lancamentos -> lancamentos.size() == 1));
+		Mockito.verify(saldoRepository).somarSaldo(1L, Dinheiro.de(BigDecimal.valueOf(100)));
+	}
+
+	@Test
+	public void efetivarLancamentosEmLoteInformandoIgnorados() {
+		// cenário
+		List<Long> ids = Arrays.asList(1L, 2L, 3L);
+		Mockito.when(repository.obterIdsPorStatus(ids, EnumStatusLancamento.PENDENTE)).thenReturn(Arrays.asList(1L, 2L));
+		Mockito.when(repository.atualizarStatus(Arrays.asList(1L, 2L), EnumStatusLancamento.PENDENTE, EnumStatusLancamento.EFETIVADO)).thenReturn(2);
+		Mockito.when(repository.somarPorUsuarioEMesETipo(Arrays.asList(1L, 2L), EnumStatusLancamento.EFETIVADO)).thenReturn(Arrays.asList(
+				new SituacaoLancamento(1L, 2020, 1, EnumTipoLancamento.RECEITA, EnumStatusLancamento.EFETIVADO, BigDecimal.valueOf(50)),
+				new SituacaoLancamento(1L, 2020, 1, EnumTipoLancamento.DESPESA, EnumStatusLancamento.EFETIVADO, BigDecimal.valueOf(20))));
+		
+		// execução
+		ResultadoAtualizacaoStatusDTO resultado = service.atualizarStatusEmLote(ids, EnumStatusLancamento.EFETIVADO);
+		
+		// verificações
+		Assertions.assertThat(resultado.getAtualizados()).isEqualTo(2);
+		Assertions.assertThat(resultado.getIgnorados()).containsExactly(3L);
+		Mockito.verify(saldoRepository).somarSaldo(1L, Dinheiro.de(BigDecimal.valueOf(30)));
+	}
+	
+	@Test
+	public void naoAtualizarStatusEmLoteAlteradoConcorrentemente() {
+		// cenário
+		List<Long> ids = Arrays.asList(1L, 2L);
+		Mockito.when(repository.obterIdsPorStatus(ids, EnumStatusLancamento.PENDENTE)).thenReturn(ids);
+		Mockito.when(repository.atualizarStatus(ids, EnumStatusLancamento.PENDENTE, EnumStatusLancamento.CANCELADO)).thenReturn(1);
+		
+		// execução e verificação
+		Throwable erro = Assertions.catchThrowable(() -> service.atualizarStatusEmLote(ids, EnumStatusLancamento.CANCELADO));
+		Assertions.assertThat(erro).isInstanceOf(RegraNegocioException.class);
+		Mockito.verifyNoInteractions(saldoRepository);
+	}
+
 }
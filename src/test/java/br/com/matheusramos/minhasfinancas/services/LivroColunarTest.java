@@ -0,0 +1,67 @@
+package br.com.matheusramos.minhasfinancas.services;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import br.com.matheusramos.minhasfinancas.enums.EnumStatusLancamento;
+import br.com.matheusramos.minhasfinancas.enums.EnumTipoLancamento;
+import br.com.matheusramos.minhasfinancas.exceptions.RegraNegocioException;
+
+public class LivroColunarTest {
+
+	static final int RECEITA_EFETIVADA = LivroColunar.celula(EnumTipoLancamento.RECEITA, EnumStatusLancamento.EFETIVADO);
+	static final int DESPESA_PENDENTE = LivroColunar.celula(EnumTipoLancamento.DESPESA, EnumStatusLancamento.PENDENTE);
+
+	@Test
+	public void somarPorMesForaDeOrdem() {
+		LivroColunar.Montagem montagem = new LivroColunar.Montagem();
+		for (int i = 0; i < 100; i++) {
+			// fora de ordem e além da capacidade inicial dos arrays
+			montagem.adicionar(150, 2020, 12 - i % 12, EnumTipoLancamento.DESPESA, EnumStatusLancamento.PENDENTE);
+		}
+		montagem.adicionar(100_000, 2019, 12, EnumTipoLancamento.RECEITA, EnumStatusLancamento.EFETIVADO);
+		montagem.adicionar(100_000, 2021, 1, EnumTipoLancamento.RECEITA, EnumStatusLancamento.EFETIVADO);
+		LivroColunar livro = montagem.montar();
+
+		int inicio = LivroColunar.periodo(2020, 3);
+		long[] totais = new long[2 * LivroColunar.CELULAS];
+		int[] quantidades = new int[totais.length];
+		livro.somar(inicio, LivroColunar.periodo(2020, 4), 1, totais, quantidades);
+
+		Assertions.assertThat(livro.tamanho()).isEqualTo(102);
+		Assertions.assertThat(quantidades[DESPESA_PENDENTE]).isEqualTo(8);
+		Assertions.assertThat(totais[DESPESA_PENDENTE]).isEqualTo(1200);
+		Assertions.assertThat(totais[LivroColunar.CELULAS + DESPESA_PENDENTE]).isEqualTo(1200);
+		Assertions.assertThat(totais[RECEITA_EFETIVADA]).isZero();
+	}
+
+	@Test
+	public void somarPorAno() {
+		LivroColunar.Montagem montagem = new LivroColunar.Montagem();
+		montagem.adicionar(100, 2019, 12, EnumTipoLancamento.RECEITA, EnumStatusLancamento.EFETIVADO);
+		montagem.adicionar(200, 2020, 1, EnumTipoLancamento.RECEITA, EnumStatusLancamento.EFETIVADO);
+		montagem.adicionar(300, 2020, 12, EnumTipoLancamento.RECEITA, EnumStatusLancamento.EFETIVADO);
+		montagem.adicionar(400, 2021, 1, EnumTipoLancamento.RECEITA, EnumStatusLancamento.EFETIVADO);
+
+		long[] totais = new long[2 * LivroColunar.CELULAS];
+		montagem.montar().somar(LivroColunar.periodo(2020, 1), LivroColunar.periodo(2021, 12), 12, totais, new int[totais.length]);
+
+		Assertions.assertThat(totais[RECEITA_EFETIVADA]).isEqualTo(500);
+		Assertions.assertThat(totais[LivroColunar.CELULAS + RECEITA_EFETIVADA]).isEqualTo(400);
+	}
+
+	@Test
+	public void recusarTotalAcimaDoMaiorLong() {
+		LivroColunar.Montagem montagem = new LivroColunar.Montagem();
+		for (int i = 0; i < 1000; i++) {
+			// o valor máximo de um lançamento, 99999999999999.99
+			montagem.adicionar(9_999_999_999_999_999L, 2020, 1, EnumTipoLancamento.RECEITA, EnumStatusLancamento.EFETIVADO);
+		}
+
+		long[] totais = new long[LivroColunar.CELULAS];
+		Throwable erro = Assertions.catchThrowable(() -> montagem.montar()
+				.somar(LivroColunar.periodo(2020, 1), LivroColunar.periodo(2020, 1), 1, totais, new int[totais.length]));
+		Assertions.assertThat(erro).isInstanceOf(RegraNegocioException.class);
+	}
+
+}
@@ -0,0 +1,76 @@
+package br.com.matheusramos.minhasfinancas.services;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Base64;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class TokenServiceTest {
+
+	static final String CHAVE_ATUAL = Base64.getEncoder().encodeToString("chave-atual-com-pelo-menos-32-bytes".getBytes());
+	static final String CHAVE_NOVA = Base64.getEncoder().encodeToString("chave-nova-com-pelo-menos-32-bytes!".getBytes());
+	
+	static final Clock AGORA = Clock.fixed(Instant.parse("2020-05-01T10:00:00Z"), ZoneOffset.UTC);
+	
+	@Test
+	public void verificarTokenEmitido() {
+		TokenServiceImpl service = new TokenServiceImpl(CHAVE_ATUAL, 60, AGORA);
+		
+		String token = service.emitir(42L);
+		
+		Assertions.assertThat(service.verificar(token)).contains(42L);
+		Assertions.assertThat(service.emitir(42L)).isNotEqualTo(token);
+	}
+	
+	@Test
+	public void recusarTokenAdulteradoOuMalFormado() {
+		TokenServiceImpl service = new TokenServiceImpl(CHAVE_ATUAL, 60, AGORA);
+		String token = service.emitir(42L);
+		
+		// outro usuário com a assinatura original
+		String conteudoAlterado = new TokenServiceImpl(CHAVE_ATUAL, 60, AGORA).emitir(43L).split("\\.")[0];
+		Assertions.assertThat(service.verificar(conteudoAlterado + "." + token.split("\\.")[1])).isEmpty();
+		
+		Assertions.assertThat(service.verificar("abc")).isEmpty();
+		Assertions.assertThat(service.verificar("###.###")).isEmpty();
+		Assertions.assertThat(service.verificar(null)).isEmpty();
+		Assertions.assertThat(new TokenServiceImpl(CHAVE_NOVA, 60, AGORA).verificar(token)).isEmpty();
+	}
+	
+	@Test
+	public void recusarTokenExpirado() {
+		String token = new TokenServiceImpl(CHAVE_ATUAL, 60, AGORA).emitir(42L);
+		
+		Clock depois = Clock.offset(AGORA, Duration.ofMinutes(61));
+		Assertions.assertThat(new TokenServiceImpl(CHAVE_ATUAL, 60, depois).verificar(token)).isEmpty();
+	}
+	
+	@Test
+	public void recusarTokenRevogadoNoLogout() {
+		TokenServiceImpl service = new TokenServiceImpl(CHAVE_ATUAL, 60, AGORA);
+		String revogado = service.emitir(42L);
+		String outro = service.emitir(42L);
+		
+		service.revogar(revogado);
+		
+		Assertions.assertThat(service.verificar(revogado)).isEmpty();
+		Assertions.assertThat(service.verificar(outro)).contains(42L);
+	}
+	
+	@Test
+	public void aceitarTokensDaChaveAnteriorDuranteARotacao() {
+		String antigo = new TokenServiceImpl(CHAVE_ATUAL, 60, AGORA).emitir(42L);
+		
+		TokenServiceImpl rotacionado = new TokenServiceImpl(CHAVE_NOVA + "," + CHAVE_ATUAL, 60, AGORA);
+		String novo = rotacionado.emitir(42L);
+		
+		Assertions.assertThat(rotacionado.verificar(antigo)).contains(42L);
+		Assertions.assertThat(new TokenServiceImpl(CHAVE_NOVA, 60, AGORA).verificar(novo)).contains(42L);
+		Assertions.assertThat(new TokenServiceImpl(CHAVE_NOVA, 60, AGORA).verificar(antigo)).isEmpty();
+	}
+	
+}
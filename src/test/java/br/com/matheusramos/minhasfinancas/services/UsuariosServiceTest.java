@@ -8,6 +8,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mockito;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
@@ -23,6 +24,9 @@ public class UsuariosServiceTest {
 	@SpyBean
 	private UsuarioServiceImpl service;
 	
+	@SpyBean
+	private SenhaServiceImpl senhaService;
+	
 	@MockBean
 	private UsuarioRepository repository;
 	
@@ -47,6 +51,35 @@ public class UsuariosServiceTest {
 		Assertions.assertThat(resultado).isNotNull();
 	}
 	
+	/*
+	 * Senha ainda em texto puro é aceita e recebe o hash depois do login
+	 * */
+	@Test
+	public void atualizarSenhaEmTextoPuroNoLogin() {
+		Usuario usuario = criaUsuario();
+		Mockito.when(repository.findByEmail(Mockito.anyString())).thenReturn(Optional.of(usuario));
+		
+		service.autenticar("matheus.hrs@live.com", "123");
+		
+		Mockito.verify(repository, Mockito.timeout(5000)).atualizarSenha(Mockito.eq(1L), Mockito.eq("123"),
+				Mockito.argThat(hash -> SenhaServiceImpl.codificada(hash) && !hash.contains("123")));
+	}
+	
+	/*
+	 * Senha com hash BCrypt é conferida sem ser atualizada novamente
+	 * */
+	@Test
+	public void validarUsuarioComSenhaCodificada() {
+		Usuario usuario = criaUsuario();
+		usuario.setSenha(senhaService.codificar("123").join());
+		Mockito.when(repository.findByEmail(Mockito.anyString())).thenReturn(Optional.of(usuario));
+		
+		Assertions.assertThat(service.autenticar("matheus.hrs@live.com", "123")).isNotNull();
+		Throwable thrown = Assertions.catchThrowable(() -> service.autenticar("matheus.hrs@live.com", "567"));
+		Assertions.assertThat(thrown).isInstanceOf(ErroAuthException.class).hasMessage("Senha de usuário inválida");
+		Mockito.verify(repository, Mockito.never()).atualizarSenha(Mockito.anyLong(), Mockito.anyString(), Mockito.anyString());
+	}
+	
 	/*
 	 * Mostrar erro informando usuário inexistente
 	 * */
@@ -114,6 +147,18 @@ public class UsuariosServiceTest {
 		}
 	}
 	
+	/*
+	 * Cadastro concorrente: a validação passou, mas outro cadastro gravou o mesmo email antes do insert
+	 * */
+	@Test
+	public void salvarUsuarioEmailGravadoPorOutroCadastro() {
+		Mockito.doNothing().when(service).validarEmail(Mockito.anyString());
+		Mockito.when(repository.save(Mockito.any(Usuario.class))).thenThrow(new DataIntegrityViolationException("idx_usuario_email"));
+		
+		Throwable thrown = Assertions.catchThrowable(() -> service.salvarUsuario(Usuario.builder().email("matheus.hrs@live.com").build()));
+		Assertions.assertThat(thrown).isInstanceOf(RegraNegocioException.class).hasMessage("Já existe um usuário cadastrado com este email");
+	}
+	
 	@Test
 	public void lancaExceptionAoExistirEmailJaCadastradoTest() {
 		Mockito.when(repository.existsByEmail(Mockito.anyString())).thenReturn(true);
@@ -0,0 +1,37 @@
+package br.com.matheusramos.minhasfinancas.utils;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import br.com.matheusramos.minhasfinancas.model.entity.Lancamento;
+import br.com.matheusramos.minhasfinancas.model.entity.Usuario;
+
+public class GeradorDadosTest {
+
+	@Test
+	public void mesmaSementeGeraMesmosDados() {
+		List<Lancamento> primeira = gerar(42);
+		List<Lancamento> segunda = gerar(42);
+		
+		Assertions.assertThat(primeira).usingElementComparatorIgnoringFields("usuario").isEqualTo(segunda);
+		Assertions.assertThat(gerar(7)).usingElementComparatorIgnoringFields("usuario").isNotEqualTo(primeira);
+	}
+	
+	@Test
+	public void distribuiExatamenteOTotalDeLancamentos() {
+		int[] quantidades = new GeradorDados(42, 2020).distribuir(37, 100000);
+		
+		Assertions.assertThat(Arrays.stream(quantidades).sum()).isEqualTo(100000);
+		Assertions.assertThat(Arrays.stream(quantidades).max().getAsInt()).isGreaterThan(100000 / 37 * 2);
+	}
+	
+	private List<Lancamento> gerar(long semente) {
+		GeradorDados gerador = new GeradorDados(semente, 2020);
+		Usuario usuario = gerador.usuario(1);
+		return gerador.lancamentos(usuario, 500);
+	}
+	
+}